@@ -0,0 +1,49 @@
+package com.boa.hackathon.autodocgen.bench;
+
+import com.boa.hackathon.autodocgen.service.DocQualityAnalyzer;
+import com.boa.hackathon.autodocgen.service.SpellChecker;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** The quality report's detectors over the parsed synthetic project. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnalyzerBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Spelling {
+        SpellChecker.Vocabulary vocabulary;
+
+        // bundled word list only, so results do not depend on the machine's /usr/share/dict
+        @Setup(Level.Trial)
+        public void setUp(ProjectState state) {
+            vocabulary = new SpellChecker("", true, 2, 3).vocabularyFor(state.project);
+        }
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> detectSimilarMethods(ProjectState state) {
+        return DocQualityAnalyzer.detectSimilarMethods(state.project.getClasses());
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> detectDuplicateMethodBodies(ProjectState state) {
+        return DocQualityAnalyzer.detectDuplicateMethodBodies(state.project.getClasses());
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> detectClonedBlocks(ProjectState state) {
+        return DocQualityAnalyzer.detectClonedBlocks(state.project.getClasses(), 50, 200);
+    }
+
+    @Benchmark
+    public Map<String, Object> analyzeDocText(ProjectState state, Spelling spelling) {
+        return DocQualityAnalyzer.analyzeDocText(state.docText, spelling.vocabulary);
+    }
+}
@@ -0,0 +1,31 @@
+package com.boa.hackathon.autodocgen.bench;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of {@code benchmarks.jar}: the usual JMH command line, except that results are
+ * written as JSON to {@code target/jmh-result.json} unless {@code -rf}/{@code -rff} say
+ * otherwise, so runs can be compared over time (e.g. with jmh.morethan.io or a CI plot).
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        if (cli.shouldHelp() || cli.shouldList() || cli.shouldListWithParams() || cli.shouldListProfilers() || cli.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(cli);
+        if (cli.getResultFormat().hasValue() || cli.getResult().hasValue()) {
+            new Runner(options.build()).run();
+            return;
+        }
+        Options withJson = options.resultFormat(ResultFormatType.JSON).result("target/jmh-result.json").build();
+        new Runner(withJson).run();
+    }
+}
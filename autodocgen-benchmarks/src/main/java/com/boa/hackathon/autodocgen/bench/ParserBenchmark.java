@@ -0,0 +1,37 @@
+package com.boa.hackathon.autodocgen.bench;
+
+import com.boa.hackathon.autodocgen.model.ClassMetadata;
+import com.boa.hackathon.autodocgen.service.RepoParserService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Parsing every file of the synthetic repository, single-threaded and on one worker per core. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Parallel {
+        RepoParserService parser;
+
+        @Setup(Level.Trial)
+        public void setUp(ProjectState state) {
+            parser = state.newParser(0);
+        }
+    }
+
+    @Benchmark
+    public List<ClassMetadata> parseFiles(ProjectState state) throws Exception {
+        return state.parser.parseFiles(state.files);
+    }
+
+    @Benchmark
+    public List<ClassMetadata> parseFilesParallel(ProjectState state, Parallel parallel) throws Exception {
+        return parallel.parser.parseFiles(state.files);
+    }
+}
@@ -0,0 +1,67 @@
+package com.boa.hackathon.autodocgen.bench;
+
+import com.boa.hackathon.autodocgen.model.ProjectMetadata;
+import com.boa.hackathon.autodocgen.service.ParseCache;
+import com.boa.hackathon.autodocgen.service.RepoMirrorCache;
+import com.boa.hackathon.autodocgen.service.RepoParserService;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A {@link SyntheticRepo} written to a temporary directory and parsed once per trial, shared by
+ * every benchmark of the trial. Sizes are JMH parameters, so a run can sweep them with e.g.
+ * {@code -p packages=4,16,64}.
+ */
+@State(Scope.Benchmark)
+public class ProjectState {
+
+    static final String[] DOMAIN_KEYWORDS = {"inventory", "stock", "warehouse", "product", "order", "user", "auth", "token", "lock", "redis"};
+
+    @Param("8")
+    public int packages;
+
+    @Param("12")
+    public int classesPerPackage;
+
+    @Param("8")
+    public int methodsPerClass;
+
+    @Param("0.2")
+    public double duplication;
+
+    @Param("42")
+    public long seed;
+
+    public Path dir;
+    public List<Path> files;
+    public String docText;
+    public RepoParserService parser;
+    public ProjectMetadata project;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        SyntheticRepo repo = new SyntheticRepo(packages, classesPerPackage, methodsPerClass, duplication, seed);
+        dir = Files.createTempDirectory("autodoc-bench");
+        files = repo.writeTo(dir);
+        docText = repo.docText();
+        // the parse cache is off so every iteration really parses; one worker keeps scores comparable across machines
+        parser = newParser(1);
+        project = new ProjectMetadata();
+        project.setProjectName("synthetic-shop");
+        project.setClasses(parser.parseFiles(files));
+        project.setClassCount(project.getClasses().size());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SyntheticRepo.delete(dir);
+    }
+
+    RepoParserService newParser(int parallelism) {
+        return new RepoParserService(parallelism, DOMAIN_KEYWORDS,
+                new RepoMirrorCache(dir.resolve(".mirrors"), Long.MAX_VALUE), new ParseCache(false, "", 0), 300);
+    }
+}
@@ -0,0 +1,274 @@
+package com.boa.hackathon.autodocgen.bench;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * A Spring-style Java code base made up from a seed: {@code packages} packages of
+ * {@code classesPerPackage} classes with {@code methodsPerClass} methods each. Classes cycle
+ * through controller, service, repository and entity, so every parser path (mappings, repository
+ * calls, field types, Javadoc) gets exercised.
+ * <p>
+ * A {@code duplication} share of the method bodies is copied from a small shared pool, half of
+ * them verbatim (type-1 clones) and half with identifiers and literals renamed (type-2), which
+ * is what the duplicate and similarity detectors look for. The same arguments always produce
+ * the same files and the same {@link #docText() doc text}.
+ */
+public class SyntheticRepo {
+
+    private static final String ROOT_PACKAGE = "com.synthetic.shop";
+    private static final String[] NOUNS = {"order", "product", "stock", "warehouse", "customer", "invoice",
+            "payment", "shipment", "account", "token", "basket", "price", "review", "supplier", "report"};
+    private static final String[] VERBS = {"find", "load", "update", "create", "delete", "validate", "compute",
+            "reserve", "release", "sync", "merge", "publish", "archive", "refresh", "count"};
+    private static final String[] WORDS = {"the", "returns", "given", "current", "value", "list", "when", "each",
+            "request", "response", "stored", "cached", "between", "identifier", "entity", "total", "updated",
+            "transaction", "inventory", "pending", "available", "quantity", "record", "otherwise", "null", "user"};
+    private static final String[] TYPES = {"String", "Long", "Integer", "BigDecimal", "Boolean", "LocalDate"};
+    private static final String[] KINDS = {"Controller", "Service", "Repository", "Entity"};
+    private static final int SHARED_BODIES = 16;
+
+    private final int packages;
+    private final int classesPerPackage;
+    private final int methodsPerClass;
+    private final double duplication;
+    private final long seed;
+
+    public SyntheticRepo(int packages, int classesPerPackage, int methodsPerClass, double duplication, long seed) {
+        if (packages < 1 || classesPerPackage < 1 || methodsPerClass < 1) {
+            throw new IllegalArgumentException("packages, classes and methods must be positive");
+        }
+        if (duplication < 0 || duplication > 1) {
+            throw new IllegalArgumentException("duplication must be in [0, 1]: " + duplication);
+        }
+        this.packages = packages;
+        this.classesPerPackage = classesPerPackage;
+        this.methodsPerClass = methodsPerClass;
+        this.duplication = duplication;
+        this.seed = seed;
+    }
+
+    /** Writes the sources under {@code dir} and returns them in path order. */
+    public List<Path> writeTo(Path dir) {
+        SplittableRandom rnd = new SplittableRandom(seed);
+        List<String> shared = new ArrayList<>(SHARED_BODIES);
+        for (int i = 0; i < SHARED_BODIES; i++) shared.add(body(rnd, 6 + rnd.nextInt(10), i));
+
+        List<Path> files = new ArrayList<>();
+        try {
+            for (int p = 0; p < packages; p++) {
+                String pkg = ROOT_PACKAGE + ".p" + p;
+                Path pkgDir = dir.resolve(pkg.replace('.', '/'));
+                Files.createDirectories(pkgDir);
+                for (int c = 0; c < classesPerPackage; c++) {
+                    String kind = KINDS[c % KINDS.length];
+                    String name = className(p, c);
+                    String source = switch (kind) {
+                        case "Controller" -> controller(rnd, pkg, name, p, c, shared);
+                        case "Service" -> service(rnd, pkg, name, p, c, shared);
+                        case "Repository" -> repository(pkg, name, p, c);
+                        default -> entity(rnd, pkg, name);
+                    };
+                    Path file = pkgDir.resolve(name + ".java");
+                    Files.writeString(file, source, StandardCharsets.UTF_8);
+                    files.add(file);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        files.sort(Comparator.naturalOrder());
+        return files;
+    }
+
+    /**
+     * Markdown describing the generated classes, of the kind the README generator writes, with
+     * roughly one word in fifty misspelt so the spell checker has suspects to suggest for.
+     */
+    public String docText() {
+        SplittableRandom rnd = new SplittableRandom(seed ^ 0x5DEECE66DL);
+        StringBuilder sb = new StringBuilder("# Synthetic shop\n\n");
+        for (int p = 0; p < packages; p++) {
+            sb.append("## Package `").append(ROOT_PACKAGE).append(".p").append(p).append("`\n\n");
+            for (int c = 0; c < classesPerPackage; c++) {
+                sb.append("### ").append(className(p, c)).append("\n\n");
+                for (int m = 0; m < methodsPerClass; m++) {
+                    sb.append("- `").append(methodName(c, m)).append("`: ");
+                    sentence(rnd, sb, 8 + rnd.nextInt(12), 0.02);
+                    sb.append('\n');
+                }
+                sb.append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    /** Deletes a directory written by {@link #writeTo(Path)}. */
+    public static void delete(Path dir) {
+        if (!Files.exists(dir)) return;
+        try (Stream<Path> walk = Files.walk(dir)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(p -> {
+                try {
+                    Files.deleteIfExists(p);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String className(int p, int c) {
+        return capitalize(NOUNS[(p + c / KINDS.length) % NOUNS.length]) + p + "x" + c + KINDS[c % KINDS.length];
+    }
+
+    private static String entityName(int p, int c) {
+        return capitalize(NOUNS[(p + c / KINDS.length) % NOUNS.length]) + p + "x" + (c - c % KINDS.length + 3) + "Entity";
+    }
+
+    private static String repositoryName(int p, int c) {
+        return capitalize(NOUNS[(p + c / KINDS.length) % NOUNS.length]) + p + "x" + (c - c % KINDS.length + 2) + "Repository";
+    }
+
+    private String methodName(int c, int m) {
+        return VERBS[(c + m) % VERBS.length] + capitalize(NOUNS[(c * 7 + m) % NOUNS.length]) + m;
+    }
+
+    private String controller(SplittableRandom rnd, String pkg, String name, int p, int c, List<String> shared) {
+        StringBuilder sb = header(pkg);
+        sb.append("import org.springframework.web.bind.annotation.*;\n\n");
+        javadoc(rnd, sb, "");
+        sb.append("@RestController\n@RequestMapping(\"/api/").append(NOUNS[(p + c) % NOUNS.length]).append("s").append(p).append("x").append(c).append("\")\n");
+        sb.append("public class ").append(name).append(" {\n\n");
+        String service = name.replace("Controller", "Service");
+        sb.append("    private final ").append(service.replace(c + "Service", (c + 1) + "Service")).append(" service;\n\n");
+        for (int m = 0; m < methodsPerClass; m++) {
+            javadoc(rnd, sb, "    ");
+            switch (m % 4) {
+                case 0 -> sb.append("    @GetMapping(\"/{id}\")\n    public String ").append(methodName(c, m))
+                        .append("(@PathVariable Long id, @RequestParam(required = false) String filter) {\n");
+                case 1 -> sb.append("    @PostMapping\n    public String ").append(methodName(c, m))
+                        .append("(@RequestBody ").append(entityName(p, c)).append(" body) {\n");
+                case 2 -> sb.append("    @PutMapping(\"/{id}/items/").append(m).append("\")\n    public String ").append(methodName(c, m))
+                        .append("(@PathVariable Long id, @RequestHeader(\"X-Trace\") String trace) {\n");
+                default -> sb.append("    @GetMapping(\"/search").append(m).append("\")\n    public String ").append(methodName(c, m))
+                        .append("(@RequestParam String q, @RequestParam(defaultValue = \"10\") int limit) {\n");
+            }
+            sb.append(methodBody(rnd, m, shared)).append("    }\n\n");
+        }
+        return sb.append("}\n").toString();
+    }
+
+    private String service(SplittableRandom rnd, String pkg, String name, int p, int c, List<String> shared) {
+        StringBuilder sb = header(pkg);
+        sb.append("import org.springframework.stereotype.Service;\nimport java.util.*;\n\n");
+        javadoc(rnd, sb, "");
+        sb.append("@Service\npublic class ").append(name).append(" {\n\n");
+        sb.append("    private final ").append(repositoryName(p, c)).append(" repository;\n");
+        sb.append("    private final Map<String, ").append(entityName(p, c)).append("> cache = new HashMap<>();\n\n");
+        for (int m = 0; m < methodsPerClass; m++) {
+            javadoc(rnd, sb, "    ");
+            sb.append("    public String ").append(methodName(c, m)).append("(Long id, String key) {\n");
+            sb.append("        repository.findById(id);\n");
+            sb.append(methodBody(rnd, m, shared)).append("    }\n\n");
+        }
+        return sb.append("}\n").toString();
+    }
+
+    private String repository(String pkg, String name, int p, int c) {
+        StringBuilder sb = header(pkg);
+        sb.append("import org.springframework.data.jpa.repository.JpaRepository;\nimport java.util.List;\n\n");
+        String entity = entityName(p, c);
+        sb.append("public interface ").append(name).append(" extends JpaRepository<").append(entity).append(", Long> {\n\n");
+        for (int m = 0; m < methodsPerClass; m++) {
+            sb.append("    List<").append(entity).append("> findBy").append(capitalize(NOUNS[m % NOUNS.length]))
+                    .append(m).append("(String value);\n\n");
+        }
+        return sb.append("}\n").toString();
+    }
+
+    private String entity(SplittableRandom rnd, String pkg, String name) {
+        StringBuilder sb = header(pkg);
+        sb.append("import jakarta.persistence.*;\nimport java.math.BigDecimal;\nimport java.time.LocalDate;\n\n");
+        javadoc(rnd, sb, "");
+        sb.append("@Entity\npublic class ").append(name).append(" {\n\n    @Id\n    private Long id;\n");
+        for (int f = 0; f < methodsPerClass; f++) {
+            sb.append("    private ").append(TYPES[f % TYPES.length]).append(' ').append(NOUNS[f % NOUNS.length]).append(f).append(";\n");
+        }
+        sb.append('\n');
+        for (int f = 0; f < methodsPerClass; f++) {
+            String field = NOUNS[f % NOUNS.length] + f;
+            sb.append("    public ").append(TYPES[f % TYPES.length]).append(" get").append(capitalize(field))
+                    .append("() {\n        return ").append(field).append(";\n    }\n\n");
+        }
+        return sb.append("}\n").toString();
+    }
+
+    private String methodBody(SplittableRandom rnd, int m, List<String> shared) {
+        if (rnd.nextDouble() >= duplication) return body(rnd, 4 + rnd.nextInt(12), 1000 + rnd.nextInt(1_000_000));
+        String body = shared.get(rnd.nextInt(shared.size()));
+        // every other copy renamed: same shape, different identifiers and literals
+        return rnd.nextBoolean() ? body : body.replace("total", "sum" + m).replace("item", "entry" + m).replace("42", String.valueOf(m + 7));
+    }
+
+    private static String body(SplittableRandom rnd, int statements, int salt) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("        int total = ").append(salt % 97).append(";\n");
+        sb.append("        List<String> items = new ArrayList<>();\n");
+        for (int s = 0; s < statements; s++) {
+            String noun = NOUNS[rnd.nextInt(NOUNS.length)];
+            switch (rnd.nextInt(4)) {
+                case 0 -> sb.append("        for (int i = 0; i < 42; i++) {\n            total += i * ").append(s + 1)
+                        .append(";\n            items.add(\"").append(noun).append("\" + i);\n        }\n");
+                case 1 -> sb.append("        if (total > ").append(rnd.nextInt(1000)).append(") {\n            total -= items.size();\n        } else {\n            items.add(\"")
+                        .append(noun).append("\");\n        }\n");
+                case 2 -> sb.append("        for (String item : items) {\n            if (item.startsWith(\"").append(noun)
+                        .append("\")) total++;\n        }\n");
+                default -> sb.append("        total = Math.max(total, items.size() * ").append(rnd.nextInt(10) + 1).append(");\n");
+            }
+        }
+        sb.append("        return String.valueOf(total) + items.size();\n");
+        return sb.toString();
+    }
+
+    private static StringBuilder header(String pkg) {
+        return new StringBuilder("package ").append(pkg).append(";\n\nimport java.util.ArrayList;\nimport java.util.List;\n");
+    }
+
+    private static void javadoc(SplittableRandom rnd, StringBuilder sb, String indent) {
+        sb.append(indent).append("/**\n").append(indent).append(" * ");
+        sentence(rnd, sb, 6 + rnd.nextInt(10), 0.0);
+        sb.append('\n').append(indent).append(" */\n");
+    }
+
+    private static void sentence(SplittableRandom rnd, StringBuilder sb, int words, double typoRate) {
+        for (int w = 0; w < words; w++) {
+            String word = rnd.nextBoolean() ? WORDS[rnd.nextInt(WORDS.length)] : NOUNS[rnd.nextInt(NOUNS.length)];
+            if (w == 0) word = capitalize(word);
+            if (rnd.nextDouble() < typoRate && word.length() > 3) word = typo(rnd, word);
+            if (w > 0) sb.append(' ');
+            sb.append(word);
+        }
+        sb.append('.');
+    }
+
+    // swap two adjacent letters or drop one, the usual single-edit misspellings
+    private static String typo(SplittableRandom rnd, String word) {
+        int i = 1 + rnd.nextInt(word.length() - 2);
+        if (rnd.nextBoolean()) return word.substring(0, i) + word.substring(i + 1);
+        return word.substring(0, i) + word.charAt(i + 1) + word.charAt(i) + word.substring(i + 2);
+    }
+
+    private static String capitalize(String s) {
+        return Character.toUpperCase(s.charAt(0)) + s.substring(1);
+    }
+}
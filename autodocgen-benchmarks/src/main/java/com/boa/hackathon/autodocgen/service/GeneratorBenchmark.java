@@ -0,0 +1,57 @@
+package com.boa.hackathon.autodocgen.service;
+
+import com.boa.hackathon.autodocgen.bench.ProjectState;
+import com.boa.hackathon.autodocgen.util.JsonUtil;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.swagger.v3.core.util.Json;
+import io.swagger.v3.oas.models.OpenAPI;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Model building and serialisation of the artifact generators. Lives in the generators' package
+ * to reach {@link UmlDiagramGenerator#buildPlantUml} and {@link OpenApiGenerator#buildOpenApi},
+ * which leave out rendering and zip writing. The project's relationship index is built once by
+ * the first call and reused, as it is across the generators of one run.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeneratorBenchmark {
+
+    private final UmlDiagramGenerator uml = new UmlDiagramGenerator(null);
+    private final OpenApiGenerator openApi = new OpenApiGenerator();
+
+    @Benchmark
+    public Map<String, String> buildPlantUml(ProjectState state) {
+        return uml.buildPlantUml(state.project);
+    }
+
+    @Benchmark
+    public OpenAPI buildOpenApi(ProjectState state) {
+        return openApi.buildOpenApi(state.project);
+    }
+
+    @Benchmark
+    public void writeOpenApi(ProjectState state) throws IOException {
+        OpenAPI api = openApi.buildOpenApi(state.project);
+        Json.pretty().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValue(OutputStream.nullOutputStream(), api);
+    }
+
+    @Benchmark
+    public void writeMetadataJson(ProjectState state) throws IOException {
+        JsonUtil.writeProject(OutputStream.nullOutputStream(), state.project, JsonUtil.Layout.PRETTY, false);
+    }
+
+    @Benchmark
+    public void writeMetadataJsonWithBodies(ProjectState state) throws IOException {
+        JsonUtil.writeProject(OutputStream.nullOutputStream(), state.project, JsonUtil.Layout.PRETTY, true);
+    }
+}
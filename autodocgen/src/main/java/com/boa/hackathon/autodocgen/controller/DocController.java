@@ -1,16 +1,28 @@
 package com.boa.hackathon.autodocgen.controller;
 
+import com.boa.hackathon.autodocgen.model.CostEstimate;
+import com.boa.hackathon.autodocgen.model.DocRequest;
 import com.boa.hackathon.autodocgen.model.ProjectMetadata;
 import com.boa.hackathon.autodocgen.service.AIService;
 import com.boa.hackathon.autodocgen.service.DocGeneratorService;
+import com.boa.hackathon.autodocgen.service.DocPipelineService;
+import com.boa.hackathon.autodocgen.service.PipelineMetrics;
+import com.boa.hackathon.autodocgen.service.PipelineProgress;
 import com.boa.hackathon.autodocgen.service.RepoParserService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.File;
-import java.nio.file.Files;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/doc")
@@ -26,33 +38,79 @@ public class DocController {
     @Autowired
     private DocGeneratorService docGeneratorService;
 
-    @PostMapping("/generate")
-    public ResponseEntity<InputStreamResource> generate(@RequestBody Req req) throws Exception {
-        // 1. clone+parse
-        ProjectMetadata projectMeta = repoService.cloneAndParse(req.getUrl());
+    @Autowired
+    private DocPipelineService pipeline;
 
-        // 2. enrich with AI summaries
-        aiService.enrichProject(projectMeta);
+    @Autowired
+    private PipelineMetrics metrics;
 
-        // 3. generate docs & UML -> returns path to zip
-        File zip = docGeneratorService.generateDocsZip(projectMeta);
+    @PostMapping("/generate")
+    public ResponseEntity<StreamingResponseBody> generate(@RequestBody DocRequest req, HttpServletRequest request) throws Exception {
+        try {
+            docGeneratorService.checkRequest(req);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        // one trace for the request, closed once the response has been streamed
+        PipelineMetrics.Trace trace = metrics.trace(req.getUrl(), PipelineProgress.NONE);
+        RepoParserService.Checkout checkout;
+        try {
+            // clone, parse and enrich before answering, so failures still map to an error status
+            checkout = pipeline.prepare(req, trace);
+        } catch (Exception e) {
+            trace.fail(e);
+            trace.close();
+            throw e;
+        }
+        ProjectMetadata projectMeta = checkout.getProject();
+        // the body below may never run (client gone, executor full, ...): the async request's own
+        // completion releases the working tree in any case
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(checkout, new CallableProcessingInterceptor() {
+            @Override
+            public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+                checkout.close();
+            }
+        });
 
-        InputStreamResource resource = new InputStreamResource(Files.newInputStream(zip.toPath()));
+        // artifacts are written into the response as they are generated
+        StreamingResponseBody body = out -> {
+            try {
+                trace.stage("generate", () -> {
+                    docGeneratorService.streamDocsZip(projectMeta, req, trace, out);
+                    return null;
+                });
+            } catch (IOException | RuntimeException e) {
+                trace.fail(e);
+                throw e;
+            } catch (Exception e) {
+                trace.fail(e);
+                throw new IllegalStateException(e);
+            } finally {
+                checkout.close(); // bodies are read from the working tree until here
+                trace.close();
+            }
+        };
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentDisposition(ContentDisposition.attachment().filename(zip.getName()).build());
+        headers.setContentDisposition(ContentDisposition.attachment().filename(docGeneratorService.zipName(projectMeta)).build());
         headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-        return new ResponseEntity<>(resource, headers, HttpStatus.OK);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
     }
 
-    public static class Req {
-        private String url;
-
-        public String getUrl() {
-            return url;
+    /**
+     * Clone and parse only, and report what enriching the project would cost in tokens.
+     */
+    @PostMapping("/estimate")
+    public CostEstimate estimate(@RequestBody DocRequest req) throws Exception {
+        try (RepoParserService.Checkout checkout = repoService.cloneAndParse(req.getUrl(), req.isIncremental(), PipelineProgress.NONE)) {
+            return aiService.estimateCost(checkout.getProject());
         }
+    }
 
-        public void setUrl(String u) {
-            this.url = u;
-        }
+    /** Another run of the same repository held its working tree for too long. */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Map<String, Object>> busy(RejectedExecutionException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "30")
+                .body(Map.of("error", e.getMessage()));
     }
 }
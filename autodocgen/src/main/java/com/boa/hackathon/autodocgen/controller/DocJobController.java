@@ -0,0 +1,73 @@
+package com.boa.hackathon.autodocgen.controller;
+
+import com.boa.hackathon.autodocgen.model.DocJob;
+import com.boa.hackathon.autodocgen.model.DocRequest;
+import com.boa.hackathon.autodocgen.service.DocGeneratorService;
+import com.boa.hackathon.autodocgen.service.DocJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.*;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("/api/doc/jobs")
+public class DocJobController {
+
+    @Autowired
+    private DocJobService jobService;
+
+    @Autowired
+    private DocGeneratorService docGeneratorService;
+
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> submit(@RequestBody DocRequest req) {
+        try {
+            docGeneratorService.checkRequest(req);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        try {
+            DocJob job = jobService.submit(req);
+            return ResponseEntity.accepted()
+                    .header(HttpHeaders.LOCATION, "/api/doc/jobs/" + job.getId())
+                    .body(Map.of("id", job.getId(), "status", job.getStatus()));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .body(Map.of("error", "Too many documentation jobs queued, try again later"));
+        }
+    }
+
+    @GetMapping("/{id}")
+    public DocJob status(@PathVariable String id) {
+        return find(id);
+    }
+
+    @GetMapping(path = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@PathVariable String id) {
+        return jobService.subscribe(find(id));
+    }
+
+    @GetMapping("/{id}/download")
+    public ResponseEntity<InputStreamResource> download(@PathVariable String id) throws Exception {
+        DocJob job = find(id);
+        if (job.getStatus() != DocJob.Status.SUCCEEDED || job.getZip() == null || !Files.exists(job.getZip())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Job " + id + " has no documentation to download (" + job.getStatus() + ")");
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentDisposition(ContentDisposition.attachment().filename(job.getZip().getFileName().toString()).build());
+        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        headers.setContentLength(Files.size(job.getZip()));
+        return new ResponseEntity<>(new InputStreamResource(Files.newInputStream(job.getZip())), headers, HttpStatus.OK);
+    }
+
+    private DocJob find(String id) {
+        return jobService.get(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown job " + id));
+    }
+}
@@ -0,0 +1,17 @@
+package com.boa.hackathon.autodocgen.model;
+
+import lombok.Data;
+
+/**
+ * Fixed-size summary of a method body for clone detection, computed from its tokens at parse
+ * time so the body text itself never has to be kept or compared.
+ */
+@Data
+public class BodyFingerprint {
+    private int tokenCount;
+    private long exactHash;      // all tokens as written, comments and whitespace ignored
+    private long normalizedHash; // identifiers and literals replaced by placeholders
+    private long[] hashes;       // winnowed k-gram hashes over the normalized tokens
+    private int[] offsets;       // token offset of each selected k-gram
+    private int[] lines;         // first and last source line of each selected k-gram, two per entry
+}
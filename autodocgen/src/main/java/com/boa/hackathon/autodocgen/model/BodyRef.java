@@ -0,0 +1,21 @@
+package com.boa.hackathon.autodocgen.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Where a method body sits in its source file, so the text can be read back on demand (see
+ * {@link com.boa.hackathon.autodocgen.util.BodyLoader}) instead of being kept on the heap.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BodyRef {
+    private String file;   // shared with ClassMetadata's filePath, one instance per file
+    private long offset;   // UTF-8 byte range of the body, braces included
+    private int length;
+    private int beginLine; // line range of the body
+    private int endLine;
+    private long hash;     // of the body text, to tell an unchanged body without reading it
+}
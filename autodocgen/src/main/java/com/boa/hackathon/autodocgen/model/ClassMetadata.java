@@ -9,8 +9,11 @@ public class ClassMetadata {
     private String className;
     private String packageName;
     private String type; // Controller/Service/Repository/Entity/Model
+    private String basePath; // class-level request mapping of a controller, e.g. "/api/orders"
     private List<MethodMeta> methods;
     private List<String> fields;
+    private Map<String, String> fieldTypes; // field name -> declared type as written, e.g. "List<Order>"
+    private List<String> imports;           // non-static imports of the file, wildcards as "pkg.*"
     private String comment;
     private String aiDescription; // filled by AI
     private Map<String,Object> extra; // hold repository calls, domain keywords
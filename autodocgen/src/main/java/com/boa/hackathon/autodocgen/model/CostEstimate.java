@@ -0,0 +1,24 @@
+package com.boa.hackathon.autodocgen.model;
+
+import lombok.Data;
+
+@Data
+public class CostEstimate {
+    private String projectName;
+    private String model;
+    private int prompts;
+    private long inputTokens;
+    private long maxOutputTokens; // sum of the max_tokens caps, i.e. the worst case
+
+    public void add(int input, int maxOutput) {
+        prompts++;
+        inputTokens += input;
+        maxOutputTokens += maxOutput;
+    }
+
+    public void add(CostEstimate other) {
+        prompts += other.prompts;
+        inputTokens += other.inputTokens;
+        maxOutputTokens += other.maxOutputTokens;
+    }
+}
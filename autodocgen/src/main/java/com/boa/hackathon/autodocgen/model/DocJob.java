@@ -0,0 +1,141 @@
+package com.boa.hackathon.autodocgen.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * State of one asynchronous documentation job. Written by the worker running the pipeline and
+ * read concurrently by status and event-stream requests.
+ */
+public class DocJob {
+
+    public enum Status { QUEUED, RUNNING, SUCCEEDED, FAILED }
+
+    private final String id;
+    private final String url;
+    private final Instant createdAt = Instant.now();
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile Status status = Status.QUEUED;
+    private volatile String stage;
+    private volatile String error;
+    private volatile Path zip;
+    private final Map<String, Long> stageTimingsMs = new LinkedHashMap<>();
+    private final AtomicInteger filesTotal = new AtomicInteger();
+    private final AtomicInteger filesParsed = new AtomicInteger();
+    private final AtomicInteger promptsTotal = new AtomicInteger();
+    private final AtomicInteger promptsDone = new AtomicInteger();
+
+    public DocJob(String id, String url) {
+        this.id = id;
+        this.url = url;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getStage() {
+        return stage;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public int getFilesTotal() {
+        return filesTotal.get();
+    }
+
+    public int getFilesParsed() {
+        return filesParsed.get();
+    }
+
+    public int getPromptsTotal() {
+        return promptsTotal.get();
+    }
+
+    public int getPromptsDone() {
+        return promptsDone.get();
+    }
+
+    public synchronized Map<String, Long> getStageTimingsMs() {
+        return new LinkedHashMap<>(stageTimingsMs);
+    }
+
+    @JsonIgnore
+    public Path getZip() {
+        return zip;
+    }
+
+    public boolean isFinished() {
+        return status == Status.SUCCEEDED || status == Status.FAILED;
+    }
+
+    public void start() {
+        startedAt = Instant.now();
+        status = Status.RUNNING;
+    }
+
+    public void succeed(Path zip) {
+        this.zip = zip;
+        this.stage = null;
+        finishedAt = Instant.now();
+        status = Status.SUCCEEDED;
+    }
+
+    public void fail(String error) {
+        this.error = error;
+        finishedAt = Instant.now();
+        status = Status.FAILED;
+    }
+
+    public void setStage(String stage) {
+        this.stage = stage;
+    }
+
+    public synchronized void recordStage(String stage, long millis) {
+        stageTimingsMs.merge(stage, millis, Long::sum);
+    }
+
+    public void addFilesTotal(int n) {
+        filesTotal.addAndGet(n);
+    }
+
+    public void fileParsed() {
+        filesParsed.incrementAndGet();
+    }
+
+    public void addPromptsTotal(int n) {
+        promptsTotal.addAndGet(n);
+    }
+
+    public void promptDone() {
+        promptsDone.incrementAndGet();
+    }
+}
@@ -0,0 +1,16 @@
+package com.boa.hackathon.autodocgen.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class DocRequest {
+    private String url;
+    private boolean incremental; // reuse the previous clone and snapshot, re-parse changed files only
+    private boolean upload = true; // also upload the zip to S3 (when autodoc.s3.enabled)
+    private List<String> artifacts; // artifact generators to include (readme, uml, ...); null means the defaults
+    private String diagramFormat; // png (default) or svg
+    private String jsonLayout; // pretty, compact or ndjson (metadata only); null means autodoc.json.layout
+    private Boolean includeBodies; // method bodies in metadata.json; null means autodoc.json.include-bodies
+}
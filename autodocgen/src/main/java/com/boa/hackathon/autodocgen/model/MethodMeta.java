@@ -11,10 +11,15 @@ public class MethodMeta {
     private List<String> params;
     private String returnType;
     private List<String> repositoryCalls;
+    private List<String> repositoryScopes; // receiver of each repository call, e.g. "orderRepository"
     private List<String> domainKeywords;
     private String comment;
     private String aiDescription;
-    private String body;            // raw method body (optional)
+    private BodyRef bodyRef;        // where the body is in its file; BodyLoader reads it on demand
+    private int beginLine;          // declaration's line range in its file
+    private int endLine;
+    private BodyFingerprint fingerprint; // clone-detection summary of the body
     private String endpoint;        // if you extracted @GetMapping value
     private String httpMethod;
+    private List<ParamMeta> httpParams; // path/query/header/body parameters of an endpoint
 }
@@ -0,0 +1,30 @@
+package com.boa.hackathon.autodocgen.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One HTTP-bound parameter of an endpoint method, e.g. a {@code @PathVariable} or the
+ * {@code @RequestBody}.
+ */
+@Data
+@NoArgsConstructor
+public class ParamMeta {
+
+    public static final String PATH = "path";
+    public static final String QUERY = "query";
+    public static final String HEADER = "header";
+    public static final String BODY = "body";
+
+    private String name;     // name on the wire; the Java parameter name when the annotation gives none
+    private String in;       // path, query, header or body
+    private String type;     // declared Java type as written, e.g. "List<Long>"
+    private boolean required;
+
+    public ParamMeta(String name, String in, String type, boolean required) {
+        this.name = name;
+        this.in = in;
+        this.type = type;
+        this.required = required;
+    }
+}
@@ -1,5 +1,11 @@
 package com.boa.hackathon.autodocgen.model;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Setter;
+import lombok.ToString;
+
 import java.util.List;
 
 @Data
@@ -7,5 +13,27 @@ public class ProjectMetadata {
         private String projectName;
         private int classCount;
         private List<ClassMetadata> classes;
+        private String headCommit; // commit the classes were parsed from
+        private String repoKey; // name plus hash of the normalised URL: names the mirror, working tree and snapshot
+
+        @JsonIgnore
+        @EqualsAndHashCode.Exclude
+        @ToString.Exclude
+        @Setter(AccessLevel.NONE)
+        private volatile RelationshipIndex relationships; // built on first use, dropped when classes are replaced
+
+        public void setClasses(List<ClassMetadata> classes) {
+                this.classes = classes;
+                this.relationships = null;
+        }
 
+        @JsonIgnore
+        public RelationshipIndex getRelationships() {
+                RelationshipIndex idx = relationships;
+                if (idx == null) {
+                        idx = RelationshipIndex.build(classes);
+                        relationships = idx;
+                }
+                return idx;
+        }
 }
@@ -0,0 +1,225 @@
+package com.boa.hackathon.autodocgen.model;
+
+import java.util.*;
+
+/**
+ * Name lookups and class-to-class dependency edges for one project, built in a single pass
+ * over its classes. Lookups are hash-map hits, so consumers never scan the class list.
+ * <p>
+ * Type names resolve like javac for the common cases: qualified names directly, a simple name
+ * that is unique in the project at once, and otherwise through single-type imports, the
+ * class's own package and wildcard imports. Ambiguous names resolve to nothing rather than
+ * to a guess.
+ */
+public class RelationshipIndex {
+
+    public enum Kind { FIELD, CALL }
+
+    /** A de-duplicated dependency; {@code weight} counts the fields or calls behind it. */
+    public static class Edge {
+        private final ClassMetadata from;
+        private final ClassMetadata to;
+        private final Kind kind;
+        private int weight;
+
+        Edge(ClassMetadata from, ClassMetadata to, Kind kind) {
+            this.from = from;
+            this.to = to;
+            this.kind = kind;
+        }
+
+        public ClassMetadata getFrom() {
+            return from;
+        }
+
+        public ClassMetadata getTo() {
+            return to;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        // identity of the endpoints: two classes may be equal by value yet distinct
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Edge e && e.from == from && e.to == to && e.kind == kind;
+        }
+
+        @Override
+        public int hashCode() {
+            return (System.identityHashCode(from) * 31 + System.identityHashCode(to)) * 31 + kind.hashCode();
+        }
+    }
+
+    private final Map<String, ClassMetadata> byQualifiedName = new HashMap<>();
+    private final Map<String, List<ClassMetadata>> bySimpleName = new HashMap<>();
+    private final Map<String, List<ClassMetadata>> byLowerCaseName = new HashMap<>();
+    private final Map<ClassMetadata, List<Edge>> outgoing = new IdentityHashMap<>();
+    private final List<Edge> edges = new ArrayList<>();
+
+    public static RelationshipIndex build(List<ClassMetadata> classes) {
+        RelationshipIndex idx = new RelationshipIndex();
+        List<ClassMetadata> all = classes == null ? List.of() : classes;
+        for (ClassMetadata c : all) idx.add(c);
+        for (ClassMetadata c : all) idx.link(c);
+        return idx;
+    }
+
+    private void add(ClassMetadata c) {
+        if (c.getClassName() == null) return;
+        byQualifiedName.putIfAbsent(qualifiedName(c), c);
+        bySimpleName.computeIfAbsent(c.getClassName(), k -> new ArrayList<>(1)).add(c);
+        byLowerCaseName.computeIfAbsent(c.getClassName().toLowerCase(Locale.ROOT), k -> new ArrayList<>(1)).add(c);
+    }
+
+    private void link(ClassMetadata c) {
+        Map<Edge, Edge> merged = new LinkedHashMap<>();
+        Map<String, String> fieldTypes = c.getFieldTypes() == null ? Map.of() : c.getFieldTypes();
+        for (String type : fieldTypes.values()) {
+            for (String name : typeNames(type)) resolve(c, name).ifPresent(t -> addEdge(merged, c, t, Kind.FIELD));
+        }
+        if (c.getMethods() != null) {
+            for (MethodMeta m : c.getMethods()) {
+                if (m.getRepositoryScopes() == null) continue;
+                for (String scope : m.getRepositoryScopes()) {
+                    resolveScope(c, m, scope, fieldTypes).ifPresent(t -> addEdge(merged, c, t, Kind.CALL));
+                }
+            }
+        }
+        if (merged.isEmpty()) return;
+        List<Edge> out = new ArrayList<>(merged.keySet());
+        outgoing.put(c, out);
+        edges.addAll(out);
+    }
+
+    private static void addEdge(Map<Edge, Edge> merged, ClassMetadata from, ClassMetadata to, Kind kind) {
+        if (from == to) return;
+        Edge key = new Edge(from, to, kind);
+        Edge e = merged.computeIfAbsent(key, k -> k);
+        e.weight++;
+    }
+
+    /**
+     * The receiver of a call: a field or parameter name is resolved through its declared type,
+     * anything else is tried as a class name (static calls, or {@code orderRepository} naming
+     * {@code OrderRepository}).
+     */
+    private Optional<ClassMetadata> resolveScope(ClassMetadata c, MethodMeta m, String scope, Map<String, String> fieldTypes) {
+        String name = scope.startsWith("this.") ? scope.substring(5) : scope;
+        if (name.indexOf('(') >= 0) return Optional.empty(); // chained call, receiver type unknown
+        String type = fieldTypes.get(name);
+        if (type == null && m.getParams() != null) {
+            for (String p : m.getParams()) {
+                int sp = p.lastIndexOf(' ');
+                if (sp > 0 && p.substring(sp + 1).equals(name)) type = p.substring(0, sp);
+            }
+        }
+        if (type != null) {
+            for (String t : typeNames(type)) {
+                Optional<ClassMetadata> hit = resolve(c, t);
+                if (hit.isPresent()) return hit;
+            }
+            return Optional.empty();
+        }
+        Optional<ClassMetadata> direct = resolve(c, name);
+        if (direct.isPresent()) return direct;
+        return unique(byLowerCaseName.get(name.toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * Resolve a type name as written in {@code from}'s source file.
+     */
+    public Optional<ClassMetadata> resolve(ClassMetadata from, String typeName) {
+        if (typeName == null || typeName.isEmpty()) return Optional.empty();
+        if (typeName.indexOf('.') >= 0) {
+            ClassMetadata q = byQualifiedName.get(typeName);
+            if (q != null) return Optional.of(q);
+            // Outer.Inner: the parser records nested classes by their simple name
+            typeName = typeName.substring(typeName.lastIndexOf('.') + 1);
+        }
+        List<ClassMetadata> candidates = bySimpleName.get(typeName);
+        if (candidates == null) return Optional.empty();
+        if (candidates.size() == 1) return Optional.of(candidates.get(0));
+
+        List<String> imports = from.getImports() == null ? List.of() : from.getImports();
+        for (String imp : imports) {
+            if (imp.endsWith("." + typeName)) {
+                ClassMetadata hit = byQualifiedName.get(imp);
+                if (hit != null) return Optional.of(hit);
+            }
+        }
+        ClassMetadata samePackage = byQualifiedName.get(packagePrefix(from) + typeName);
+        if (samePackage != null) return Optional.of(samePackage);
+        for (String imp : imports) {
+            if (imp.endsWith(".*")) {
+                ClassMetadata hit = byQualifiedName.get(imp.substring(0, imp.length() - 1) + typeName);
+                if (hit != null) return Optional.of(hit);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public Optional<ClassMetadata> byQualifiedName(String qualifiedName) {
+        return Optional.ofNullable(byQualifiedName.get(qualifiedName));
+    }
+
+    public List<ClassMetadata> bySimpleName(String simpleName) {
+        return bySimpleName.getOrDefault(simpleName, List.of());
+    }
+
+    public List<ClassMetadata> byLowerCaseName(String name) {
+        return byLowerCaseName.getOrDefault(name.toLowerCase(Locale.ROOT), List.of());
+    }
+
+    public List<Edge> outgoing(ClassMetadata c) {
+        return outgoing.getOrDefault(c, List.of());
+    }
+
+    public List<Edge> edges() {
+        return Collections.unmodifiableList(edges);
+    }
+
+    public static String qualifiedName(ClassMetadata c) {
+        String pkg = c.getPackageName();
+        return pkg == null || pkg.isEmpty() ? c.getClassName() : pkg + "." + c.getClassName();
+    }
+
+    private static String packagePrefix(ClassMetadata c) {
+        String pkg = c.getPackageName();
+        return pkg == null || pkg.isEmpty() ? "" : pkg + ".";
+    }
+
+    private static Optional<ClassMetadata> unique(List<ClassMetadata> candidates) {
+        return candidates != null && candidates.size() == 1 ? Optional.of(candidates.get(0)) : Optional.empty();
+    }
+
+    /**
+     * Every class-like name in a type as written: {@code Map<String, List<Order>>} gives
+     * {@code Map, String, List, Order}.
+     */
+    static List<String> typeNames(String type) {
+        List<String> names = new ArrayList<>(2);
+        int start = -1;
+        for (int i = 0, n = type.length(); i <= n; i++) {
+            char ch = i < n ? type.charAt(i) : ' ';
+            boolean part = Character.isJavaIdentifierPart(ch) || ch == '.';
+            if (part && start < 0) start = i;
+            if (!part && start >= 0) {
+                String name = type.substring(start, i);
+                if (!name.equals("extends") && !name.equals("super")) names.add(name);
+                start = -1;
+            }
+        }
+        return names;
+    }
+
+    @Override
+    public String toString() {
+        return "RelationshipIndex[" + byQualifiedName.size() + " classes, " + edges.size() + " edges]";
+    }
+}
@@ -1,121 +1,360 @@
 package com.boa.hackathon.autodocgen.service;
 
 import com.boa.hackathon.autodocgen.model.ClassMetadata;
+import com.boa.hackathon.autodocgen.model.CostEstimate;
 import com.boa.hackathon.autodocgen.model.MethodMeta;
 import com.boa.hackathon.autodocgen.model.ProjectMetadata;
+import com.boa.hackathon.autodocgen.util.BodyLoader;
+import com.boa.hackathon.autodocgen.util.JsonUtil;
+import com.boa.hackathon.autodocgen.util.PromptBudget;
+import com.boa.hackathon.autodocgen.util.TokenEstimator;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.*;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
 public class AIService {
 
     private static final Logger log = LoggerFactory.getLogger(AIService.class);
-    private final RestTemplate rest = new RestTemplate();
+    // output caps sized to the answer formats the prompts ask for
+    private static final int CLASS_ANSWER_TOKENS = 400;
+    private static final int METHOD_ANSWER_TOKENS = 120;
+    private static final int BATCH_ANSWER_TOKENS_PER_METHOD = 60;
 
-    private static final String OLLAMA_URL = "https://openrouter.ai/api/v1/chat/completions";
-    private static final String MODEL = "meta-llama/llama-3.3-8b-instruct:free";
-    private static final String OPENROUTER_KEY = "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";
+    private final LlmClient llm;
+    private final LlmResponseCache cache;
+    private final int maxConcurrency;
+    private final boolean batchMethods;
+    private final int batchTokenBudget;
+    private final int maxInputTokens;
+    private final int maxPendingClasses;
 
+    public AIService(LlmClient llm, LlmResponseCache cache,
+                     @Value("${autodoc.ai.max-concurrency:8}") int maxConcurrency,
+                     @Value("${autodoc.ai.batch-methods:true}") boolean batchMethods,
+                     @Value("${autodoc.ai.batch-token-budget:3000}") int batchTokenBudget,
+                     @Value("${autodoc.ai.max-input-tokens:6000}") int maxInputTokens,
+                     @Value("${autodoc.ai.max-pending-classes:64}") int maxPendingClasses) {
+        this.llm = llm;
+        this.cache = cache;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.batchMethods = batchMethods;
+        this.batchTokenBudget = batchTokenBudget;
+        this.maxInputTokens = maxInputTokens;
+        this.maxPendingClasses = Math.max(1, maxPendingClasses);
+    }
+
+    /**
+     * Describe every class and method of the project. Each prompt runs on its own virtual
+     * thread, with at most {@code autodoc.ai.max-concurrency} calls in flight; the LlmClient adds
+     * rate limiting and retries on top. Returns once every prompt has finished or failed.
+     */
     public void enrichProject(ProjectMetadata pm) {
-        pm.getClasses().forEach(this::enrichClass);
+        enrichProject(pm, PipelineProgress.NONE);
     }
 
-    private void enrichClass(ClassMetadata cm) {
-        try {
-            String prompt = buildClassPrompt(cm);
-            String ai = callOpenRouter(prompt);
-            cm.setAiDescription(ai);
+    public void enrichProject(ProjectMetadata pm, PipelineProgress progress) {
+        log.info("Estimated cost: {}", estimateCost(pm));
+        try (Enrichment enrichment = startEnrichment(pm.getProjectName(), progress)) {
+            for (ClassMetadata cm : pm.getClasses()) enrichment.submit(cm);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Open an enrichment that classes are fed into one at a time, e.g. as the parser produces
+     * them, so descriptions are requested while the rest of the project is still being parsed.
+     */
+    public Enrichment startEnrichment(String projectName, PipelineProgress progress) {
+        return new Enrichment(projectName, progress);
+    }
+
+    /**
+     * A running enrichment. At most {@code autodoc.ai.max-pending-classes} classes may have
+     * prompts outstanding; {@link #submit} blocks beyond that, which holds the producer back
+     * instead of letting a whole project's prompts pile up. {@link #close()} waits for every
+     * prompt, after which all descriptions are visible to the closing thread.
+     */
+    public class Enrichment implements AutoCloseable {
 
+        private final String projectName;
+        private final PipelineProgress progress;
+        private final Semaphore inFlight = new Semaphore(maxConcurrency);
+        private final Semaphore backlog = new Semaphore(maxPendingClasses);
+        private final ExecutorService exec = Executors.newVirtualThreadPerTaskExecutor();
+        private final Set<ClassMetadata> seen = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+        private final AtomicInteger submitted = new AtomicInteger();
+        private final CostEstimate estimate;
+        private final long start = System.nanoTime();
+
+        private Enrichment(String projectName, PipelineProgress progress) {
+            this.projectName = projectName;
+            this.progress = progress;
+            this.estimate = newEstimate(projectName);
+        }
+
+        /**
+         * Queue the prompts for {@code cm}. Classes submitted before, or carried over from an
+         * incremental snapshot with a description, are skipped.
+         */
+        public void submit(ClassMetadata cm) throws InterruptedException {
+            if (cm.getAiDescription() != null || !seen.add(cm)) return;
+            List<Runnable> prompts = new ArrayList<>();
+            prompts.add(() -> enrich(inFlight, progress, cm.getClassName(), buildClassPrompt(cm), CLASS_ANSWER_TOKENS, cm::setAiDescription));
             if (cm.getMethods() != null) {
-                for (MethodMeta mm : cm.getMethods()) {
-                    String mp = buildMethodPrompt(cm, mm);
-                    String ma = callOpenRouter(mp);
-                    mm.setAiDescription(ma);
+                if (batchMethods) {
+                    for (List<MethodMeta> batch : methodBatches(cm)) prompts.add(() -> enrichBatch(inFlight, progress, cm, batch));
+                } else {
+                    for (MethodMeta mm : cm.getMethods()) prompts.add(() -> enrich(inFlight, progress, cm, mm));
                 }
             }
+            CostEstimate cost = new CostEstimate();
+            addEstimate(cost, cm);
+            synchronized (estimate) {
+                estimate.add(cost);
+            }
+            backlog.acquire();
+            progress.promptsPlanned(prompts.size());
+            submitted.addAndGet(prompts.size());
+            AtomicInteger left = new AtomicInteger(prompts.size());
+            for (Runnable prompt : prompts) {
+                exec.submit(() -> {
+                    try {
+                        prompt.run();
+                    } finally {
+                        if (left.decrementAndGet() == 0) backlog.release();
+                    }
+                });
+            }
+        }
+
+        /** Estimated cost of the prompts of every class submitted so far. */
+        public CostEstimate estimate() {
+            synchronized (estimate) {
+                CostEstimate copy = newEstimate(estimate.getProjectName());
+                copy.add(estimate);
+                return copy;
+            }
+        }
+
+        /** Abandon outstanding prompts, e.g. because parsing or generation failed. */
+        public void cancel() {
+            exec.shutdownNow();
+        }
+
+        @Override
+        public void close() {
+            exec.close(); // waits for every task, which also publishes their writes to this thread
+            log.info("Enriched {}: {} prompts in {} ms, cache {}", projectName, submitted.get(),
+                    (System.nanoTime() - start) / 1_000_000, cache.stats());
+        }
+    }
+
+    private void enrich(Semaphore inFlight, PipelineProgress progress, ClassMetadata cm, MethodMeta mm) {
+        enrich(inFlight, progress, cm.getClassName() + "." + mm.getName(), buildMethodPrompt(cm, mm), METHOD_ANSWER_TOKENS, mm::setAiDescription);
+    }
+
+    private void enrich(Semaphore inFlight, PipelineProgress progress, String what, String prompt, int maxTokens, Consumer<String> target) {
+        try {
+            target.accept(ask(inFlight, progress, prompt, maxTokens));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
-            log.warn("AI enrich failed for {}: {}", cm.getClassName(), e.getMessage());
+            log.warn("AI enrich failed for {}: {}", what, e.getMessage());
         }
     }
 
-    private String buildClassPrompt(ClassMetadata cm) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("You are a senior backend engineer. Analyze the following Java class and explain its business purpose and behavior clearly.\n")
-                .append("ClassName: ").append(cm.getClassName()).append("\n")
-                .append("Type: ").append(cm.getType()).append("\n")
-                .append("Package: ").append(cm.getPackageName()).append("\n")
-                .append("Fields: ").append(Optional.ofNullable(cm.getFields()).orElse(Collections.emptyList())).append("\n")
-                .append("Methods: ");
-        if (cm.getMethods() != null) {
-            sb.append(cm.getMethods().stream().map(MethodMeta::getName).collect(Collectors.toList()));
-        } else sb.append("[]");
-        sb.append("\nDomain hints: ");
-        Set<String> domain = new HashSet<>();
-        if (cm.getMethods() != null) {
-            cm.getMethods().forEach(m -> {
-                if (m.getDomainKeywords() != null) domain.addAll(m.getDomainKeywords());
-            });
-        }
-        sb.append(domain).append("\n")
-                .append("Write the answer as:\nDESCRIPTION: <explanation>\nKEY_POINTS:\n - point1\n - point2");
-        return sb.toString();
+    /**
+     * Describe a chunk of methods with one call. Entries missing from the structured reply
+     * (or the whole chunk, if the reply is not valid JSON) fall back to one call per method.
+     * When the call itself fails, e.g. the API is still throttling after the retries, the chunk
+     * is left undescribed rather than multiplied into more calls against it.
+     */
+    private void enrichBatch(Semaphore inFlight, PipelineProgress progress, ClassMetadata cm, List<MethodMeta> batch) {
+        if (batch.size() == 1) {
+            enrich(inFlight, progress, cm, batch.get(0));
+            return;
+        }
+        Map<Integer, String> answers;
+        try {
+            answers = parseBatchAnswer(ask(inFlight, progress, buildMethodBatchPrompt(cm, batch), batchAnswerTokens(batch.size())), batch.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            log.warn("AI batch enrich failed for {} ({} methods): {}", cm.getClassName(), batch.size(), e.getMessage());
+            return;
+        }
+        progress.promptsPlanned(batch.size() - answers.size()); // the fallbacks below
+        for (int i = 0; i < batch.size(); i++) {
+            String answer = answers.get(i);
+            if (answer != null) batch.get(i).setAiDescription(answer);
+            else enrich(inFlight, progress, cm, batch.get(i));
+        }
     }
 
-    private String buildMethodPrompt(ClassMetadata cm, MethodMeta mm) {
+    /**
+     * Split a class's methods into chunks whose prompt entries fit the batch token budget.
+     */
+    private List<List<MethodMeta>> methodBatches(ClassMetadata cm) {
+        List<List<MethodMeta>> batches = new ArrayList<>();
+        List<MethodMeta> current = new ArrayList<>();
+        int used = 0;
+        for (MethodMeta mm : cm.getMethods()) {
+            int cost = TokenEstimator.estimate(methodEntry(0, mm)) + BATCH_ANSWER_TOKENS_PER_METHOD;
+            if (!current.isEmpty() && used + cost > batchTokenBudget) {
+                batches.add(current);
+                current = new ArrayList<>();
+                used = 0;
+            }
+            current.add(mm);
+            used += cost;
+        }
+        if (!current.isEmpty()) batches.add(current);
+        return batches;
+    }
+
+    private String buildMethodBatchPrompt(ClassMetadata cm, List<MethodMeta> batch) {
         StringBuilder sb = new StringBuilder();
-        sb.append("You are a software engineer. Explain this Java method in one business-focused sentence and mention any side effects (like DB operations, service calls, etc.) if applicable.\n")
+        sb.append("You are a software engineer. For each Java method below, explain it in one business-focused sentence and mention any side effects (like DB operations, service calls, etc.) if applicable.\n")
                 .append("Class: ").append(cm.getClassName()).append("\n")
-                .append("Method: ").append(mm.getName()).append("\n")
-                .append("Parameters: ").append(Optional.ofNullable(mm.getParams()).orElse(Collections.emptyList())).append("\n")
-                .append("Repository calls: ").append(Optional.ofNullable(mm.getRepositoryCalls()).orElse(Collections.emptyList())).append("\n")
-                .append("Domain keywords: ").append(Optional.ofNullable(mm.getDomainKeywords()).orElse(Collections.emptyList())).append("\n")
-                .append("Answer format:\nSENTENCE: <one-liner>\nSIDE_EFFECTS: <list>");
+                .append("Methods:\n");
+        for (int i = 0; i < batch.size(); i++) sb.append(methodEntry(i, batch.get(i))).append("\n");
+        sb.append("Reply with JSON only, one entry per method index, in this shape:\n")
+                .append("{\"methods\":[{\"index\":0,\"sentence\":\"<one-liner>\",\"sideEffects\":\"<list>\"}]}");
         return sb.toString();
     }
 
-    private String callOpenRouter(String prompt) {
+    private static String methodEntry(int index, MethodMeta mm) {
+        return "[" + index + "] " + signature(mm)
+                + " -> " + mm.getReturnType()
+                + " | Repository calls: " + Optional.ofNullable(mm.getRepositoryCalls()).orElse(Collections.emptyList())
+                + " | Domain keywords: " + Optional.ofNullable(mm.getDomainKeywords()).orElse(Collections.emptyList());
+    }
+
+    /**
+     * Map method index to a description in the same SENTENCE/SIDE_EFFECTS shape the
+     * single-method prompt asks for. Models often wrap JSON in prose or code fences, so only the
+     * outermost object is parsed.
+     */
+    static Map<Integer, String> parseBatchAnswer(String answer, int size) {
+        Map<Integer, String> out = new HashMap<>();
+        int from = answer == null ? -1 : answer.indexOf('{');
+        int to = answer == null ? -1 : answer.lastIndexOf('}');
+        if (from < 0 || to < from) return out;
+        JsonNode methods;
         try {
-            if (OPENROUTER_KEY == null || OPENROUTER_KEY.isBlank()) {
-                return "Error: OPENROUTER_API_KEY not set in environment variables.";
-            }
+            methods = JsonUtil.readTree(answer.substring(from, to + 1)).path("methods");
+        } catch (IOException e) {
+            return out;
+        }
+        for (JsonNode m : methods) {
+            int index = m.path("index").asInt(-1);
+            String sentence = m.path("sentence").asText("").trim();
+            if (index < 0 || index >= size || sentence.isEmpty()) continue;
+            out.put(index, "SENTENCE: " + sentence + "\nSIDE_EFFECTS: " + m.path("sideEffects").asText("none").trim());
+        }
+        return out;
+    }
 
-            log.info("Calling OpenRouter API...");
+    private String buildClassPrompt(ClassMetadata cm) {
+        PromptBudget p = new PromptBudget(maxInputTokens,
+                "You are a senior backend engineer. Analyze the following Java class and explain its business purpose and behavior clearly.\n",
+                "Write the answer as:\nDESCRIPTION: <explanation>\nKEY_POINTS:\n - point1\n - point2");
+        p.line("ClassName", cm.getClassName());
+        p.line("Type", cm.getType());
+        p.line("Package", cm.getPackageName());
+        List<MethodMeta> methods = Optional.ofNullable(cm.getMethods()).orElse(Collections.emptyList());
+        p.list("Methods", methods.stream().map(AIService::signature).collect(Collectors.toList()));
+        Set<String> domain = new LinkedHashSet<>();
+        methods.forEach(m -> {
+            if (m.getDomainKeywords() != null) domain.addAll(m.getDomainKeywords());
+        });
+        p.list("Domain hints", new ArrayList<>(domain));
+        p.list("Fields", Optional.ofNullable(cm.getFields()).orElse(Collections.emptyList()));
+        return p.build();
+    }
 
-            Map<String, Object> body = new LinkedHashMap<>();
-            body.put("model", MODEL);
-            body.put("messages", List.of(Map.of("role", "user", "content", prompt)));
-            body.put("max_tokens", 100000);
+    private String buildMethodPrompt(ClassMetadata cm, MethodMeta mm) {
+        PromptBudget p = new PromptBudget(maxInputTokens,
+                "You are a software engineer. Explain this Java method in one business-focused sentence and mention any side effects (like DB operations, service calls, etc.) if applicable.\n",
+                "Answer format:\nSENTENCE: <one-liner>\nSIDE_EFFECTS: <list>");
+        p.line("Class", cm.getClassName());
+        p.line("Method", signature(mm) + " -> " + mm.getReturnType());
+        p.list("Repository calls", Optional.ofNullable(mm.getRepositoryCalls()).orElse(Collections.emptyList()));
+        p.list("Domain keywords", Optional.ofNullable(mm.getDomainKeywords()).orElse(Collections.emptyList()));
+        p.text("Body", BodyLoader.load(mm.getBodyRef()));
+        return p.build();
+    }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.set("Authorization", "Bearer " + OPENROUTER_KEY);
-            headers.set("HTTP-Referer", "https://autodocgen");
-            headers.set("X-Title", "AutoDocGenerator");
+    private static String signature(MethodMeta mm) {
+        return mm.getName() + "(" + String.join(", ", Optional.ofNullable(mm.getParams()).orElse(Collections.emptyList())) + ")";
+    }
 
-            HttpEntity<Map<String, Object>> req = new HttpEntity<>(body, headers);
-            log.info("request is "+ req);
-            ResponseEntity<Map> resp = rest.exchange(OLLAMA_URL, HttpMethod.POST, req, Map.class);
+    /**
+     * Estimate the input and worst-case output tokens a run over {@code pm} would cost, without
+     * calling the model. Cached answers are not subtracted.
+     */
+    public CostEstimate estimateCost(ProjectMetadata pm) {
+        CostEstimate est = newEstimate(pm.getProjectName());
+        for (ClassMetadata cm : pm.getClasses()) {
+            if (cm.getAiDescription() == null) addEstimate(est, cm);
+        }
+        return est;
+    }
 
-            if (resp.getBody() == null) return "No response received";
+    private CostEstimate newEstimate(String projectName) {
+        CostEstimate est = new CostEstimate();
+        est.setProjectName(projectName);
+        est.setModel(llm.getModel());
+        return est;
+    }
 
-            List<?> choices = (List<?>) resp.getBody().get("choices");
-            if (choices == null || choices.isEmpty()) return "No choices returned";
+    private void addEstimate(CostEstimate est, ClassMetadata cm) {
+        est.add(TokenEstimator.estimate(buildClassPrompt(cm)), CLASS_ANSWER_TOKENS);
+        if (cm.getMethods() == null) return;
+        if (batchMethods) {
+            for (List<MethodMeta> batch : methodBatches(cm)) {
+                if (batch.size() == 1) est.add(TokenEstimator.estimate(buildMethodPrompt(cm, batch.get(0))), METHOD_ANSWER_TOKENS);
+                else est.add(TokenEstimator.estimate(buildMethodBatchPrompt(cm, batch)), batchAnswerTokens(batch.size()));
+            }
+        } else {
+            for (MethodMeta mm : cm.getMethods()) est.add(TokenEstimator.estimate(buildMethodPrompt(cm, mm)), METHOD_ANSWER_TOKENS);
+        }
+    }
 
-            Map<?, ?> first = (Map<?, ?>) choices.get(0);
-            Map<?, ?> message = (Map<?, ?>) first.get("message");
-            String content = (String) message.get("content");
+    private static int batchAnswerTokens(int methods) {
+        return 40 + methods * BATCH_ANSWER_TOKENS_PER_METHOD;
+    }
 
-            log.info("AI Response: {}", content);
-            return content;
-        } catch (Exception e) {
-            log.error("Error calling OpenRouter: {}", e.getMessage());
-            return "Error calling OpenRouter: " + e.getMessage();
+    private String ask(Semaphore inFlight, PipelineProgress progress, String prompt, int maxTokens) throws InterruptedException {
+        inFlight.acquire();
+        try {
+            return callOpenRouter(prompt, maxTokens);
+        } finally {
+            inFlight.release();
+            progress.promptDone();
         }
     }
+
+    private String callOpenRouter(String prompt, int maxTokens) throws InterruptedException {
+        Optional<String> cached = cache.get(llm.getModel(), prompt);
+        if (cached.isPresent()) return cached.get();
+        String content = llm.complete(prompt, maxTokens);
+        cache.put(llm.getModel(), prompt, content);
+        log.debug("AI Response: {}", content);
+        return content;
+    }
 }
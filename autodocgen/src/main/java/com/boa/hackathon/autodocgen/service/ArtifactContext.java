@@ -0,0 +1,64 @@
+package com.boa.hackathon.autodocgen.service;
+
+import com.boa.hackathon.autodocgen.model.DocRequest;
+import com.boa.hackathon.autodocgen.model.ProjectMetadata;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * What a running {@link ArtifactGenerator} can see: the project, the request, and the output
+ * of the generators it depends on.
+ */
+public class ArtifactContext {
+
+    private final ProjectMetadata project;
+    private final DocRequest request;
+    private final Map<String, CompletableFuture<Map<String, ArtifactWriter>>> outputs;
+
+    ArtifactContext(ProjectMetadata project, DocRequest request, Map<String, CompletableFuture<Map<String, ArtifactWriter>>> outputs) {
+        this.project = project;
+        this.request = request;
+        this.outputs = outputs;
+    }
+
+    public ProjectMetadata getProject() {
+        return project;
+    }
+
+    public DocRequest getRequest() {
+        return request;
+    }
+
+    /** Entries produced by {@code generator}, which must be a declared dependency. */
+    public Map<String, ArtifactWriter> outputOf(String generator) {
+        CompletableFuture<Map<String, ArtifactWriter>> f = outputs.get(generator);
+        if (f == null || !f.isDone()) {
+            throw new IllegalStateException("Artifact '" + generator + "' is not a finished dependency");
+        }
+        return f.join();
+    }
+
+    public String textOf(String generator, String entry) throws IOException {
+        return new String(bytesOf(generator, entry), StandardCharsets.UTF_8);
+    }
+
+    /** A UTF-8 reader over an entry, for consumers that scan it rather than keep it. */
+    public Reader readerOf(String generator, String entry) throws IOException {
+        return new InputStreamReader(new ByteArrayInputStream(bytesOf(generator, entry)), StandardCharsets.UTF_8);
+    }
+
+    private byte[] bytesOf(String generator, String entry) throws IOException {
+        ArtifactWriter w = outputOf(generator).get(entry);
+        if (w == null) throw new IllegalStateException("Artifact '" + generator + "' has no entry " + entry);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        w.writeTo(out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,51 @@
+package com.boa.hackathon.autodocgen.service;
+
+import com.boa.hackathon.autodocgen.model.DocRequest;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One output of the documentation zip. Every generator bean is picked up by
+ * {@link DocGeneratorService}, which runs independent generators concurrently and starts a
+ * generator only once everything it {@link #dependsOn() depends on} has finished.
+ */
+public interface ArtifactGenerator {
+
+    /** Short name used in requests, timings and {@link #dependsOn()}, e.g. {@code "readme"}. */
+    String name();
+
+    /** Generators whose output this one reads through {@link ArtifactContext#outputOf}. */
+    default List<String> dependsOn() {
+        return List.of();
+    }
+
+    /**
+     * Whether the generator reads AI descriptions and so has to wait for enrichment to finish.
+     * Generators that only need the parsed structure return false and start once parsing is done.
+     */
+    default boolean needsEnrichment() {
+        return true;
+    }
+
+    /** Whether the generator runs when a request does not list artifacts explicitly. */
+    default boolean enabledByDefault() {
+        return true;
+    }
+
+    /**
+     * Reject request options this generator cannot honour, before any work starts.
+     *
+     * @throws IllegalArgumentException describing the bad option
+     */
+    default void validate(DocRequest request) {
+    }
+
+    /**
+     * Do the work and describe the entries. Anything expensive belongs here, on the generator
+     * pool; the returned writers should only serialise what was computed.
+     *
+     * @return zip entry name to content, in the order the entries should be written
+     */
+    Map<String, ArtifactWriter> generate(ArtifactContext ctx) throws Exception;
+}
@@ -0,0 +1,20 @@
+package com.boa.hackathon.autodocgen.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Content of one zip entry, written on demand. {@link DocGeneratorService} calls it with the
+ * open zip entry, so large artifacts stream straight into the zip without a buffered copy;
+ * a dependent generator reading the entry calls it again, so it must be repeatable.
+ */
+@FunctionalInterface
+public interface ArtifactWriter {
+
+    /** Write the content to {@code out}, leaving it open. */
+    void writeTo(OutputStream out) throws IOException;
+
+    static ArtifactWriter of(byte[] content) {
+        return out -> out.write(content);
+    }
+}
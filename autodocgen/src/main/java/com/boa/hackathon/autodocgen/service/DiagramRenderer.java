@@ -0,0 +1,267 @@
+package com.boa.hackathon.autodocgen.service;
+
+import jakarta.annotation.PreDestroy;
+import net.sourceforge.plantuml.FileFormat;
+import net.sourceforge.plantuml.FileFormatOption;
+import net.sourceforge.plantuml.SourceStringReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Renders PlantUML sources to PNG or SVG on a dedicated pool. Output is cached by SHA-256 of
+ * (format, source): a size-bounded LRU in memory backed by one file per diagram on disk, so
+ * a diagram whose source did not change is never rendered twice, across requests and restarts.
+ * The disk tier is bounded too: beyond {@code autodoc.uml.cache.max-mb} the least recently used
+ * images (by modification time, refreshed on hits) are deleted down to 90% of the limit.
+ */
+@Component
+public class DiagramRenderer {
+
+    private static final Logger log = LoggerFactory.getLogger(DiagramRenderer.class);
+    private static final long TOUCH_AFTER_MS = 60 * 60 * 1000; // refresh an image's age at most hourly
+
+    public enum Format {
+        PNG(FileFormat.PNG, "png"), SVG(FileFormat.SVG, "svg");
+
+        private final FileFormat fileFormat;
+        private final String extension;
+
+        Format(FileFormat fileFormat, String extension) {
+            this.fileFormat = fileFormat;
+            this.extension = extension;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        /** {@code "png"} (the default when null) or {@code "svg"}, case-insensitive. */
+        public static Format of(String name) {
+            if (name == null || name.isBlank()) return PNG;
+            for (Format f : values()) if (f.extension.equalsIgnoreCase(name.trim())) return f;
+            throw new IllegalArgumentException("Unknown diagram format '" + name + "', expected png or svg");
+        }
+    }
+
+    private final boolean cacheEnabled;
+    private final Path cacheDir;
+    private final long maxMemoryBytes;
+    private final long maxDiskBytes;
+    private final ExecutorService pool;
+
+    private final LinkedHashMap<String, byte[]> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private long memoryBytes;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong renders = new AtomicLong();
+    private final Object evictionLock = new Object();
+    private volatile AtomicLong sizeOnDisk; // computed on first store
+
+    public DiagramRenderer(@Value("${autodoc.uml.render-parallelism:0}") int parallelism,
+                           @Value("${autodoc.uml.cache.enabled:true}") boolean cacheEnabled,
+                           @Value("${autodoc.uml.cache.dir:}") String dir,
+                           @Value("${autodoc.uml.cache.memory-mb:32}") long memoryMb,
+                           @Value("${autodoc.uml.cache.max-mb:256}") long maxMb) {
+        this.cacheEnabled = cacheEnabled;
+        this.cacheDir = dir == null || dir.isBlank()
+                ? Paths.get(System.getProperty("java.io.tmpdir"), "autodoc_cache", "uml")
+                : Paths.get(dir);
+        this.maxMemoryBytes = memoryMb * 1024 * 1024;
+        this.maxDiskBytes = maxMb * 1024 * 1024;
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "uml-render");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getRenderCount() {
+        return renders.get();
+    }
+
+    /**
+     * Render every source in parallel.
+     *
+     * @return rendered bytes, in the order of {@code sources}
+     */
+    public List<byte[]> renderAll(List<String> sources, Format format) throws IOException {
+        List<Future<byte[]>> futures = new ArrayList<>(sources.size());
+        for (String src : sources) futures.add(pool.submit(() -> render(src, format)));
+        List<byte[]> out = new ArrayList<>(sources.size());
+        try {
+            for (Future<byte[]> f : futures) out.add(f.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while rendering diagrams", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            throw new IllegalStateException("Diagram rendering failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            futures.forEach(f -> f.cancel(true));
+        }
+        return out;
+    }
+
+    public byte[] render(String source, Format format) throws IOException {
+        if (!cacheEnabled) return draw(source, format);
+        String key = key(source, format);
+        byte[] cached = cached(key, format);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        byte[] image = draw(source, format);
+        remember(key, image);
+        store(key, format, image);
+        return image;
+    }
+
+    private byte[] draw(String source, Format format) throws IOException {
+        renders.incrementAndGet();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new SourceStringReader(source).outputImage(out, new FileFormatOption(format.fileFormat));
+        return out.toByteArray();
+    }
+
+    private byte[] cached(String key, Format format) {
+        synchronized (memory) {
+            byte[] hit = memory.get(key);
+            if (hit != null) return hit;
+        }
+        Path file = cacheDir.resolve(key + "." + format.extension);
+        try {
+            if (!Files.exists(file)) return null;
+            byte[] image = Files.readAllBytes(file);
+            touch(file);
+            remember(key, image);
+            return image;
+        } catch (NoSuchFileException e) {
+            return null; // evicted in the meantime
+        } catch (IOException e) {
+            log.warn("Diagram cache read failed for {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private void remember(String key, byte[] image) {
+        synchronized (memory) {
+            byte[] old = memory.put(key, image);
+            memoryBytes += image.length - (old == null ? 0 : old.length);
+            Iterator<Map.Entry<String, byte[]>> it = memory.entrySet().iterator();
+            while (memoryBytes > maxMemoryBytes && it.hasNext()) {
+                memoryBytes -= it.next().getValue().length;
+                it.remove();
+            }
+        }
+    }
+
+    private void store(String key, Format format, byte[] image) {
+        Path file = cacheDir.resolve(key + "." + format.extension);
+        try {
+            Files.createDirectories(cacheDir);
+            // write then rename, so a concurrent reader never sees a half-written image
+            Path tmp = Files.createTempFile(cacheDir, key, ".tmp");
+            Files.write(tmp, image);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (size().addAndGet(image.length) > maxDiskBytes) evict();
+        } catch (IOException e) {
+            log.warn("Diagram cache write failed for {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static void touch(Path file) throws IOException {
+        long now = System.currentTimeMillis();
+        if (now - Files.getLastModifiedTime(file).toMillis() > TOUCH_AFTER_MS) {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(now));
+        }
+    }
+
+    private AtomicLong size() {
+        AtomicLong size = sizeOnDisk;
+        if (size == null) {
+            synchronized (evictionLock) {
+                size = sizeOnDisk;
+                if (size == null) sizeOnDisk = size = new AtomicLong(entries().stream().mapToLong(Entry::size).sum());
+            }
+        }
+        return size;
+    }
+
+    private void evict() {
+        synchronized (evictionLock) {
+            List<Entry> entries = entries();
+            long total = entries.stream().mapToLong(Entry::size).sum();
+            long target = maxDiskBytes / 10 * 9;
+            entries.sort(Comparator.comparingLong(Entry::modified));
+            int removed = 0;
+            for (Iterator<Entry> it = entries.iterator(); total > target && it.hasNext(); ) {
+                Entry e = it.next();
+                try {
+                    Files.deleteIfExists(e.path());
+                    total -= e.size();
+                    removed++;
+                } catch (IOException ex) {
+                    log.debug("Could not evict {}: {}", e.path(), ex.getMessage());
+                }
+            }
+            sizeOnDisk.set(total);
+            log.info("Diagram cache {}: evicted {} images, {} KB left", cacheDir, removed, total / 1024);
+        }
+    }
+
+    private record Entry(Path path, long size, long modified) {
+    }
+
+    private List<Entry> entries() {
+        List<Entry> entries = new ArrayList<>();
+        if (!Files.isDirectory(cacheDir)) return entries;
+        try (DirectoryStream<Path> dir = Files.newDirectoryStream(cacheDir, "*.{png,svg}")) {
+            for (Path p : dir) {
+                try {
+                    BasicFileAttributes a = Files.readAttributes(p, BasicFileAttributes.class);
+                    entries.add(new Entry(p, a.size(), a.lastModifiedTime().toMillis()));
+                } catch (IOException e) {
+                    // removed concurrently
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not scan diagram cache {}: {}", cacheDir, e.getMessage());
+        }
+        return entries;
+    }
+
+    static String key(String source, Format format) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update(format.extension.getBytes(StandardCharsets.US_ASCII));
+            sha.update((byte) 0);
+            sha.update(source.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(sha.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
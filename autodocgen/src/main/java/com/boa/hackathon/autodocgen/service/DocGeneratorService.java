@@ -1,208 +1,222 @@
 package com.boa.hackathon.autodocgen.service;
 
-import com.boa.hackathon.autodocgen.model.ClassMetadata;
-import com.boa.hackathon.autodocgen.model.MethodMeta;
+import com.boa.hackathon.autodocgen.model.DocRequest;
 import com.boa.hackathon.autodocgen.model.ProjectMetadata;
-import com.boa.hackathon.autodocgen.util.JsonUtil;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import net.sourceforge.plantuml.SourceStringReader;
+import com.boa.hackathon.autodocgen.util.TeeOutputStream;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
 
 import java.io.*;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
+/**
+ * Builds the documentation zip from the registered {@link ArtifactGenerator}s. Generators run
+ * concurrently on a shared pool as soon as their dependencies are done, and their entries are
+ * written to the zip in completion order.
+ */
 @Service
 public class DocGeneratorService {
 
+    private static final Logger log = LoggerFactory.getLogger(DocGeneratorService.class);
+
     private final S3UploadService s3UploadService;
+    private final Map<String, ArtifactGenerator> generators = new LinkedHashMap<>();
+    private final ExecutorService pool;
 
-    public DocGeneratorService(S3UploadService s3UploadService) {
+    public DocGeneratorService(S3UploadService s3UploadService,
+                               List<ArtifactGenerator> generators,
+                               @Value("${autodoc.artifacts.parallelism:0}") int parallelism) {
         this.s3UploadService = s3UploadService;
-    }
-
-    public File generateDocsZip(ProjectMetadata pm) throws IOException {
-        Path outDir = Files.createTempDirectory("autodoc_output_");
-
-        // --- Generate README.md ---
-        Path readme = outDir.resolve("README.md");
-        String readmeText = buildReadme(pm);
-        Files.writeString(readme, readmeText);
-
-        // --- Generate UML ---
-        Path puml = outDir.resolve("diagram.puml");
-        String pumlText = buildPlantUml(pm);
-        Files.writeString(puml, pumlText);
-
-        Path umlPng = outDir.resolve("diagram.png");
-        generateUmlPng(pumlText, umlPng);
-
-        // --- Metadata JSON ---
-        Path meta = outDir.resolve("metadata.json");
-        Files.writeString(meta, JsonUtil.toJson(pm));
-
-        Map<String, Object> qualityReport = new LinkedHashMap<>();
-        Map<String, Object> analysis = DocQualityAnalyzer.analyzeDocText(readmeText);
-        qualityReport.put("docAnalysis", analysis);
-        qualityReport.put("similarMethods", DocQualityAnalyzer.detectSimilarMethods(pm.getClasses()));
-        qualityReport.put("duplicateMethodBodies", DocQualityAnalyzer.detectDuplicateMethodBodies(pm.getClasses()));
-
-        Path quality = outDir.resolve("quality_report.json");
-        ObjectMapper mapper = new ObjectMapper();
-        Files.writeString(quality, mapper.writerWithDefaultPrettyPrinter().writeValueAsString(qualityReport));
-
-        Path swagger = outDir.resolve("openapi.json");
-        Files.writeString(swagger, buildSwagger(pm));
-
-        Path zip = outDir.resolveSibling(pm.getProjectName() + "_autodoc.zip");
-        try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(zip))) {
-            for (Path p : List.of(readme, puml, umlPng, meta, swagger, quality)) {
-                zos.putNextEntry(new ZipEntry(p.getFileName().toString()));
-                Files.copy(p, zos);
-                zos.closeEntry();
+        for (ArtifactGenerator g : generators) {
+            if (this.generators.put(g.name(), g) != null) {
+                throw new IllegalStateException("Duplicate artifact generator " + g.name());
             }
         }
-
-        try {
-            String key = "generated-docs/" + pm.getProjectName() + "_autodoc.zip";
-            String s3Url = s3UploadService.uploadFile(zip.toFile(), key);
-            System.out.println("Uploaded to S3: " + s3Url);
-        } catch (Exception e) {
-            System.err.println("Failed to upload to S3: " + e.getMessage());
+        for (ArtifactGenerator g : generators) {
+            for (String dep : g.dependsOn()) {
+                if (!this.generators.containsKey(dep)) {
+                    throw new IllegalStateException("Artifact generator " + g.name() + " depends on unknown " + dep);
+                }
+            }
         }
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "artifact-generator");
+            t.setDaemon(true);
+            return t;
+        });
+    }
 
-        return zip.toFile();
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
     }
 
-    private String buildReadme(ProjectMetadata pm) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("# ").append(pm.getProjectName()).append("\n\n");
-        sb.append("## Auto-generated Overview\n\n");
-        sb.append("This documentation was automatically generated by AutoDoc.\n\n");
-
-        for (ClassMetadata c : pm.getClasses()) {
-            sb.append("### ").append(c.getClassName()).append(" (").append(c.getType()).append(")\n\n");
-            sb.append(c.getAiDescription() != null ? c.getAiDescription() : c.getComment()).append("\n\n");
-            if (c.getMethods() != null && !c.getMethods().isEmpty()) {
-                sb.append("**Methods**:\n");
-                for (MethodMeta m : c.getMethods()) {
-                    sb.append("- `").append(m.getName()).append("(");
-                    if (m.getParams() != null) sb.append(String.join(", ", m.getParams()));
-                    sb.append(")` : ").append(m.getAiDescription() != null ? m.getAiDescription() : m.getComment());
-                    sb.append("\n");
+    /**
+     * @throws IllegalArgumentException if the request names an artifact no generator produces,
+     *                                  or sets an option a generator rejects
+     */
+    public void checkRequest(DocRequest req) {
+        if (req.getArtifacts() != null) {
+            for (String a : req.getArtifacts()) {
+                if (!generators.containsKey(a)) {
+                    throw new IllegalArgumentException("Unknown artifact '" + a + "', expected one of " + generators.keySet());
                 }
-                sb.append("\n");
             }
         }
-        sb.append("## UML Diagram\n\n");
-        sb.append("UML Diagram image is available as `diagram.png`.\n");
-        return sb.toString();
+        generators.values().forEach(g -> g.validate(req));
     }
 
-    private String buildPlantUml(ProjectMetadata pm) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("@startuml\n");
-        sb.append("skinparam classAttributeIconSize 0\n");
+    /**
+     * Write the documentation zip to a temp file (kept for later download) and optionally
+     * upload that same file to S3 in the background.
+     */
+    public File generateDocsZip(ProjectMetadata pm, DocRequest req, PipelineProgress progress) throws IOException {
+        return generateDocsZip(pm, req, progress, CompletableFuture.completedFuture(null));
+    }
 
-        for (ClassMetadata c : pm.getClasses()) {
-            sb.append("class ").append(ensureId(c.getClassName())).append(" {\n");
-            if (c.getFields() != null) {
-                for (String f : c.getFields()) sb.append("  ").append(f.replaceAll("[\\[\\]]", "")).append("\n");
-            }
-            sb.append("}\n");
+    /**
+     * Like {@link #generateDocsZip(ProjectMetadata, DocRequest, PipelineProgress)} while the
+     * project is still being enriched: generators that {@link ArtifactGenerator#needsEnrichment()
+     * need descriptions} wait for {@code enriched}, the others start right away.
+     */
+    public File generateDocsZip(ProjectMetadata pm, DocRequest req, PipelineProgress progress, CompletableFuture<?> enriched) throws IOException {
+        Path zip = Files.createTempDirectory("autodoc_output_").resolve(zipName(pm));
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(zip))) {
+            writeDocsZip(pm, req, progress, enriched, out);
         }
+        if (req.isUpload() && s3UploadService.isEnabled()) s3UploadService.uploadAsync(zip, s3Key(pm), false);
+        return zip.toFile();
+    }
 
-        for (ClassMetadata c : pm.getClasses()) {
-            if (c.getMethods() != null) {
-                for (MethodMeta m : c.getMethods()) {
-                    if (m.getRepositoryCalls() != null) {
-                        for (String rc : m.getRepositoryCalls()) {
-                            pm.getClasses().stream()
-                                    .filter(x -> x.getClassName().toLowerCase().contains(rc.toLowerCase()) ||
-                                            x.getClassName().toLowerCase().contains("repository"))
-                                    .findFirst()
-                                    .ifPresent(target ->
-                                            sb.append(ensureId(c.getClassName())).append(" --> ")
-                                                    .append(ensureId(target.getClassName())).append("\n"));
-                        }
-                    }
-                }
+    /**
+     * Stream the documentation zip to {@code out}, which is left open. With {@code upload} the
+     * bytes are also spooled to one temp file that is uploaded to S3 in the background and then
+     * deleted, so the response never waits for S3.
+     */
+    public void streamDocsZip(ProjectMetadata pm, DocRequest req, OutputStream out) throws IOException {
+        streamDocsZip(pm, req, PipelineProgress.NONE, out);
+    }
+
+    public void streamDocsZip(ProjectMetadata pm, DocRequest req, PipelineProgress progress, OutputStream out) throws IOException {
+        if (!req.isUpload() || !s3UploadService.isEnabled()) {
+            writeDocsZip(pm, req, progress, CompletableFuture.completedFuture(null), out);
+            return;
+        }
+        Path spool = Files.createTempFile("autodoc_spool_", ".zip");
+        try {
+            try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(spool))) {
+                writeDocsZip(pm, req, progress, CompletableFuture.completedFuture(null), new TeeOutputStream(StreamUtils.nonClosing(out), file));
             }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spool);
+            throw e;
         }
-        sb.append("@enduml\n");
-        return sb.toString();
+        s3UploadService.uploadAsync(spool, s3Key(pm), true);
     }
 
-    private void generateUmlPng(String pumlText, Path outputPng) throws IOException {
-        try (FileOutputStream fos = new FileOutputStream(outputPng.toFile())) {
-            SourceStringReader reader = new SourceStringReader(pumlText);
-            reader.outputImage(fos);
-        }
+    public String zipName(ProjectMetadata pm) {
+        return pm.getProjectName() + "_autodoc.zip";
     }
 
-    private String buildSwagger(ProjectMetadata pm) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("{\n  \"openapi\": \"3.0.3\",\n  \"info\": {\n")
-                .append("    \"title\": \"").append(pm.getProjectName()).append("\",\n")
-                .append("    \"version\": \"1.0.0\",\n")
-                .append("    \"description\": \"Auto-generated API documentation\"\n")
-                .append("  },\n  \"components\": {\n")
-                .append("    \"securitySchemes\": {\n")
-                .append("      \"bearerAuth\": {\n")
-                .append("        \"type\": \"http\",\n")
-                .append("        \"scheme\": \"bearer\",\n")
-                .append("        \"bearerFormat\": \"JWT\"\n")
-                .append("      }\n    }\n  },\n")
-                .append("  \"security\": [ { \"bearerAuth\": [] } ],\n")
-                .append("  \"paths\": {\n");
-
-        for (ClassMetadata c : pm.getClasses()) {
-            if (!"Controller".equalsIgnoreCase(c.getType())) continue;
-            if (c.getMethods() == null) continue;
-
-            for (MethodMeta m : c.getMethods()) {
-                String path = (m.getEndpoint() != null && !m.getEndpoint().isBlank())
-                        ? m.getEndpoint() : ("/" + m.getName());
-                String verb = (m.getHttpMethod() != null && !m.getHttpMethod().isBlank())
-                        ? m.getHttpMethod().toLowerCase() : "get";
-
-                sb.append("    \"").append(path).append("\": {\n")
-                        .append("      \"").append(verb).append("\": {\n")
-                        .append("        \"summary\": \"").append(escapeJson(m.getAiDescription() != null ? m.getAiDescription() : m.getComment())).append("\",\n")
-                        .append("        \"requestBody\": {\n")
-                        .append("          \"content\": {\n")
-                        .append("            \"application/json\": {\n")
-                        .append("              \"schema\": { \"type\": \"object\" },\n")
-                        .append("              \"example\": { \"sampleField\": \"value\" }\n")
-                        .append("            }\n          }\n        },\n")
-                        .append("        \"responses\": {\n")
-                        .append("          \"200\": {\n")
-                        .append("            \"description\": \"Successful response\",\n")
-                        .append("            \"content\": {\n")
-                        .append("              \"application/json\": {\n")
-                        .append("                \"example\": { \"status\": \"ok\" }\n")
-                        .append("              }\n            }\n")
-                        .append("          }\n        }\n")
-                        .append("      }\n    },\n");
+    /**
+     * Run the selected generators and write each one's entries into a zip on {@code out} as
+     * soon as it finishes; nothing touches the disk. Each generator's wall time is reported
+     * as stage {@code artifact.<name>}, and the time spent writing the zip as stage {@code zip}.
+     */
+    private void writeDocsZip(ProjectMetadata pm, DocRequest req, PipelineProgress progress, CompletableFuture<?> enriched,
+                              OutputStream out) throws IOException {
+        checkRequest(req);
+        Set<String> wanted = new LinkedHashSet<>();
+        for (ArtifactGenerator g : generators.values()) {
+            if (req.getArtifacts() == null ? g.enabledByDefault() : req.getArtifacts().contains(g.name())) wanted.add(g.name());
+        }
+
+        // dependencies run even when their own output was not asked for
+        List<ArtifactGenerator> order = new ArrayList<>();
+        Set<String> scheduled = new HashSet<>();
+        for (String name : wanted) topoSort(name, order, scheduled, new HashSet<>());
+
+        Map<String, CompletableFuture<Map<String, ArtifactWriter>>> outputs = new ConcurrentHashMap<>();
+        ArtifactContext ctx = new ArtifactContext(pm, req, outputs);
+        BlockingQueue<String> finished = new LinkedBlockingQueue<>();
+        Map<String, Long> timings = new ConcurrentHashMap<>();
+        for (ArtifactGenerator g : order) {
+            List<CompletableFuture<?>> deps = new ArrayList<>();
+            g.dependsOn().forEach(d -> deps.add(outputs.get(d)));
+            if (g.needsEnrichment()) deps.add(enriched);
+            CompletableFuture<Map<String, ArtifactWriter>> f = CompletableFuture.allOf(deps.toArray(CompletableFuture[]::new))
+                    .thenApplyAsync(v -> run(g, ctx, progress, timings), pool);
+            outputs.put(g.name(), f);
+            f.whenComplete((r, e) -> finished.add(g.name()));
+        }
+
+        ZipOutputStream zos = new ZipOutputStream(out);
+        long zipNanos = 0; // time spent serialising, compressing and writing entries
+        try {
+            for (int i = 0; i < order.size(); i++) {
+                String name = finished.take();
+                Map<String, ArtifactWriter> entries = outputs.get(name).join();
+                if (!wanted.contains(name)) continue;
+                long zipStart = System.nanoTime();
+                for (Map.Entry<String, ArtifactWriter> e : entries.entrySet()) {
+                    zos.putNextEntry(new ZipEntry(e.getKey()));
+                    e.getValue().writeTo(StreamUtils.nonClosing(zos));
+                    zos.closeEntry();
+                }
+                zos.flush(); // let the client start receiving while slower artifacts render
+                zipNanos += System.nanoTime() - zipStart;
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while generating artifacts");
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof IOException io) throw io;
+            if (cause instanceof RuntimeException re) throw re;
+            throw new IllegalStateException("Artifact generation failed: " + cause.getMessage(), cause);
+        } finally {
+            outputs.values().forEach(f -> f.cancel(true));
         }
+        long zipStart = System.nanoTime();
+        zos.finish(); // writes the central directory but leaves out open
+        zos.flush();
+        progress.stageFinished("zip", (zipNanos + System.nanoTime() - zipStart) / 1_000_000);
+        log.info("Generated artifacts for {}: {} ms", pm.getProjectName(), timings);
+    }
 
-        if (sb.toString().endsWith(",\n")) {
-            int last = sb.lastIndexOf(",\n");
-            sb.delete(last, last + 2);
+    private Map<String, ArtifactWriter> run(ArtifactGenerator g, ArtifactContext ctx, PipelineProgress progress, Map<String, Long> timings) {
+        long start = System.nanoTime();
+        try {
+            return g.generate(ctx);
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        } finally {
+            long ms = (System.nanoTime() - start) / 1_000_000;
+            timings.put(g.name(), ms);
+            progress.stageFinished("artifact." + g.name(), ms);
         }
-        sb.append("  }\n}");
-        return sb.toString();
     }
 
-    private String escapeJson(String s) {
-        if (s == null) return "";
-        return s.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", " ");
+    private void topoSort(String name, List<ArtifactGenerator> order, Set<String> done, Set<String> path) {
+        if (done.contains(name)) return;
+        if (!path.add(name)) throw new IllegalStateException("Artifact generators form a cycle through " + name);
+        ArtifactGenerator g = generators.get(name);
+        for (String dep : g.dependsOn()) topoSort(dep, order, done, path);
+        path.remove(name);
+        done.add(name);
+        order.add(g);
     }
 
-    private String ensureId(String s) {
-        return s.replaceAll("[^A-Za-z0-9_]", "_");
+    private String s3Key(ProjectMetadata pm) {
+        return "generated-docs/" + zipName(pm);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,228 @@
+package com.boa.hackathon.autodocgen.service;
+
+import com.boa.hackathon.autodocgen.model.DocJob;
+import com.boa.hackathon.autodocgen.model.DocRequest;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Runs documentation jobs on a bounded worker pool. At most {@code autodoc.jobs.workers} jobs
+ * run at once and {@code autodoc.jobs.queue-capacity} wait; beyond that {@link #submit} throws
+ * {@link RejectedExecutionException} so the caller can answer 503. Progress is pushed to
+ * Server-Sent Events subscribers by a ticker: pipeline threads only update the job and mark it
+ * changed, so they never write to sockets and a slow client cannot hold a pipeline up. The
+ * ticker also drops finished jobs, and their zips, beyond {@code autodoc.jobs.retain} or older
+ * than {@code autodoc.jobs.retain-minutes}.
+ */
+@Service
+public class DocJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(DocJobService.class);
+    private static final long SSE_TIMEOUT_MS = TimeUnit.HOURS.toMillis(1);
+    private static final long EVICT_EVERY_MS = TimeUnit.MINUTES.toMillis(1);
+
+    private final DocPipelineService pipeline;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "doc-job-events");
+        t.setDaemon(true);
+        return t;
+    });
+    private final int retain;
+    private final Duration retainFor;
+    private final Map<String, DocJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final Set<String> changed = ConcurrentHashMap.newKeySet(); // jobs to publish on the next tick
+
+    public DocJobService(DocPipelineService pipeline,
+                         @Value("${autodoc.jobs.workers:2}") int workers,
+                         @Value("${autodoc.jobs.queue-capacity:20}") int queueCapacity,
+                         @Value("${autodoc.jobs.retain:100}") int retain,
+                         @Value("${autodoc.jobs.retain-minutes:1440}") long retainMinutes,
+                         MeterRegistry registry) {
+        this.pipeline = pipeline;
+        this.retain = retain;
+        this.retainFor = Duration.ofMinutes(retainMinutes);
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> new Thread(r, "doc-job-worker"),
+                new ThreadPoolExecutor.AbortPolicy());
+        ticker.scheduleWithFixedDelay(this::publishChanges, 500, 500, TimeUnit.MILLISECONDS);
+        ticker.scheduleWithFixedDelay(this::evictFinished, EVICT_EVERY_MS, EVICT_EVERY_MS, TimeUnit.MILLISECONDS);
+        Gauge.builder("autodoc.jobs.queued", this, DocJobService::queueDepth).description("Jobs waiting for a worker").register(registry);
+        Gauge.builder("autodoc.jobs.running", this, DocJobService::running).description("Jobs being run").register(registry);
+    }
+
+    public DocJob submit(DocRequest req) {
+        DocJob job = new DocJob(UUID.randomUUID().toString(), req.getUrl());
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job, req));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw e;
+        }
+        evictFinished();
+        return job;
+    }
+
+    public Optional<DocJob> get(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    public int queueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int running() {
+        return executor.getActiveCount();
+    }
+
+    public SseEmitter subscribe(DocJob job) {
+        SseEmitter emitter = new SseEmitter(SSE_TIMEOUT_MS);
+        send(job, emitter);
+        if (job.isFinished()) {
+            emitter.complete();
+            return emitter;
+        }
+        List<SseEmitter> list = subscribers.computeIfAbsent(job.getId(), k -> new CopyOnWriteArrayList<>());
+        list.add(emitter);
+        Runnable remove = () -> list.remove(emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+        return emitter;
+    }
+
+    private void run(DocJob job, DocRequest req) {
+        job.start();
+        changed.add(job.getId());
+        try {
+            File zip = pipeline.run(req, new JobProgress(job));
+            job.succeed(zip.toPath());
+            log.info("Job {} finished: {}", job.getId(), job.getStageTimingsMs());
+        } catch (Exception e) {
+            log.warn("Job {} failed: {}", job.getId(), e.getMessage(), e);
+            job.fail(e.getMessage());
+        }
+        changed.add(job.getId());
+    }
+
+    /**
+     * Runs on the ticker: running jobs are sent every tick (their counters move without
+     * notice), others only when marked changed; finished jobs get their last event and their
+     * streams are closed.
+     */
+    private void publishChanges() {
+        subscribers.keySet().forEach(id -> {
+            DocJob job = jobs.get(id);
+            boolean marked = changed.remove(id);
+            if (job == null) {
+                List<SseEmitter> list = subscribers.remove(id);
+                if (list != null) list.forEach(SseEmitter::complete);
+            } else if (job.isFinished()) {
+                List<SseEmitter> list = subscribers.remove(id);
+                if (list != null) list.forEach(e -> {
+                    send(job, e);
+                    e.complete();
+                });
+            } else if (marked || job.getStatus() == DocJob.Status.RUNNING) {
+                publish(job);
+            }
+        });
+        changed.retainAll(subscribers.keySet()); // nobody listening to the rest
+    }
+
+    private void publish(DocJob job) {
+        List<SseEmitter> list = subscribers.get(job.getId());
+        if (list != null) list.forEach(e -> send(job, e));
+    }
+
+    private void send(DocJob job, SseEmitter emitter) {
+        try {
+            emitter.send(SseEmitter.event().name(job.isFinished() ? "done" : "progress").data(job));
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void evictFinished() {
+        List<DocJob> finished = jobs.values().stream()
+                .filter(DocJob::isFinished)
+                .sorted(Comparator.comparing(DocJob::getFinishedAt))
+                .toList();
+        Instant expired = Instant.now().minus(retainFor);
+        for (int i = 0; i < finished.size(); i++) {
+            DocJob old = finished.get(i);
+            if (i >= finished.size() - retain && old.getFinishedAt().isAfter(expired)) break;
+            jobs.remove(old.getId());
+            try {
+                if (old.getZip() != null) {
+                    Files.deleteIfExists(old.getZip());
+                    Files.deleteIfExists(old.getZip().getParent()); // the job's own output directory
+                }
+            } catch (IOException e) {
+                log.debug("Could not delete {}: {}", old.getZip(), e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        ticker.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    /** Feeds pipeline callbacks into the job's counters and timings. */
+    private class JobProgress implements PipelineProgress {
+        private final DocJob job;
+
+        JobProgress(DocJob job) {
+            this.job = job;
+        }
+
+        @Override
+        public void stageStarted(String stage) {
+            job.setStage(stage);
+            changed.add(job.getId());
+        }
+
+        @Override
+        public void stageFinished(String stage, long millis) {
+            job.recordStage(stage, millis);
+        }
+
+        @Override
+        public void filesDiscovered(int count) {
+            job.addFilesTotal(count);
+        }
+
+        @Override
+        public void fileParsed() {
+            job.fileParsed();
+        }
+
+        @Override
+        public void promptsPlanned(int count) {
+            job.addPromptsTotal(count);
+        }
+
+        @Override
+        public void promptDone() {
+            job.promptDone();
+        }
+    }
+}
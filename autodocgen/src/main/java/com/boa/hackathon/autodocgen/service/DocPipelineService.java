@@ -0,0 +1,164 @@
+package com.boa.hackathon.autodocgen.service;
+
+import com.boa.hackathon.autodocgen.model.ClassMetadata;
+import com.boa.hackathon.autodocgen.model.DocRequest;
+import com.boa.hackathon.autodocgen.model.ProjectMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * The end-to-end documentation pipeline: clone and parse, enrich, generate. Shared by the
+ * synchronous endpoint and the job executor.
+ * <p>
+ * The stages overlap: each parsed file's classes go to the AI enrichment straight from the
+ * parse workers, so prompts for early classes run while later files are still being parsed,
+ * and artifacts that do not need descriptions (the UML diagrams) start as soon as parsing
+ * is done. The enrichment's bounded backlog pushes back on the parser when the LLM is slower.
+ * Method bodies are read lazily from the repository's working tree, so a run holds its
+ * {@link RepoParserService.Checkout} until generation and enrichment are both over; runs of the
+ * same repository therefore take turns.
+ * Every run is traced through {@link PipelineMetrics}.
+ */
+@Service
+public class DocPipelineService {
+
+    private static final Logger log = LoggerFactory.getLogger(DocPipelineService.class);
+
+    private final RepoParserService repoService;
+    private final AIService aiService;
+    private final DocGeneratorService docGeneratorService;
+    private final PipelineMetrics metrics;
+
+    public DocPipelineService(RepoParserService repoService, AIService aiService, DocGeneratorService docGeneratorService,
+                              PipelineMetrics metrics) {
+        this.repoService = repoService;
+        this.aiService = aiService;
+        this.docGeneratorService = docGeneratorService;
+        this.metrics = metrics;
+    }
+
+    public File run(DocRequest req, PipelineProgress progress) throws Exception {
+        long start = System.nanoTime();
+        try (PipelineMetrics.Trace trace = metrics.trace(req.getUrl(), progress)) {
+            Parsed parsed = null;
+            try {
+                parsed = parse(req, trace);
+                ProjectMetadata projectMeta = parsed.project();
+                CompletableFuture<Void> enriched = parsed.enriched();
+
+                // 3. generate docs & UML -> returns path to zip; generators needing descriptions wait for enrichment
+                File zip = trace.stage("generate", () -> docGeneratorService.generateDocsZip(projectMeta, req, trace, enriched));
+                log.info("Documented {} ({} classes) in {} ms", projectMeta.getProjectName(), projectMeta.getClassCount(),
+                        (System.nanoTime() - start) / 1_000_000);
+                return zip;
+            } catch (Exception e) {
+                if (parsed != null) parsed.cancel();
+                trace.fail(e);
+                throw e;
+            } finally {
+                if (parsed != null) parsed.release();
+            }
+        }
+    }
+
+    /**
+     * Clone, parse and enrich, leaving artifact generation to the caller. Not traced on its
+     * own: callers pass a {@link PipelineMetrics#trace} covering the whole request. The caller
+     * closes the returned checkout once the artifacts are generated.
+     */
+    public RepoParserService.Checkout prepare(DocRequest req, PipelineProgress progress) throws Exception {
+        Parsed parsed = parse(req, progress);
+        try {
+            parsed.enriched().get();
+        } catch (ExecutionException e) {
+            parsed.checkout().close();
+            if (e.getCause() instanceof Exception cause) throw cause;
+            throw e;
+        } catch (InterruptedException e) {
+            parsed.cancel();
+            parsed.checkout().close();
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+        return parsed.checkout();
+    }
+
+    private record Parsed(RepoParserService.Checkout checkout, AIService.Enrichment enrichment, CompletableFuture<Void> enriched) {
+
+        ProjectMetadata project() {
+            return checkout.getProject();
+        }
+
+        /** Hand the working tree back once the enrichment, which may still be loading bodies, is done too. */
+        void release() {
+            enriched.whenComplete((v, t) -> checkout.close());
+        }
+
+        /**
+         * Stop spending prompts on a run that failed, and wait for the enrichment to wind down
+         * (saving what was described so far), so it reports its stage inside the run's trace.
+         */
+        void cancel() {
+            enrichment.cancel();
+            boolean interrupted = Thread.interrupted();
+            try {
+                enriched.exceptionally(t -> null).join();
+            } finally {
+                if (interrupted) Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Clone and parse, feeding classes to the enrichment as they are parsed. Returns once
+     * parsing is done; the enrichment finishes (and the snapshot is saved) in the background.
+     */
+    private Parsed parse(DocRequest req, PipelineProgress progress) throws Exception {
+        // the project name is only known after cloning; it only labels the enrichment's log line
+        AIService.Enrichment enrichment = aiService.startEnrichment(req.getUrl(), progress);
+        RepoParserService.Checkout checkout = null;
+        ProjectMetadata projectMeta;
+        try {
+            // 1. clone+parse (reports its own clone/checkout/parse stages), 2. enrich as classes arrive
+            checkout = repoService.cloneAndParse(req.getUrl(), req.isIncremental(), progress, classes -> {
+                try {
+                    for (ClassMetadata c : classes) enrichment.submit(c);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CompletionException(e);
+                }
+            });
+            projectMeta = checkout.getProject();
+            // classes carried over from a snapshot whose descriptions are still missing
+            for (ClassMetadata c : projectMeta.getClasses()) enrichment.submit(c);
+            log.info("Estimated cost: {}", enrichment.estimate());
+        } catch (Exception | Error e) {
+            enrichment.cancel();
+            if (checkout != null) checkout.close();
+            throw e;
+        }
+
+        progress.stageStarted("enrich");
+        long start = System.nanoTime();
+        CompletableFuture<Void> enriched = new CompletableFuture<>();
+        Thread.startVirtualThread(() -> {
+            Throwable failure = null;
+            try {
+                enrichment.close();
+                repoService.saveSnapshot(projectMeta);
+            } catch (Throwable t) {
+                failure = t;
+            }
+            progress.stageFinished("enrich", (System.nanoTime() - start) / 1_000_000);
+            if (failure == null) enriched.complete(null);
+            else enriched.completeExceptionally(failure);
+        });
+        return new Parsed(checkout, enrichment, enriched);
+    }
+}
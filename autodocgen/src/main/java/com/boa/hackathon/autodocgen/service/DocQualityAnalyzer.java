@@ -1,69 +1,72 @@
 package com.boa.hackathon.autodocgen.service;
 
+import com.boa.hackathon.autodocgen.model.BodyFingerprint;
 import com.boa.hackathon.autodocgen.model.ClassMetadata;
 import com.boa.hackathon.autodocgen.model.MethodMeta;
-import com.boa.hackathon.autodocgen.util.EnglishWordList;
+import com.boa.hackathon.autodocgen.util.CloneFingerprinter;
+import com.boa.hackathon.autodocgen.util.MinHashLsh;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.util.*;
 import java.util.stream.Collectors;
 
 public class DocQualityAnalyzer {
 
     /**
-     * Find duplicate lines (exact) and duplicate blocks (n-gram) inside a documentation String.
+     * Find duplicate lines (exact), duplicate 3-line blocks and words {@code vocabulary} does
+     * not know inside documentation text, in one pass; see {@link DocTextScanner}. Unknown
+     * words come with spelling suggestions.
      */
-    public static Map<String, Object> analyzeDocText(String docText) {
-        Map<String, Object> result = new LinkedHashMap<>();
-        List<String> lines = Arrays.stream(docText.split("\\r?\\n"))
-                .map(String::trim)
-                .filter(s -> !s.isEmpty())
-                .collect(Collectors.toList());
-
-        // exact duplicate lines
-        Map<String, Integer> lineCounts = new LinkedHashMap<>();
-        for (String l : lines) lineCounts.put(l, lineCounts.getOrDefault(l,0)+1);
-        Map<String,Integer> dupLines = lineCounts.entrySet().stream()
-                .filter(e->e.getValue()>1)
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-        result.put("duplicateLines", dupLines);
-
-        // n-gram duplicate blocks (3-line blocks)
-        Map<String,Integer> blockCounts = new LinkedHashMap<>();
-        int N=3;
-        for (int i=0;i+N<=lines.size();i++){
-            String block = String.join(" ", lines.subList(i,i+N));
-            blockCounts.put(block, blockCounts.getOrDefault(block,0)+1);
-        }
-        Map<String,Integer> dupBlocks = blockCounts.entrySet().stream()
-                .filter(e->e.getValue()>1)
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-        result.put("duplicateBlocks", dupBlocks);
-
-        // simple spelling heuristics
-        Map<String,Integer> suspectWords = new LinkedHashMap<>();
-        for (String l : lines) {
-            for (String w : l.split("\\s+")) {
-                String clean = w.replaceAll("[^A-Za-z']", "").toLowerCase();
-                if (clean.length() > 2 && !EnglishWordList.isCommonWord(clean)) {
-                    suspectWords.put(clean, suspectWords.getOrDefault(clean,0)+1);
-                }
-            }
-        }
-        // top suspect words (those seen >1)
-        Map<String,Integer> topSuspects = suspectWords.entrySet().stream()
-                .filter(e->e.getValue()>1)
-                .limit(200)
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-        result.put("suspectWords", topSuspects);
+    public static Map<String, Object> analyzeDocText(CharSequence docText, SpellChecker.Vocabulary vocabulary) {
+        DocTextScanner scanner = new DocTextScanner(vocabulary::isKnown);
+        for (int i = 0, n = docText.length(); i < n; i++) scanner.accept(docText.charAt(i));
+        return withSuggestions(scanner.finish(), vocabulary);
+    }
 
+    /**
+     * Like {@link #analyzeDocText(CharSequence, SpellChecker.Vocabulary)}, reading the text as
+     * it goes so it never has to be held in memory as a whole. The reader is not closed.
+     */
+    public static Map<String, Object> analyzeDocText(Reader docText, SpellChecker.Vocabulary vocabulary) throws IOException {
+        DocTextScanner scanner = new DocTextScanner(vocabulary::isKnown);
+        char[] buf = new char[8192];
+        for (int n; (n = docText.read(buf)) >= 0; ) scanner.accept(buf, 0, n);
+        return withSuggestions(scanner.finish(), vocabulary);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> withSuggestions(Map<String, Object> result, SpellChecker.Vocabulary vocabulary) {
+        Map<String, List<String>> suggestions = new LinkedHashMap<>();
+        for (String w : ((Map<String, Integer>) result.get("suspectWords")).keySet()) {
+            List<String> s = vocabulary.suggest(w);
+            if (!s.isEmpty()) suggestions.put(w, s);
+        }
+        result.put("spellingSuggestions", suggestions);
         return result;
     }
 
+    public static final double DEFAULT_SIMILARITY_THRESHOLD = 0.6;
+    public static final int DEFAULT_EXACT_SIMILARITY_LIMIT = 2000;
+
     /**
      * Compute method-level similarity across all classes to suggest reuse.
      * Returns pairs of (methodA, methodB, score) where score in [0,1].
      */
     public static List<Map<String,Object>> detectSimilarMethods(List<ClassMetadata> classes) {
+        return detectSimilarMethods(classes, DEFAULT_SIMILARITY_THRESHOLD, DEFAULT_EXACT_SIMILARITY_LIMIT);
+    }
+
+    /**
+     * Like {@link #detectSimilarMethods(List)} with a configurable Jaccard threshold. Each
+     * method's token set is built once, as sorted ids. Up to {@code exactLimit} methods every
+     * pair is compared; above that MinHash/LSH proposes candidate pairs and only those are
+     * scored, so the cost grows roughly linearly with the number of methods. On that path
+     * methods with the same token set are reported once each, paired with the first of them,
+     * rather than every pair of a group of identical methods.
+     */
+    public static List<Map<String,Object>> detectSimilarMethods(List<ClassMetadata> classes, double threshold, int exactLimit) {
         List<Map<String,Object>> result = new ArrayList<>();
         // flatten methods with context
         List<MethodContext> methods = new ArrayList<>();
@@ -73,49 +76,81 @@ public class DocQualityAnalyzer {
                 methods.add(new MethodContext(c.getClassName(), c.getPackageName(), m));
             }
         }
-        for (int i=0;i<methods.size();i++){
-            for (int j=i+1;j<methods.size();j++){
-                MethodContext a = methods.get(i), b = methods.get(j);
-                double score = similarityScore(a.method, b.method);
-                if (score >= 0.6) {
-                    Map<String,Object> pair = new LinkedHashMap<>();
-                    pair.put("classA", a.className);
-                    pair.put("methodA", a.method.getName());
-                    pair.put("classB", b.className);
-                    pair.put("methodB", b.method.getName());
-                    pair.put("score", Math.round(score*100.0)/100.0);
-                    // quick hint: if names similar -> reuse suggestion
-                    pair.put("suggestion", score>0.8 ? "Highly similar — consider refactor/reuse" : "Possible reuse");
-                    result.add(pair);
+        Map<String,Integer> ids = new HashMap<>();
+        List<int[]> tokens = new ArrayList<>(methods.size());
+        for (MethodContext mc : methods) tokens.add(tokenIds(tokensForMethod(mc.method), ids));
+
+        if (methods.size() <= exactLimit) {
+            for (int i=0;i<methods.size();i++){
+                for (int j=i+1;j<methods.size();j++){
+                    double score = MinHashLsh.jaccard(tokens.get(i), tokens.get(j));
+                    if (score >= threshold) result.add(similarPair(methods.get(i), methods.get(j), score));
                 }
             }
+        } else {
+            // identical token sets: each method paired with the first of them, which alone is compared further
+            List<Integer> distinct = new ArrayList<>();
+            Map<TokenSet,Integer> firstWith = new HashMap<>();
+            for (int i=0;i<methods.size();i++){
+                if (tokens.get(i).length == 0) continue;
+                Integer first = firstWith.putIfAbsent(new TokenSet(tokens.get(i)), i);
+                if (first == null) distinct.add(i);
+                else result.add(similarPair(methods.get(first), methods.get(i), 1.0));
+            }
+            MinHashLsh lsh = new MinHashLsh(threshold, 128, 42);
+            List<long[]> signatures = new ArrayList<>(distinct.size());
+            for (int i : distinct) signatures.add(lsh.signature(tokens.get(i)));
+            for (long pair : lsh.candidates(signatures)) {
+                int i = distinct.get((int) (pair >>> 32)), j = distinct.get((int) pair);
+                double score = MinHashLsh.jaccard(tokens.get(i), tokens.get(j));
+                if (score >= threshold) result.add(similarPair(methods.get(i), methods.get(j), score));
+            }
         }
         // sort by score desc
         result.sort((x,y)->Double.compare((double)y.get("score"), (double)x.get("score")));
         return result;
     }
 
+    private static Map<String,Object> similarPair(MethodContext a, MethodContext b, double score) {
+        Map<String,Object> pair = new LinkedHashMap<>();
+        pair.put("classA", a.className);
+        pair.put("methodA", a.method.getName());
+        pair.put("classB", b.className);
+        pair.put("methodB", b.method.getName());
+        pair.put("score", Math.round(score*100.0)/100.0);
+        // quick hint: if names similar -> reuse suggestion
+        pair.put("suggestion", score>0.8 ? "Highly similar — consider refactor/reuse" : "Possible reuse");
+        return pair;
+    }
+
+    public static final int DEFAULT_CLONE_MIN_TOKENS = 50;
+    private static final int MAX_FINGERPRINT_SHARERS = 50; // more methods than this sharing a k-gram is boilerplate
+
     /**
-     * Detect duplicate method bodies (exact normalized match).
-     * This requires reading filePath from extra map inside ClassMetadata (if available)
+     * Detect whole-method clones: bodies with the same tokens once identifiers and literals are
+     * normalised. Groups are {@code type-1} when the bodies are identical token for token and
+     * {@code type-2} when only names or literals differ. Uses the fingerprints recorded by the
+     * parser; methods without one are skipped.
      */
     public static List<Map<String,Object>> detectDuplicateMethodBodies(List<ClassMetadata> classes) {
-        Map<String, List<MethodBodyEntry>> bodyMap = new HashMap<>();
-        List<Map<String,Object>> duplicates = new ArrayList<>();
+        Map<Long, List<MethodBodyEntry>> groups = new LinkedHashMap<>();
         for (ClassMetadata c : classes) {
             if (c.getMethods()==null) continue;
             for (MethodMeta m: c.getMethods()) {
-                String body = m.getBody(); // if parser set it
-                if (body==null || body.isBlank()) continue;
-                String norm = normalizeCode(body);
-                bodyMap.computeIfAbsent(norm, k->new ArrayList<>())
-                        .add(new MethodBodyEntry(c.getClassName(), m.getName()));
+                BodyFingerprint fp = m.getFingerprint();
+                if (fp == null || fp.getTokenCount() == 0) continue;
+                groups.computeIfAbsent(fp.getNormalizedHash(), k->new ArrayList<>())
+                        .add(new MethodBodyEntry(c, m, m.getBeginLine(), m.getEndLine()));
             }
         }
-        for (Map.Entry<String,List<MethodBodyEntry>> e : bodyMap.entrySet()) {
-            List<MethodBodyEntry> list = e.getValue();
+        List<Map<String,Object>> duplicates = new ArrayList<>();
+        for (List<MethodBodyEntry> list : groups.values()) {
             if (list.size()>1) {
+                long exact = list.get(0).fingerprint.getExactHash();
+                boolean identical = list.stream().allMatch(e -> e.fingerprint.getExactHash() == exact);
                 Map<String,Object> rec = new LinkedHashMap<>();
+                rec.put("type", identical ? "type-1" : "type-2");
+                rec.put("tokens", list.get(0).fingerprint.getTokenCount());
                 rec.put("methods", list);
                 rec.put("occurrences", list.size());
                 duplicates.add(rec);
@@ -124,19 +159,86 @@ public class DocQualityAnalyzer {
         return duplicates;
     }
 
-    private static String normalizeCode(String s) {
-        return s.replaceAll("\\s+"," ").replaceAll("\\b\\w{1}\\b","").trim();
+    /**
+     * Detect blocks of at least {@code minTokens} normalised tokens shared by two methods that
+     * are not whole-method clones of each other. Winnowed fingerprints are indexed once; pairs of
+     * methods sharing a fingerprint are collected, and runs of nearby shared fingerprints are
+     * merged into one block with its line range in each method (the span of the matched
+     * fingerprints, so up to one window of tokens at either end may be left out). Runs shorter than
+     * {@link CloneFingerprinter#GUARANTEE} tokens may be missed. At most {@code maxResults}
+     * blocks are returned, longest first.
+     */
+    public static List<Map<String,Object>> detectClonedBlocks(List<ClassMetadata> classes, int minTokens, int maxResults) {
+        List<MethodBodyEntry> methods = new ArrayList<>();
+        Map<Long, List<int[]>> index = new HashMap<>(); // k-gram hash -> {method, fingerprint}
+        for (ClassMetadata c : classes) {
+            if (c.getMethods()==null) continue;
+            for (MethodMeta m : c.getMethods()) {
+                BodyFingerprint fp = m.getFingerprint();
+                if (fp == null || fp.getHashes() == null || fp.getHashes().length == 0) continue;
+                int mi = methods.size();
+                methods.add(new MethodBodyEntry(c, m, m.getBeginLine(), m.getEndLine()));
+                for (int f = 0; f < fp.getHashes().length; f++) {
+                    index.computeIfAbsent(fp.getHashes()[f], k -> new ArrayList<>(2)).add(new int[]{mi, f});
+                }
+            }
+        }
+
+        Map<Long, List<int[]>> shared = new HashMap<>(); // method pair -> {fingerprint in a, fingerprint in b}
+        for (List<int[]> hits : index.values()) {
+            if (hits.size() < 2 || hits.size() > MAX_FINGERPRINT_SHARERS) continue;
+            for (int x = 0; x < hits.size(); x++) {
+                for (int y = x + 1; y < hits.size(); y++) {
+                    int[] a = hits.get(x), b = hits.get(y);
+                    if (a[0] == b[0]) continue;
+                    if (a[0] > b[0]) { int[] t = a; a = b; b = t; }
+                    if (methods.get(a[0]).fingerprint.getNormalizedHash() == methods.get(b[0]).fingerprint.getNormalizedHash()) continue;
+                    shared.computeIfAbsent((long) a[0] << 32 | b[0], k -> new ArrayList<>()).add(new int[]{a[1], b[1]});
+                }
+            }
+        }
+
+        List<Map<String,Object>> blocks = new ArrayList<>();
+        int gap = CloneFingerprinter.K + CloneFingerprinter.W;
+        for (Map.Entry<Long, List<int[]>> e : shared.entrySet()) {
+            MethodBodyEntry a = methods.get((int) (e.getKey() >>> 32));
+            MethodBodyEntry b = methods.get((int) (long) e.getKey());
+            int[] offA = a.fingerprint.getOffsets(), offB = b.fingerprint.getOffsets();
+            List<int[]> matches = e.getValue();
+            matches.sort(Comparator.comparingInt((int[] m) -> offA[m[0]]).thenComparingInt(m -> offB[m[1]]));
+            int start = 0;
+            for (int k = 1; k <= matches.size(); k++) {
+                boolean split = k == matches.size();
+                if (!split) {
+                    int da = offA[matches.get(k)[0]] - offA[matches.get(k - 1)[0]];
+                    int db = offB[matches.get(k)[1]] - offB[matches.get(k - 1)[1]];
+                    split = da <= 0 || da > gap || db <= 0 || db > gap;
+                }
+                if (!split) continue;
+                int[] first = matches.get(start), last = matches.get(k - 1);
+                int tokens = offA[last[0]] + CloneFingerprinter.K - offA[first[0]];
+                if (tokens >= minTokens) {
+                    Map<String,Object> rec = new LinkedHashMap<>();
+                    rec.put("type", "block");
+                    rec.put("tokens", tokens);
+                    rec.put("methods", List.of(
+                            a.at(a.fingerprint.getLines()[2 * first[0]], a.fingerprint.getLines()[2 * last[0] + 1]),
+                            b.at(b.fingerprint.getLines()[2 * first[1]], b.fingerprint.getLines()[2 * last[1] + 1])));
+                    blocks.add(rec);
+                }
+                start = k;
+            }
+        }
+        blocks.sort((x,y)->Integer.compare((int)y.get("tokens"), (int)x.get("tokens")));
+        return blocks.size() > maxResults ? new ArrayList<>(blocks.subList(0, maxResults)) : blocks;
     }
 
-    private static double similarityScore(MethodMeta a, MethodMeta b) {
-        // tokens from name, params, repo calls, domain keywords
-        Set<String> ta = tokensForMethod(a);
-        Set<String> tb = tokensForMethod(b);
-        if (ta.isEmpty() || tb.isEmpty()) return 0.0;
-        Set<String> inter = new HashSet<>(ta); inter.retainAll(tb);
-        Set<String> union = new HashSet<>(ta); union.addAll(tb);
-        double j = (double)inter.size() / (double)union.size();
-        return j;
+    private static int[] tokenIds(Set<String> tokens, Map<String,Integer> ids) {
+        int[] out = new int[tokens.size()];
+        int k = 0;
+        for (String t : tokens) out[k++] = ids.computeIfAbsent(t, x -> ids.size());
+        Arrays.sort(out);
+        return out;
     }
 
     private static Set<String> tokensForMethod(MethodMeta m) {
@@ -160,10 +262,27 @@ public class DocQualityAnalyzer {
     }
 
     // helper classes
+    private record TokenSet(int[] ids) {
+        @Override public boolean equals(Object o) { return o instanceof TokenSet t && Arrays.equals(ids, t.ids); }
+        @Override public int hashCode() { return Arrays.hashCode(ids); }
+    }
     private static class MethodContext {
         String className, pkg;
         MethodMeta method;
         MethodContext(String className, String pkg, MethodMeta method){ this.className=className; this.pkg=pkg; this.method=method; }
     }
-    private static class MethodBodyEntry { public String className, methodName; public MethodBodyEntry(String c,String m){this.className=c;this.methodName=m;} }
+    private static class MethodBodyEntry {
+        public String className, methodName, file;
+        public int beginLine, endLine;
+        @JsonIgnore BodyFingerprint fingerprint;
+        @JsonIgnore ClassMetadata owner;
+        @JsonIgnore MethodMeta method;
+        MethodBodyEntry(ClassMetadata c, MethodMeta m, int beginLine, int endLine) {
+            this.className=c.getClassName(); this.methodName=m.getName();
+            this.file = c.getExtra()==null ? null : (String) c.getExtra().get("filePath");
+            this.beginLine=beginLine; this.endLine=endLine;
+            this.fingerprint=m.getFingerprint(); this.owner=c; this.method=m;
+        }
+        MethodBodyEntry at(int begin, int end) { return new MethodBodyEntry(owner, method, begin, end); }
+    }
 }
@@ -0,0 +1,161 @@
+package com.boa.hackathon.autodocgen.service;
+
+import com.boa.hackathon.autodocgen.util.LongIntHashMap;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Single-pass scanner behind {@link DocQualityAnalyzer#analyzeDocText}. Characters are fed in
+ * as they are read; lines, 3-line blocks and words are counted by 64-bit hash in primitive
+ * maps, and text is only turned into a String the moment a key is seen for the second time,
+ * from the buffers that hold that occurrence (unknown words: the first time). The line, block
+ * window and word buffers are reused, so scanning allocates nothing per line.
+ */
+class DocTextScanner {
+
+    static final int BLOCK_LINES = 3;
+    static final int MAX_SUSPECT_WORDS = 200;
+
+    private final StringBuilder line = new StringBuilder(256);
+    private final StringBuilder word = new StringBuilder(32);
+    // the last BLOCK_LINES non-empty, trimmed lines and their hashes, as a ring
+    private final StringBuilder[] window = new StringBuilder[BLOCK_LINES];
+    private final long[] windowHashes = new long[BLOCK_LINES];
+    private int windowed;
+
+    private final Predicate<CharSequence> known;
+    private final Counter lines = new Counter();
+    private final Counter blocks = new Counter();
+    private final Counter words = new Counter();
+
+    DocTextScanner(Predicate<CharSequence> known) {
+        this.known = known;
+        for (int i = 0; i < BLOCK_LINES; i++) window[i] = new StringBuilder(256);
+    }
+
+    void accept(char c) {
+        if (c == '\n') endLine();
+        else line.append(c);
+    }
+
+    void accept(char[] buf, int off, int len) {
+        for (int i = off, end = off + len; i < end; i++) accept(buf[i]);
+    }
+
+    /** Flush the last line and return {@code duplicateLines}, {@code duplicateBlocks}, {@code suspectWords}. */
+    Map<String, Object> finish() {
+        endLine();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("duplicateLines", lines.seen(2, Integer.MAX_VALUE));
+        result.put("duplicateBlocks", blocks.seen(2, Integer.MAX_VALUE));
+        result.put("suspectWords", words.seen(1, MAX_SUSPECT_WORDS));
+        return result;
+    }
+
+    private void endLine() {
+        // same bounds as String.trim()
+        int start = 0, end = line.length();
+        while (start < end && line.charAt(start) <= ' ') start++;
+        while (end > start && line.charAt(end - 1) <= ' ') end--;
+        if (start < end) {
+            long h = hash(line, start, end);
+            int slot = windowed % BLOCK_LINES;
+            StringBuilder current = window[slot];
+            current.setLength(0);
+            current.append(line, start, end);
+            windowHashes[slot] = h;
+            windowed++;
+
+            if (lines.add(h) == 2) lines.materialize(h, current.toString());
+            if (windowed >= BLOCK_LINES) countBlock();
+            countWords(current);
+        }
+        line.setLength(0);
+    }
+
+    private void countBlock() {
+        long h = 0;
+        int oldest = windowed % BLOCK_LINES;
+        for (int k = 0; k < BLOCK_LINES; k++) h = mix(Long.rotateLeft(h, 1) ^ windowHashes[(oldest + k) % BLOCK_LINES]);
+        if (blocks.add(h) == 2) {
+            StringBuilder text = new StringBuilder();
+            for (int k = 0; k < BLOCK_LINES; k++) {
+                if (k > 0) text.append(' ');
+                text.append(window[(oldest + k) % BLOCK_LINES]);
+            }
+            blocks.materialize(h, text.toString());
+        }
+    }
+
+    /**
+     * Words are runs between whitespace ({@code \s}), reduced to their ASCII letters and
+     * apostrophes and lower-cased; those longer than two characters that are not
+     * {@code known} are counted.
+     */
+    private void countWords(CharSequence text) {
+        word.setLength(0);
+        for (int i = 0, n = text.length(); i <= n; i++) {
+            char c = i < n ? text.charAt(i) : ' ';
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r') {
+                if (word.length() > 2 && !known.test(word)) {
+                    long h = hash(word, 0, word.length());
+                    if (words.add(h) == 1) words.materialize(h, word.toString());
+                }
+                word.setLength(0);
+            } else if (c >= 'a' && c <= 'z' || c == '\'') {
+                word.append(c);
+            } else if (c >= 'A' && c <= 'Z') {
+                word.append((char) (c + ('a' - 'A')));
+            }
+        }
+    }
+
+    private static long hash(CharSequence s, int start, int end) {
+        long h = 0xcbf29ce484222325L; // FNV-1a, finished with a mix for better low bits
+        for (int i = start; i < end; i++) h = (h ^ s.charAt(i)) * 0x100000001b3L;
+        return mix(h ^ (end - start));
+    }
+
+    // splitmix64 finaliser
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Counts per hash, by dense id in first-seen order. Text is kept only for ids the caller
+     * materializes.
+     */
+    private static class Counter {
+        private final LongIntHashMap ids = new LongIntHashMap(256);
+        private int[] counts = new int[256];
+        private String[] texts = new String[256];
+
+        /** @return the new count for {@code h} */
+        int add(long h) {
+            int id = ids.putIfAbsent(h, ids.size());
+            if (id == counts.length) {
+                counts = Arrays.copyOf(counts, id * 2);
+                texts = Arrays.copyOf(texts, id * 2);
+            }
+            return ++counts[id];
+        }
+
+        void materialize(long h, String text) {
+            texts[ids.get(h, -1)] = text;
+        }
+
+        /** Keys seen at least {@code minCount} times, first-seen first, at most {@code limit}. */
+        Map<String, Integer> seen(int minCount, int limit) {
+            Map<String, Integer> out = new LinkedHashMap<>();
+            for (int id = 0, n = ids.size(); id < n && out.size() < limit; id++) {
+                if (counts[id] >= minCount) out.put(texts[id], counts[id]);
+            }
+            return out;
+        }
+    }
+}
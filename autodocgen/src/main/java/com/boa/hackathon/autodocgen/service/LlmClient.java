@@ -0,0 +1,169 @@
+package com.boa.hackathon.autodocgen.service;
+
+import com.boa.hackathon.autodocgen.util.TokenBucket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.*;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * OpenAI-compatible chat completion client (OpenRouter by default). Every call goes through a
+ * shared token bucket, has connect/read timeouts, and is retried with jittered exponential
+ * backoff on 429, 5xx and I/O errors. Safe to call from many threads at once.
+ */
+@Component
+public class LlmClient {
+
+    private static final Logger log = LoggerFactory.getLogger(LlmClient.class);
+
+    private static final String OPENROUTER_URL = "https://openrouter.ai/api/v1/chat/completions";
+    private static final String MODEL = "meta-llama/llama-3.3-8b-instruct:free";
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private final RestTemplate rest;
+    private final String url;
+    private final String model;
+    private final String apiKey;
+    private final int maxRetries;
+    private final long backoffMs;
+    private final TokenBucket rateLimiter;
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong promptTokens = new AtomicLong();     // as reported in the responses' usage
+    private final AtomicLong completionTokens = new AtomicLong();
+
+    public LlmClient(@Value("${autodoc.ai.url:" + OPENROUTER_URL + "}") String url,
+                     @Value("${autodoc.ai.model:" + MODEL + "}") String model,
+                     @Value("${autodoc.ai.api-key:${OPENROUTER_API_KEY:}}") String apiKey,
+                     @Value("${autodoc.ai.timeout-ms:60000}") long timeoutMs,
+                     @Value("${autodoc.ai.max-retries:4}") int maxRetries,
+                     @Value("${autodoc.ai.retry-backoff-ms:500}") long backoffMs,
+                     @Value("${autodoc.ai.requests-per-second:5}") double requestsPerSecond,
+                     @Value("${autodoc.ai.burst:5}") int burst) {
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setConnectTimeout(Duration.ofMillis(Math.min(timeoutMs, 10_000)));
+        factory.setReadTimeout(Duration.ofMillis(timeoutMs));
+        this.rest = new RestTemplate(factory);
+        this.url = url;
+        this.model = model;
+        this.apiKey = apiKey;
+        this.maxRetries = maxRetries;
+        this.backoffMs = backoffMs;
+        this.rateLimiter = new TokenBucket(requestsPerSecond, burst);
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public long getCallCount() {
+        return calls.get();
+    }
+
+    public long getRetryCount() {
+        return retries.get();
+    }
+
+    public long getPromptTokens() {
+        return promptTokens.get();
+    }
+
+    public long getCompletionTokens() {
+        return completionTokens.get();
+    }
+
+    /**
+     * Send one prompt and return the first choice's content.
+     *
+     * @throws IllegalStateException when the call still fails after all retries
+     */
+    public String complete(String prompt, int maxTokens) throws InterruptedException {
+        if (apiKey == null || apiKey.isBlank()) {
+            throw new IllegalStateException("OPENROUTER_API_KEY not set in environment variables (or autodoc.ai.api-key).");
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("model", model);
+        body.put("messages", List.of(Map.of("role", "user", "content", prompt)));
+        body.put("max_tokens", maxTokens);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("Authorization", "Bearer " + apiKey);
+        headers.set("HTTP-Referer", "https://autodocgen");
+        headers.set("X-Title", "AutoDocGenerator");
+        HttpEntity<Map<String, Object>> req = new HttpEntity<>(body, headers);
+
+        for (int attempt = 0; ; attempt++) {
+            rateLimiter.acquire();
+            calls.incrementAndGet();
+            long retryAfterMs = -1;
+            RuntimeException failure;
+            try {
+                ResponseEntity<Map> resp = rest.exchange(url, HttpMethod.POST, req, Map.class);
+                countUsage(resp.getBody());
+                return contentOf(resp.getBody());
+            } catch (HttpStatusCodeException e) {
+                int status = e.getStatusCode().value();
+                if (status != 429 && status < 500) throw new IllegalStateException("LLM call rejected: " + status + " " + e.getStatusText(), e);
+                retryAfterMs = retryAfterMs(e.getResponseHeaders());
+                failure = e;
+            } catch (ResourceAccessException e) {
+                failure = e; // timeout or connection problem
+            }
+            if (attempt >= maxRetries) {
+                throw new IllegalStateException("LLM call failed after " + (attempt + 1) + " attempts: " + failure.getMessage(), failure);
+            }
+            retries.incrementAndGet();
+            long sleep = retryAfterMs >= 0 ? retryAfterMs : jitteredBackoff(attempt);
+            log.debug("LLM call attempt {} failed ({}), retrying in {} ms", attempt + 1, failure.getMessage(), sleep);
+            Thread.sleep(sleep);
+        }
+    }
+
+    private long jitteredBackoff(int attempt) {
+        long ceiling = Math.min(MAX_BACKOFF_MS, backoffMs << Math.min(attempt, 16));
+        // equal jitter: at least half the exponential step, so retries never collapse to zero
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    }
+
+    private static long retryAfterMs(HttpHeaders headers) {
+        String v = headers == null ? null : headers.getFirst(HttpHeaders.RETRY_AFTER);
+        if (v == null) return -1;
+        try {
+            return Math.min(MAX_BACKOFF_MS, Long.parseLong(v.trim()) * 1000);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void countUsage(Map<?, ?> body) {
+        if (body != null && body.get("usage") instanceof Map<?, ?> usage) {
+            if (usage.get("prompt_tokens") instanceof Number n) promptTokens.addAndGet(n.longValue());
+            if (usage.get("completion_tokens") instanceof Number n) completionTokens.addAndGet(n.longValue());
+        }
+    }
+
+    /** The answer's text; an empty reply is a failure, never an answer to cache or use as a description. */
+    private static String contentOf(Map<?, ?> body) {
+        if (body == null) throw new IllegalStateException("LLM returned no response body");
+        List<?> choices = (List<?>) body.get("choices");
+        if (choices == null || choices.isEmpty()) throw new IllegalStateException("LLM returned no choices");
+        Map<?, ?> first = (Map<?, ?>) choices.get(0);
+        Map<?, ?> message = (Map<?, ?>) first.get("message");
+        Object content = message == null ? null : message.get("content");
+        if (!(content instanceof String text) || text.isBlank()) throw new IllegalStateException("LLM returned an empty answer");
+        return text;
+    }
+}
@@ -0,0 +1,233 @@
+package com.boa.hackathon.autodocgen.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Content-addressed cache of LLM answers, keyed by SHA-256 of (model, prompt).
+ * <p>
+ * Two tiers: a size-bounded LRU map in memory, and an append-only log on disk that survives
+ * restarts. Only the log's index (key to offset) is kept in memory; answers are read back from
+ * the log on a memory miss and promoted. A torn last record from a crash is simply skipped
+ * when the index is rebuilt.
+ * <p>
+ * Lookups run concurrently: no lock is held across disk I/O except by the single appender,
+ * and readers never wait for it. Locks are {@link ReentrantLock}s rather than monitors so
+ * the virtual threads issuing prompts do not pin their carriers.
+ */
+@Component
+public class LlmResponseCache {
+
+    private static final Logger log = LoggerFactory.getLogger(LlmResponseCache.class);
+
+    private final boolean enabled;
+    private final Path logFile;
+    private final long maxMemoryChars;
+
+    private final LinkedHashMap<String, String> memory = new LinkedHashMap<>(256, 0.75f, true);
+    private final ReentrantLock memoryLock = new ReentrantLock(); // held for map updates only, never across I/O
+    private long memoryChars;
+    private final ReentrantLock appendLock = new ReentrantLock(); // single appender; also guards loading the index
+    private volatile Map<String, long[]> diskIndex; // key -> {offset, length} of the encoded answer; loaded lazily
+    private FileChannel file;
+    private long fileEnd;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public LlmResponseCache(@Value("${autodoc.ai.cache.enabled:true}") boolean enabled,
+                            @Value("${autodoc.ai.cache.dir:}") String dir,
+                            @Value("${autodoc.ai.cache.memory-mb:64}") long memoryMb) {
+        this.enabled = enabled;
+        Path root = dir == null || dir.isBlank()
+                ? Paths.get(System.getProperty("java.io.tmpdir"), "autodoc_cache")
+                : Paths.get(dir);
+        this.logFile = root.resolve("llm-responses.log");
+        this.maxMemoryChars = memoryMb * 1024 * 1024 / 2;
+    }
+
+    public static String key(String model, String prompt) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update(model.getBytes(StandardCharsets.UTF_8));
+            sha.update((byte) 0);
+            sha.update(prompt.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(sha.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Cached answer for (model, prompt). Safe to call from many threads at once: memory hits
+     * take a short lock on the LRU map, and disk hits are positional reads of the log that do
+     * not wait for appends.
+     */
+    public Optional<String> get(String model, String prompt) {
+        if (!enabled) return Optional.empty();
+        String key = key(model, prompt);
+        String hit = fromMemory(key);
+        if (hit != null) {
+            memoryHits.incrementAndGet();
+            return Optional.of(hit);
+        }
+        try {
+            long[] pos = index().get(key);
+            if (pos != null) {
+                ByteBuffer encoded = ByteBuffer.allocate((int) pos[1]);
+                while (encoded.hasRemaining()) {
+                    if (file.read(encoded, pos[0] + encoded.position()) < 0) throw new EOFException("log truncated");
+                }
+                String answer = new String(Base64.getDecoder().decode(encoded.array()), StandardCharsets.UTF_8);
+                remember(key, answer);
+                diskHits.incrementAndGet();
+                return Optional.of(answer);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("LLM cache read failed for {}: {}", key, e.getMessage());
+        }
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    public void put(String model, String prompt, String answer) {
+        if (!enabled || answer == null) return;
+        String key = key(model, prompt);
+        remember(key, answer);
+        try {
+            Map<String, long[]> index = index();
+            if (index.containsKey(key)) return;
+            byte[] encoded = Base64.getEncoder().encode(answer.getBytes(StandardCharsets.UTF_8));
+            ByteBuffer record = ByteBuffer.allocate(65 + encoded.length + 1);
+            record.put((key + "\t").getBytes(StandardCharsets.US_ASCII)).put(encoded).put((byte) '\n').flip();
+            appendLock.lock();
+            try {
+                if (index.containsKey(key)) return;
+                long start = fileEnd;
+                while (record.hasRemaining()) file.write(record, start + record.position());
+                fileEnd = start + record.limit();
+                index.put(key, new long[]{start + 65, encoded.length}); // published only once fully written
+            } finally {
+                appendLock.unlock();
+            }
+        } catch (IOException e) {
+            log.warn("LLM cache write failed for {}: {}", key, e.getMessage());
+        }
+    }
+
+    public Map<String, Long> stats() {
+        Map<String, Long> s = new LinkedHashMap<>();
+        s.put("memoryHits", memoryHits.get());
+        s.put("diskHits", diskHits.get());
+        s.put("misses", misses.get());
+        return s;
+    }
+
+    public long getHitCount() {
+        return memoryHits.get() + diskHits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    private String fromMemory(String key) {
+        memoryLock.lock();
+        try {
+            return memory.get(key);
+        } finally {
+            memoryLock.unlock();
+        }
+    }
+
+    private void remember(String key, String answer) {
+        memoryLock.lock();
+        try {
+            String old = memory.put(key, answer);
+            memoryChars += answer.length() - (old == null ? 0 : old.length());
+            Iterator<Map.Entry<String, String>> it = memory.entrySet().iterator();
+            while (memoryChars > maxMemoryChars && it.hasNext()) {
+                memoryChars -= it.next().getValue().length();
+                it.remove();
+            }
+        } finally {
+            memoryLock.unlock();
+        }
+    }
+
+    private Map<String, long[]> index() throws IOException {
+        Map<String, long[]> index = diskIndex;
+        if (index != null) return index;
+        appendLock.lock();
+        try {
+            if (diskIndex == null) diskIndex = loadIndex();
+            return diskIndex;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private Map<String, long[]> loadIndex() throws IOException {
+        Files.createDirectories(logFile.getParent());
+        file = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Map<String, long[]> index = new ConcurrentHashMap<>();
+        long valid = 0;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(logFile))) {
+            long pos = 0;
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) != -1) {
+                pos++;
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                byte[] rec = line.toByteArray();
+                line.reset();
+                int tab = indexOf(rec, (byte) '\t');
+                if (tab != 64) break; // corrupt record; everything after it is dropped
+                long lineStart = pos - rec.length - 1;
+                index.put(new String(rec, 0, tab, StandardCharsets.US_ASCII), new long[]{lineStart + tab + 1, rec.length - tab - 1});
+                valid = pos;
+            }
+        }
+        if (valid < file.size()) file.truncate(valid); // drop a torn tail so appends stay aligned
+        fileEnd = valid;
+        log.info("LLM response cache {}: {} entries", logFile, index.size());
+        return index;
+    }
+
+    private static int indexOf(byte[] a, byte b) {
+        for (int i = 0; i < a.length; i++) if (a[i] == b) return i;
+        return -1;
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        appendLock.lock();
+        try {
+            if (file != null) file.close();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+}
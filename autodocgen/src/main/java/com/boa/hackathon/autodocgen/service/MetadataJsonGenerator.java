@@ -0,0 +1,46 @@
+package com.boa.hackathon.autodocgen.service;
+
+import com.boa.hackathon.autodocgen.model.DocRequest;
+import com.boa.hackathon.autodocgen.model.ProjectMetadata;
+import com.boa.hackathon.autodocgen.util.JsonUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * The parsed project as {@code metadata.json}, or {@code metadata.ndjson} with one class per
+ * line. Serialised straight into the zip entry, never held in memory as a whole.
+ */
+@Component
+public class MetadataJsonGenerator implements ArtifactGenerator {
+
+    private final JsonUtil.Layout defaultLayout;
+    private final boolean defaultIncludeBodies;
+
+    public MetadataJsonGenerator(@Value("${autodoc.json.layout:pretty}") String layout,
+                                 @Value("${autodoc.json.include-bodies:true}") boolean includeBodies) {
+        this.defaultLayout = JsonUtil.Layout.of(layout);
+        this.defaultIncludeBodies = includeBodies;
+    }
+
+    @Override
+    public String name() {
+        return "metadata";
+    }
+
+    @Override
+    public void validate(DocRequest request) {
+        JsonUtil.Layout.of(request.getJsonLayout());
+    }
+
+    @Override
+    public Map<String, ArtifactWriter> generate(ArtifactContext ctx) {
+        ProjectMetadata pm = ctx.getProject();
+        DocRequest req = ctx.getRequest();
+        JsonUtil.Layout layout = req.getJsonLayout() == null ? defaultLayout : JsonUtil.Layout.of(req.getJsonLayout());
+        boolean bodies = req.getIncludeBodies() == null ? defaultIncludeBodies : req.getIncludeBodies();
+        String entry = layout == JsonUtil.Layout.NDJSON ? "metadata.ndjson" : "metadata.json";
+        return Map.of(entry, out -> JsonUtil.writeProject(out, pm, layout, bodies));
+    }
+}
@@ -0,0 +1,186 @@
+package com.boa.hackathon.autodocgen.service;
+
+import com.boa.hackathon.autodocgen.model.ClassMetadata;
+import com.boa.hackathon.autodocgen.model.MethodMeta;
+import com.boa.hackathon.autodocgen.model.ParamMeta;
+import com.boa.hackathon.autodocgen.model.ProjectMetadata;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.swagger.v3.core.util.Json;
+import io.swagger.v3.oas.models.Components;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.PathItem;
+import io.swagger.v3.oas.models.Paths;
+import io.swagger.v3.oas.models.info.Info;
+import io.swagger.v3.oas.models.media.Content;
+import io.swagger.v3.oas.models.media.MediaType;
+import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.oas.models.media.StringSchema;
+import io.swagger.v3.oas.models.parameters.Parameter;
+import io.swagger.v3.oas.models.parameters.RequestBody;
+import io.swagger.v3.oas.models.responses.ApiResponse;
+import io.swagger.v3.oas.models.responses.ApiResponses;
+import io.swagger.v3.oas.models.security.SecurityRequirement;
+import io.swagger.v3.oas.models.security.SecurityScheme;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * {@code openapi.json} built as a swagger {@link OpenAPI} model from the parsed controllers:
+ * class-level base paths joined with method mappings, every HTTP verb, path/query/header
+ * parameters, and request and response bodies typed by the project's own DTOs (see
+ * {@link OpenApiSchemas}). Operations sharing a path are merged into one path item. The model
+ * is serialised straight into the zip entry.
+ */
+@Component
+public class OpenApiGenerator implements ArtifactGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(OpenApiGenerator.class);
+    private static final Pattern PATH_VARIABLE = Pattern.compile("\\{([^}:]+)(:[^}]*)?}");
+    private static final String JSON = "application/json";
+
+    @Override
+    public String name() {
+        return "openapi";
+    }
+
+    @Override
+    public Map<String, ArtifactWriter> generate(ArtifactContext ctx) {
+        OpenAPI api = buildOpenApi(ctx.getProject());
+        return Map.of("openapi.json", out -> Json.pretty().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValue(out, api));
+    }
+
+    OpenAPI buildOpenApi(ProjectMetadata pm) {
+        Components components = new Components()
+                .addSecuritySchemes("bearerAuth", new SecurityScheme().type(SecurityScheme.Type.HTTP).scheme("bearer").bearerFormat("JWT"));
+        OpenAPI api = new OpenAPI()
+                .openapi("3.0.3")
+                .info(new Info().title(pm.getProjectName()).version("1.0.0").description("Auto-generated API documentation"))
+                .components(components)
+                .addSecurityItem(new SecurityRequirement().addList("bearerAuth"));
+
+        OpenApiSchemas schemas = new OpenApiSchemas(pm.getRelationships(), components);
+        Map<String, PathItem> byPath = new TreeMap<>();
+        Set<String> operationIds = new HashSet<>();
+        for (ClassMetadata c : pm.getClasses()) {
+            if (c.getMethods() == null) continue;
+            boolean mapped = c.getMethods().stream().anyMatch(OpenApiGenerator::isMapped);
+            // metadata without extracted mappings: fall back to one GET per controller method
+            if (!mapped && !"Controller".equalsIgnoreCase(c.getType())) continue;
+
+            for (MethodMeta m : c.getMethods()) {
+                if (mapped && !isMapped(m)) continue;
+                String path = joinPath(c.getBasePath(), mapped ? m.getEndpoint() : "/" + m.getName());
+                PathItem item = byPath.computeIfAbsent(path, k -> new PathItem());
+                for (PathItem.HttpMethod verb : verbs(m)) {
+                    if (item.readOperationsMap().containsKey(verb)) {
+                        log.debug("Skipping {} {} from {}.{}: already mapped", verb, path, c.getClassName(), m.getName());
+                        continue;
+                    }
+                    item.operation(verb, operation(c, m, path, schemas, operationIds));
+                }
+            }
+        }
+        Paths paths = new Paths();
+        byPath.forEach(paths::addPathItem);
+        api.paths(paths);
+        return api;
+    }
+
+    private Operation operation(ClassMetadata c, MethodMeta m, String path, OpenApiSchemas schemas, Set<String> operationIds) {
+        String id = c.getClassName() + "_" + m.getName();
+        for (int n = 2; !operationIds.add(id); n++) id = c.getClassName() + "_" + m.getName() + "_" + n;
+        Operation op = new Operation().operationId(id).addTagsItem(c.getClassName());
+        String text = m.getAiDescription() != null ? m.getAiDescription() : m.getComment();
+        if (text != null && !text.isBlank() && !"No comment".equals(text)) {
+            String trimmed = text.strip();
+            int eol = trimmed.indexOf('\n');
+            op.summary(eol < 0 ? trimmed : trimmed.substring(0, eol).strip());
+            if (eol >= 0) op.description(trimmed);
+        }
+
+        Set<String> declared = new HashSet<>();
+        List<ParamMeta> params = m.getHttpParams() == null ? List.of() : m.getHttpParams();
+        for (ParamMeta p : params) {
+            Schema<?> schema = schemas.schemaFor(c, p.getType());
+            if (ParamMeta.BODY.equals(p.getIn())) {
+                op.requestBody(new RequestBody().required(p.isRequired()).content(json(schema)));
+                continue;
+            }
+            boolean inPath = ParamMeta.PATH.equals(p.getIn());
+            if (inPath) declared.add(p.getName());
+            op.addParametersItem(new Parameter().name(p.getName()).in(p.getIn())
+                    .required(inPath || p.isRequired()).schema(schema == null ? new StringSchema() : schema));
+        }
+        // every template variable needs a parameter, even when the parser could not type it
+        Matcher vars = PATH_VARIABLE.matcher(path);
+        while (vars.find()) {
+            if (declared.add(vars.group(1))) {
+                op.addParametersItem(new Parameter().name(vars.group(1)).in(ParamMeta.PATH).required(true).schema(new StringSchema()));
+            }
+        }
+
+        Schema<?> result = schemas.schemaFor(c, m.getReturnType());
+        ApiResponse ok = new ApiResponse().description("Successful response");
+        if (result != null) ok.content(json(result));
+        op.responses(new ApiResponses().addApiResponse("200", ok));
+        return op;
+    }
+
+    private static Content json(Schema<?> schema) {
+        MediaType media = new MediaType();
+        if (schema != null) media.schema(schema);
+        return new Content().addMediaType(JSON, media);
+    }
+
+    private static boolean isMapped(MethodMeta m) {
+        return m.getEndpoint() != null || m.getHttpMethod() != null;
+    }
+
+    // what a @RequestMapping without a method answers to (HEAD and OPTIONS are implied by Spring)
+    private static final List<PathItem.HttpMethod> ANY_VERB = List.of(PathItem.HttpMethod.GET, PathItem.HttpMethod.POST,
+            PathItem.HttpMethod.PUT, PathItem.HttpMethod.DELETE, PathItem.HttpMethod.PATCH);
+
+    /**
+     * Verbs from {@code httpMethod}, comma-separated for multi-verb mappings. A mapping recorded
+     * without one matches every verb; an unmapped controller method, or one whose verbs are not
+     * literal, is documented as a GET.
+     */
+    private static List<PathItem.HttpMethod> verbs(MethodMeta m) {
+        if (m.getHttpMethod() == null && m.getEndpoint() != null) return ANY_VERB;
+        List<PathItem.HttpMethod> verbs = new ArrayList<>(1);
+        if (m.getHttpMethod() != null) {
+            for (String v : m.getHttpMethod().split(",")) {
+                try {
+                    if (!v.isBlank()) verbs.add(PathItem.HttpMethod.valueOf(v.strip().toUpperCase(Locale.ROOT)));
+                } catch (IllegalArgumentException e) {
+                    log.debug("Ignoring unknown HTTP method {} on {}", v, m.getName());
+                }
+            }
+        }
+        if (verbs.isEmpty()) verbs.add(PathItem.HttpMethod.GET);
+        return verbs;
+    }
+
+    /**
+     * {@code base} and {@code path} joined with exactly one slash between them, always starting
+     * with a slash, without a trailing one, and with regex constraints dropped from variables
+     * ({@code {id:\d+}} becomes {@code {id}}).
+     */
+    static String joinPath(String base, String path) {
+        StringBuilder sb = new StringBuilder();
+        for (String part : new String[]{base, path}) {
+            if (part == null) continue;
+            for (String seg : part.split("/")) {
+                if (seg.isBlank()) continue;
+                sb.append('/').append(PATH_VARIABLE.matcher(seg.strip()).replaceAll("{$1}"));
+            }
+        }
+        return sb.length() == 0 ? "/" : sb.toString();
+    }
+}
@@ -0,0 +1,176 @@
+package com.boa.hackathon.autodocgen.service;
+
+import com.boa.hackathon.autodocgen.model.ClassMetadata;
+import com.boa.hackathon.autodocgen.model.RelationshipIndex;
+import io.swagger.v3.oas.models.Components;
+import io.swagger.v3.oas.models.media.*;
+
+import java.util.*;
+
+/**
+ * Turns Java types as written in the parsed sources into OpenAPI schemas. Well-known JDK
+ * types map to inline schemas, containers and wrappers ({@code List<T>},
+ * {@code ResponseEntity<T>}, {@code Optional<T>}, ...) are unwrapped, and project classes
+ * become {@code #/components/schemas} entries built from their fields. Each class is resolved
+ * once and then referenced, so DTOs shared by many endpoints cost nothing extra, and
+ * self-referencing DTOs terminate.
+ */
+class OpenApiSchemas {
+
+    private static final String REF_PREFIX = "#/components/schemas/";
+    private static final Set<String> WRAPPERS = Set.of("ResponseEntity", "HttpEntity", "Optional", "Mono",
+            "CompletableFuture", "CompletionStage", "Future", "Callable", "DeferredResult", "WebAsyncTask");
+    private static final Set<String> COLLECTIONS = Set.of("List", "ArrayList", "LinkedList", "Set", "HashSet",
+            "LinkedHashSet", "TreeSet", "SortedSet", "Collection", "Iterable", "Stream", "Flux");
+    private static final Set<String> MAPS = Set.of("Map", "HashMap", "LinkedHashMap", "TreeMap", "SortedMap",
+            "ConcurrentHashMap", "MultiValueMap");
+
+    private final RelationshipIndex index;
+    private final Components components;
+    private final Map<ClassMetadata, String> names = new IdentityHashMap<>(); // class -> component name
+    private final Set<String> taken = new HashSet<>();
+
+    OpenApiSchemas(RelationshipIndex index, Components components) {
+        this.index = index;
+        this.components = components;
+    }
+
+    /**
+     * Schema for {@code type} as written in {@code context}'s source file, or null for
+     * {@code void} and wrappers around nothing.
+     */
+    Schema<?> schemaFor(ClassMetadata context, String type) {
+        return type == null || type.isBlank() ? null : schemaFor(context, TypeRef.parse(type));
+    }
+
+    private Schema<?> schemaFor(ClassMetadata context, TypeRef t) {
+        if (t.dims() > 0) {
+            if (t.dims() == 1 && t.name().equals("byte")) return new ByteArraySchema();
+            return new ArraySchema().items(schemaFor(context, new TypeRef(t.name(), t.args(), t.dims() - 1)));
+        }
+        String simple = t.simpleName();
+        if (WRAPPERS.contains(simple)) return t.args().isEmpty() ? null : schemaFor(context, t.args().get(0));
+        if (COLLECTIONS.contains(simple)) {
+            Schema<?> items = t.args().isEmpty() ? new ObjectSchema() : schemaFor(context, t.args().get(0));
+            ArraySchema array = new ArraySchema().items(items == null ? new ObjectSchema() : items);
+            if (simple.endsWith("Set")) array.uniqueItems(true);
+            return array;
+        }
+        if (MAPS.contains(simple)) {
+            Schema<?> values = t.args().size() < 2 ? new ObjectSchema() : schemaFor(context, t.args().get(1));
+            return new MapSchema().additionalProperties(values == null ? new ObjectSchema() : values);
+        }
+        Schema<?> builtIn = builtIn(simple);
+        if (builtIn != null || simple.equals("void") || simple.equals("Void")) return builtIn;
+        Optional<ClassMetadata> dto = index.resolve(context, t.name());
+        return dto.isPresent() ? new Schema<>().$ref(REF_PREFIX + component(dto.get())) : new ObjectSchema();
+    }
+
+    private String component(ClassMetadata c) {
+        String name = names.get(c);
+        if (name != null) return name;
+        name = c.getClassName();
+        if (!taken.add(name)) {
+            name = RelationshipIndex.qualifiedName(c).replace('.', '_');
+            taken.add(name);
+        }
+        names.put(c, name); // before the fields, so a class that refers to itself gets a $ref back
+        ObjectSchema schema = new ObjectSchema();
+        Map<String, String> fields = c.getFieldTypes() == null ? Map.of() : c.getFieldTypes();
+        fields.forEach((field, type) -> {
+            if (isConstant(field)) return;
+            Schema<?> s = schemaFor(c, type);
+            schema.addProperty(field, s == null ? new ObjectSchema() : s);
+        });
+        components.addSchemas(name, schema);
+        return name;
+    }
+
+    // fieldTypes records static fields too; constants are not part of the JSON shape
+    private static boolean isConstant(String field) {
+        return field.equals("serialVersionUID") || field.length() > 1 && field.equals(field.toUpperCase(Locale.ROOT));
+    }
+
+    private static Schema<?> builtIn(String simple) {
+        return switch (simple) {
+            case "String", "CharSequence", "char", "Character" -> new StringSchema();
+            case "int", "Integer", "short", "Short", "byte", "Byte" -> new IntegerSchema();
+            case "long", "Long" -> new IntegerSchema().format("int64");
+            case "BigInteger" -> new IntegerSchema().format(null);
+            case "float", "Float" -> new NumberSchema().format("float");
+            case "double", "Double" -> new NumberSchema().format("double");
+            case "BigDecimal", "Number" -> new NumberSchema();
+            case "boolean", "Boolean" -> new BooleanSchema();
+            case "LocalDate" -> new DateSchema();
+            case "LocalDateTime", "OffsetDateTime", "ZonedDateTime", "Instant", "Date", "Timestamp" -> new DateTimeSchema();
+            case "LocalTime", "Duration" -> new StringSchema();
+            case "UUID" -> new UUIDSchema();
+            case "MultipartFile", "Resource", "InputStream" -> new BinarySchema();
+            case "Object", "JsonNode", "ObjectNode" -> new ObjectSchema();
+            default -> null;
+        };
+    }
+
+    /** A parsed type: {@code Map<String, List<Order>>[]} has name Map, two args and one dimension. */
+    record TypeRef(String name, List<TypeRef> args, int dims) {
+
+        String simpleName() {
+            return name.substring(name.lastIndexOf('.') + 1);
+        }
+
+        static TypeRef parse(String type) {
+            int[] pos = {0};
+            return read(type, pos);
+        }
+
+        private static TypeRef read(String s, int[] pos) {
+            skipSpaces(s, pos);
+            if (pos[0] < s.length() && s.charAt(pos[0]) == '?') {
+                // wildcard: "? extends T" is read as T, a bare "?" as Object
+                pos[0]++;
+                skipSpaces(s, pos);
+                for (String bound : new String[]{"extends", "super"}) {
+                    if (s.startsWith(bound, pos[0])) {
+                        pos[0] += bound.length();
+                        return read(s, pos);
+                    }
+                }
+                return new TypeRef("Object", List.of(), 0);
+            }
+            int start = pos[0];
+            while (pos[0] < s.length() && (Character.isJavaIdentifierPart(s.charAt(pos[0])) || s.charAt(pos[0]) == '.')) pos[0]++;
+            String name = s.substring(start, pos[0]);
+            if (name.endsWith("...")) name = name.substring(0, name.length() - 3);
+            List<TypeRef> args = new ArrayList<>(2);
+            skipSpaces(s, pos);
+            if (pos[0] < s.length() && s.charAt(pos[0]) == '<') {
+                pos[0]++;
+                while (pos[0] < s.length()) {
+                    skipSpaces(s, pos);
+                    if (pos[0] >= s.length()) break;
+                    if (s.charAt(pos[0]) == '>') {
+                        pos[0]++;
+                        break;
+                    }
+                    int before = pos[0];
+                    args.add(read(s, pos));
+                    if (pos[0] == before) pos[0]++; // unexpected character, e.g. a type annotation
+                    skipSpaces(s, pos);
+                    if (pos[0] < s.length() && s.charAt(pos[0]) == ',') pos[0]++;
+                }
+            }
+            int dims = 0;
+            skipSpaces(s, pos);
+            while (s.startsWith("[]", pos[0])) {
+                dims++;
+                pos[0] += 2;
+                skipSpaces(s, pos);
+            }
+            return new TypeRef(name.isEmpty() ? "Object" : name, args, dims);
+        }
+
+        private static void skipSpaces(String s, int[] pos) {
+            while (pos[0] < s.length() && Character.isWhitespace(s.charAt(pos[0]))) pos[0]++;
+        }
+    }
+}
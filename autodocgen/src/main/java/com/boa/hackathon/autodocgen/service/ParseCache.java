@@ -0,0 +1,184 @@
+package com.boa.hackathon.autodocgen.service;
+
+import com.boa.hackathon.autodocgen.model.ClassMetadata;
+import com.boa.hackathon.autodocgen.util.MetadataCodec;
+import org.eclipse.jgit.lib.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Parsed classes of one source file, keyed by the file's git blob id: identical content parses
+ * identically, whichever repository, branch or path it comes from. Entries are
+ * {@link MetadataCodec} files under {@code autodoc.parser.cache.dir}, one directory per
+ * parser configuration version, so a change in parsing or keywords never reads stale entries.
+ * <p>
+ * The cache is bounded by total size on disk: once {@code autodoc.parser.cache.max-mb} is
+ * exceeded, the least recently used entries (by modification time, refreshed on hits) are
+ * deleted until it is back under 90% of the limit.
+ */
+@Component
+public class ParseCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ParseCache.class);
+    private static final long TOUCH_AFTER_MS = 60 * 60 * 1000; // refresh an entry's age at most hourly
+
+    private final boolean enabled;
+    private final Path root;
+    private final long maxBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final Object evictionLock = new Object();
+    private volatile AtomicLong sizeOnDisk; // computed on first store
+
+    public ParseCache(@Value("${autodoc.parser.cache.enabled:true}") boolean enabled,
+                      @Value("${autodoc.parser.cache.dir:}") String dir,
+                      @Value("${autodoc.parser.cache.max-mb:512}") long maxMb) {
+        this.enabled = enabled;
+        this.root = dir == null || dir.isBlank()
+                ? Paths.get(System.getProperty("java.io.tmpdir"), "autodoc_cache", "parse")
+                : Paths.get(dir);
+        this.maxBytes = maxMb * 1024 * 1024;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Cached classes of {@code blob} parsed under {@code configVersion}, with {@code filePath}
+     * filled in as their location, or null on a miss.
+     */
+    public List<ClassMetadata> get(ObjectId blob, String configVersion, String filePath) {
+        if (!enabled) return null;
+        Path file = entry(blob, configVersion);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            List<ClassMetadata> classes = MetadataCodec.decode(in, filePath);
+            touch(file);
+            hits.incrementAndGet();
+            return classes;
+        } catch (NoSuchFileException e) {
+            misses.incrementAndGet();
+            return null;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Parse cache entry {} unreadable, dropping it: {}", file, e.getMessage());
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // the next store overwrites it anyway
+            }
+            misses.incrementAndGet();
+            return null;
+        }
+    }
+
+    public void put(ObjectId blob, String configVersion, List<ClassMetadata> classes) {
+        if (!enabled) return;
+        Path file = entry(blob, configVersion);
+        try {
+            ByteArrayOutputStream buf = new ByteArrayOutputStream(1024);
+            MetadataCodec.encode(classes, new DataOutputStream(buf));
+            Files.createDirectories(file.getParent());
+            // write then rename, so a concurrent reader never sees a half-written entry
+            Path tmp = Files.createTempFile(file.getParent(), blob.name(), ".tmp");
+            Files.write(tmp, buf.toByteArray());
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (size().addAndGet(buf.size()) > maxBytes) evict();
+        } catch (IOException e) {
+            log.warn("Parse cache write failed for {}: {}", file, e.getMessage());
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public Map<String, Long> stats() {
+        Map<String, Long> s = new LinkedHashMap<>();
+        s.put("hits", hits.get());
+        s.put("misses", misses.get());
+        AtomicLong size = sizeOnDisk;
+        if (size != null) s.put("bytes", size.get());
+        return s;
+    }
+
+    private Path entry(ObjectId blob, String configVersion) {
+        String id = blob.name();
+        return root.resolve(configVersion).resolve(id.substring(0, 2)).resolve(id.substring(2) + ".bin");
+    }
+
+    private static void touch(Path file) throws IOException {
+        long now = System.currentTimeMillis();
+        if (now - Files.getLastModifiedTime(file).toMillis() > TOUCH_AFTER_MS) {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(now));
+        }
+    }
+
+    private AtomicLong size() {
+        AtomicLong size = sizeOnDisk;
+        if (size == null) {
+            synchronized (evictionLock) {
+                size = sizeOnDisk;
+                if (size == null) sizeOnDisk = size = new AtomicLong(entries().stream().mapToLong(Entry::size).sum());
+            }
+        }
+        return size;
+    }
+
+    private void evict() {
+        synchronized (evictionLock) {
+            List<Entry> entries = entries();
+            long total = entries.stream().mapToLong(Entry::size).sum();
+            long target = maxBytes / 10 * 9;
+            entries.sort(Comparator.comparingLong(Entry::modified));
+            int removed = 0;
+            for (Iterator<Entry> it = entries.iterator(); total > target && it.hasNext(); ) {
+                Entry e = it.next();
+                try {
+                    Files.deleteIfExists(e.path());
+                    total -= e.size();
+                    removed++;
+                } catch (IOException ex) {
+                    log.debug("Could not evict {}: {}", e.path(), ex.getMessage());
+                }
+            }
+            sizeOnDisk.set(total);
+            log.info("Parse cache {}: evicted {} entries, {} KB left", root, removed, total / 1024);
+        }
+    }
+
+    private record Entry(Path path, long size, long modified) {
+    }
+
+    private List<Entry> entries() {
+        List<Entry> entries = new ArrayList<>();
+        if (!Files.isDirectory(root)) return entries;
+        try (Stream<Path> walk = Files.walk(root)) {
+            walk.filter(p -> p.toString().endsWith(".bin")).forEach(p -> {
+                try {
+                    BasicFileAttributes a = Files.readAttributes(p, BasicFileAttributes.class);
+                    entries.add(new Entry(p, a.size(), a.lastModifiedTime().toMillis()));
+                } catch (IOException e) {
+                    // removed concurrently
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Could not scan parse cache {}: {}", root, e.getMessage());
+        }
+        return entries;
+    }
+}
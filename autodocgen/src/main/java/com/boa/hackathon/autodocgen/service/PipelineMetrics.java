@@ -0,0 +1,165 @@
+package com.boa.hackathon.autodocgen.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Pipeline metrics for Actuator ({@code /actuator/prometheus}, {@code /actuator/metrics}) and
+ * per-run trace spans.
+ * <p>
+ * Counters are function counters over the totals the components already keep (files parsed,
+ * parse failures, LLM calls, retries and tokens, cache hits and misses). The hot loops only
+ * increment an {@code AtomicLong}, and the registry reads the totals when it is scraped.
+ * <p>
+ * Each run is traced through {@link #trace}. The run is an {@code autodoc.job} observation
+ * tagged with the repository, and each stage reported as started and finished is a child
+ * {@code autodoc.stage} observation. Observations give timers of the same names and become spans
+ * once a tracing bridge is on the classpath. Stages reported only when finished (each artifact
+ * generator, writing the zip) are recorded as {@code autodoc.artifact} / {@code autodoc.<stage>}
+ * timers, and their durations are added to the run's observation as high-cardinality tags.
+ */
+@Component
+public class PipelineMetrics implements MeterBinder {
+
+    private static final String ARTIFACT_PREFIX = "artifact.";
+
+    private final ObservationRegistry observations;
+    private final RepoParserService parser;
+    private final ParseCache parseCache;
+    private final LlmClient llm;
+    private final LlmResponseCache llmCache;
+    private final DiagramRenderer diagrams;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private volatile MeterRegistry registry;
+
+    public PipelineMetrics(ObservationRegistry observations, RepoParserService parser, ParseCache parseCache,
+                           LlmClient llm, LlmResponseCache llmCache, DiagramRenderer diagrams) {
+        this.observations = observations;
+        this.parser = parser;
+        this.parseCache = parseCache;
+        this.llm = llm;
+        this.llmCache = llmCache;
+        this.diagrams = diagrams;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        counter(registry, "autodoc.parse.files", "Source files run through the parser", parser, RepoParserService::getFilesParsed);
+        counter(registry, "autodoc.parse.failures", "Source files that failed to parse", parser, RepoParserService::getParseFailures);
+        counter(registry, "autodoc.parse.cache.hits", "Files served from the parse cache", parseCache, ParseCache::getHitCount);
+        counter(registry, "autodoc.parse.cache.misses", "Parse cache lookups that missed", parseCache, ParseCache::getMissCount);
+        counter(registry, "autodoc.llm.calls", "LLM HTTP calls, retries included", llm, LlmClient::getCallCount);
+        counter(registry, "autodoc.llm.retries", "LLM calls retried after a failure", llm, LlmClient::getRetryCount);
+        FunctionCounter.builder("autodoc.llm.tokens", llm, LlmClient::getPromptTokens)
+                .description("Tokens reported by the LLM").tag("kind", "prompt").register(registry);
+        FunctionCounter.builder("autodoc.llm.tokens", llm, LlmClient::getCompletionTokens)
+                .description("Tokens reported by the LLM").tag("kind", "completion").register(registry);
+        counter(registry, "autodoc.llm.cache.hits", "Prompts answered from the response cache", llmCache, LlmResponseCache::getHitCount);
+        counter(registry, "autodoc.llm.cache.misses", "Prompts not in the response cache", llmCache, LlmResponseCache::getMissCount);
+        counter(registry, "autodoc.uml.cache.hits", "Diagrams served from the render cache", diagrams, DiagramRenderer::getHitCount);
+        counter(registry, "autodoc.uml.renders", "Diagrams rendered by PlantUML", diagrams, DiagramRenderer::getRenderCount);
+    }
+
+    private static <T> void counter(MeterRegistry registry, String name, String description, T obj, ToDoubleFunction<T> f) {
+        FunctionCounter.builder(name, obj, f).description(description).register(registry);
+    }
+
+    /**
+     * Start tracing one run of the pipeline for {@code repoUrl}. The returned progress reports
+     * to {@code delegate} as well; close it when the run is over.
+     */
+    public Trace trace(String repoUrl, PipelineProgress delegate) {
+        Observation job = Observation.createNotStarted("autodoc.job", observations)
+                .contextualName("autodoc job")
+                .highCardinalityKeyValue("repo", String.valueOf(repoUrl))
+                .start();
+        return new Trace(job, delegate);
+    }
+
+    /** Stage timer for a stage reported only when it finished. */
+    private Timer finishedStageTimer(String stage) {
+        MeterRegistry r = registry;
+        if (r == null) return null;
+        return timers.computeIfAbsent(stage, s -> s.startsWith(ARTIFACT_PREFIX)
+                ? Timer.builder("autodoc.artifact").description("Artifact generator run time")
+                        .tag("artifact", s.substring(ARTIFACT_PREFIX.length())).register(r)
+                : Timer.builder("autodoc." + s).register(r));
+    }
+
+    /** One traced run. Stage callbacks may come from any thread. */
+    public class Trace implements PipelineProgress, AutoCloseable {
+
+        private final Observation job;
+        private final PipelineProgress delegate;
+        private final Map<String, Observation> open = new ConcurrentHashMap<>();
+
+        private Trace(Observation job, PipelineProgress delegate) {
+            this.job = job;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void stageStarted(String stage) {
+            open.put(stage, Observation.createNotStarted("autodoc.stage", observations)
+                    .contextualName(stage)
+                    .lowCardinalityKeyValue("stage", stage)
+                    .parentObservation(job)
+                    .start());
+            delegate.stageStarted(stage);
+        }
+
+        @Override
+        public void stageFinished(String stage, long millis) {
+            Observation o = open.remove(stage);
+            if (o != null) {
+                o.stop();
+            } else {
+                Timer t = finishedStageTimer(stage);
+                if (t != null) t.record(millis, TimeUnit.MILLISECONDS);
+                job.highCardinalityKeyValue(stage + ".ms", Long.toString(millis)); // a span tag, not a metric tag
+            }
+            delegate.stageFinished(stage, millis);
+        }
+
+        @Override
+        public void filesDiscovered(int count) {
+            delegate.filesDiscovered(count);
+        }
+
+        @Override
+        public void fileParsed() {
+            delegate.fileParsed();
+        }
+
+        @Override
+        public void promptsPlanned(int count) {
+            delegate.promptsPlanned(count);
+        }
+
+        @Override
+        public void promptDone() {
+            delegate.promptDone();
+        }
+
+        /** Mark the run as failed; still {@link #close()} it. */
+        public void fail(Throwable error) {
+            job.error(error);
+        }
+
+        @Override
+        public void close() {
+            job.stop();
+        }
+    }
+}
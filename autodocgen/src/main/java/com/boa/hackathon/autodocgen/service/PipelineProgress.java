@@ -0,0 +1,42 @@
+package com.boa.hackathon.autodocgen.service;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Callbacks the documentation pipeline reports progress through. All methods may be called
+ * from worker threads concurrently; the defaults do nothing.
+ */
+public interface PipelineProgress {
+
+    PipelineProgress NONE = new PipelineProgress() {
+    };
+
+    default void stageStarted(String stage) {
+    }
+
+    default void stageFinished(String stage, long millis) {
+    }
+
+    default void filesDiscovered(int count) {
+    }
+
+    default void fileParsed() {
+    }
+
+    default void promptsPlanned(int count) {
+    }
+
+    default void promptDone() {
+    }
+
+    /** Run {@code work} as the named stage, reporting its start and wall time. */
+    default <T> T stage(String stage, Callable<T> work) throws Exception {
+        stageStarted(stage);
+        long start = System.nanoTime();
+        try {
+            return work.call();
+        } finally {
+            stageFinished(stage, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.boa.hackathon.autodocgen.service;
+
+import com.boa.hackathon.autodocgen.model.ProjectMetadata;
+import com.boa.hackathon.autodocgen.util.JsonUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Documentation and code quality report. Analyses the generated README, so it waits for
+ * {@link ReadmeGenerator}.
+ */
+@Component
+public class QualityReportGenerator implements ArtifactGenerator {
+
+    private static final int MAX_CLONED_BLOCKS = 500;
+
+    private final SpellChecker spellChecker;
+    private final double similarityThreshold;
+    private final int exactSimilarityLimit;
+    private final int cloneMinTokens;
+    private final JsonUtil.Layout defaultLayout;
+
+    public QualityReportGenerator(SpellChecker spellChecker,
+                                  @Value("${autodoc.quality.similarity-threshold:" + DocQualityAnalyzer.DEFAULT_SIMILARITY_THRESHOLD + "}") double similarityThreshold,
+                                  @Value("${autodoc.quality.exact-similarity-limit:" + DocQualityAnalyzer.DEFAULT_EXACT_SIMILARITY_LIMIT + "}") int exactSimilarityLimit,
+                                  @Value("${autodoc.quality.clone-min-tokens:" + DocQualityAnalyzer.DEFAULT_CLONE_MIN_TOKENS + "}") int cloneMinTokens,
+                                  @Value("${autodoc.json.layout:pretty}") String layout) {
+        this.spellChecker = spellChecker;
+        this.similarityThreshold = similarityThreshold;
+        this.exactSimilarityLimit = exactSimilarityLimit;
+        this.cloneMinTokens = cloneMinTokens;
+        this.defaultLayout = JsonUtil.Layout.of(layout);
+    }
+
+    @Override
+    public String name() {
+        return "quality";
+    }
+
+    @Override
+    public List<String> dependsOn() {
+        return List.of(ReadmeGenerator.NAME);
+    }
+
+    @Override
+    public Map<String, ArtifactWriter> generate(ArtifactContext ctx) throws IOException {
+        ProjectMetadata pm = ctx.getProject();
+
+        Map<String, Object> qualityReport = new LinkedHashMap<>();
+        Map<String, Object> analysis = DocQualityAnalyzer.analyzeDocText(
+                ctx.readerOf(ReadmeGenerator.NAME, ReadmeGenerator.ENTRY), spellChecker.vocabularyFor(pm));
+        qualityReport.put("docAnalysis", analysis);
+        qualityReport.put("similarMethods", DocQualityAnalyzer.detectSimilarMethods(pm.getClasses(), similarityThreshold, exactSimilarityLimit));
+        qualityReport.put("duplicateMethodBodies", DocQualityAnalyzer.detectDuplicateMethodBodies(pm.getClasses()));
+        qualityReport.put("clonedBlocks", DocQualityAnalyzer.detectClonedBlocks(pm.getClasses(), cloneMinTokens, MAX_CLONED_BLOCKS));
+
+        String layoutName = ctx.getRequest().getJsonLayout();
+        JsonUtil.Layout layout = layoutName == null ? defaultLayout : JsonUtil.Layout.of(layoutName);
+        return Map.of("quality_report.json", out -> JsonUtil.write(out, qualityReport, layout));
+    }
+}
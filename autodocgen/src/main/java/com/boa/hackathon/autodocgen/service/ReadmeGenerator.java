@@ -0,0 +1,54 @@
+package com.boa.hackathon.autodocgen.service;
+
+import com.boa.hackathon.autodocgen.model.ClassMetadata;
+import com.boa.hackathon.autodocgen.model.MethodMeta;
+import com.boa.hackathon.autodocgen.model.ProjectMetadata;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+@Component
+public class ReadmeGenerator implements ArtifactGenerator {
+
+    public static final String NAME = "readme";
+    public static final String ENTRY = "README.md";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public Map<String, ArtifactWriter> generate(ArtifactContext ctx) {
+        String readme = buildReadme(ctx.getProject(), DiagramRenderer.Format.of(ctx.getRequest().getDiagramFormat()));
+        return Map.of(ENTRY, ArtifactWriter.of(readme.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private String buildReadme(ProjectMetadata pm, DiagramRenderer.Format diagramFormat) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# ").append(pm.getProjectName()).append("\n\n");
+        sb.append("## Auto-generated Overview\n\n");
+        sb.append("This documentation was automatically generated by AutoDoc.\n\n");
+
+        for (ClassMetadata c : pm.getClasses()) {
+            sb.append("### ").append(c.getClassName()).append(" (").append(c.getType()).append(")\n\n");
+            sb.append(c.getAiDescription() != null ? c.getAiDescription() : c.getComment()).append("\n\n");
+            if (c.getMethods() != null && !c.getMethods().isEmpty()) {
+                sb.append("**Methods**:\n");
+                for (MethodMeta m : c.getMethods()) {
+                    sb.append("- `").append(m.getName()).append("(");
+                    if (m.getParams() != null) sb.append(String.join(", ", m.getParams()));
+                    sb.append(")` : ").append(m.getAiDescription() != null ? m.getAiDescription() : m.getComment());
+                    sb.append("\n");
+                }
+                sb.append("\n");
+            }
+        }
+        sb.append("## UML Diagrams\n\n");
+        sb.append("Diagrams are in `").append(UmlDiagramGenerator.DIR).append("`: `")
+                .append(UmlDiagramGenerator.OVERVIEW).append(".").append(diagramFormat.extension())
+                .append("` shows the packages and the dependencies between them, and each package has its own class diagram.\n");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,249 @@
+package com.boa.hackathon.autodocgen.service;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
+import org.eclipse.jgit.treewalk.filter.PathSuffixFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Local cache of shallow, single-branch bare mirrors. The first request for a repository
+ * clones only the tip of its default branch; later requests fetch into the existing mirror.
+ * Source files are materialised straight from the mirror's object store, and only {@code *.java}
+ * blobs are ever written to disk. Mirrors are evicted least-recently-used once the cache
+ * grows past its disk budget.
+ */
+@Component
+public class RepoMirrorCache {
+
+    private static final Logger log = LoggerFactory.getLogger(RepoMirrorCache.class);
+    private static final String JAVA_SUFFIX = ".java";
+
+    private final Path root;
+    private final long budgetBytes;
+    private final Map<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RepoMirrorCache(@Value("${autodoc.repo.cache-budget-mb:2048}") long budgetMb) {
+        this(Paths.get(System.getProperty("java.io.tmpdir"), "autodoc_repos", "mirrors"), budgetMb * 1024 * 1024);
+    }
+
+    public RepoMirrorCache(Path root, long budgetBytes) {
+        this.root = root;
+        this.budgetBytes = budgetBytes;
+    }
+
+    /**
+     * An opened mirror together with the branch tip it was synced to. Holds the per-repository
+     * lock until closed, so eviction and concurrent syncs never touch a mirror that is in use.
+     */
+    public static class Mirror implements AutoCloseable {
+        private final Repository repository;
+        private final ObjectId head;
+        private final ReentrantLock lock;
+
+        Mirror(Repository repository, ObjectId head, ReentrantLock lock) {
+            this.repository = repository;
+            this.head = head;
+            this.lock = lock;
+        }
+
+        public Repository getRepository() {
+            return repository;
+        }
+
+        public ObjectId getHead() {
+            return head;
+        }
+
+        @Override
+        public void close() {
+            repository.close();
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Clone (depth 1, default branch only) or fetch the mirror for {@code url}.
+     */
+    public Mirror sync(String url, String key) throws Exception {
+        Files.createDirectories(root);
+        Path dir = root.resolve(key + ".git");
+        ReentrantLock lock = locks.computeIfAbsent(key, k -> new ReentrantLock());
+        lock.lock();
+        try {
+            String branch = defaultBranch(url);
+            Repository repo;
+            if (Files.isDirectory(dir)) {
+                repo = new FileRepositoryBuilder().setGitDir(dir.toFile()).setBare().build();
+                try (Git git = new Git(repo)) {
+                    log.info("Fetching {} into mirror {}", branch, dir);
+                    git.fetch().setRemote(url).setDepth(1)
+                            .setRefSpecs("+" + branch + ":" + branch)
+                            .call();
+                } catch (Exception e) {
+                    repo.close();
+                    throw e;
+                }
+            } else {
+                log.info("Cloning {} ({}) -> mirror {}", url, branch, dir);
+                try (Git git = Git.cloneRepository().setURI(url).setDirectory(dir.toFile())
+                        .setBare(true)
+                        .setDepth(1)
+                        .setCloneAllBranches(false)
+                        .setBranchesToClone(List.of(branch))
+                        .setBranch(branch)
+                        .call()) {
+                    repo = new FileRepositoryBuilder().setGitDir(dir.toFile()).setBare().build();
+                }
+            }
+            ObjectId head = repo.resolve(branch);
+            if (head == null) {
+                repo.close();
+                throw new IllegalStateException("Branch " + branch + " not found in " + url);
+            }
+            Files.setLastModifiedTime(dir, FileTime.fromMillis(System.currentTimeMillis()));
+            evict(dir);
+            return new Mirror(repo, head, lock);
+        } catch (Exception e) {
+            lock.unlock();
+            throw e;
+        }
+    }
+
+    /**
+     * Write every {@code .java} file of {@code commit} under {@code workDir}.
+     *
+     * @return blob id of each written file
+     */
+    public Map<Path, ObjectId> checkout(Mirror mirror, ObjectId commit, Path workDir) throws IOException {
+        return checkout(mirror, commit, workDir, null);
+    }
+
+    /**
+     * Like {@link #checkout(Mirror, ObjectId, Path)} but limited to the given repository-relative paths.
+     */
+    public Map<Path, ObjectId> checkout(Mirror mirror, ObjectId commit, Path workDir, Collection<String> paths) throws IOException {
+        Map<Path, ObjectId> written = new TreeMap<>();
+        if (paths != null && paths.isEmpty()) return written;
+        Repository repo = mirror.getRepository();
+        try (RevWalk walk = new RevWalk(repo); TreeWalk tw = new TreeWalk(repo)) {
+            tw.addTree(walk.parseCommit(commit).getTree());
+            tw.setRecursive(true);
+            tw.setFilter(paths == null ? PathSuffixFilter.create(JAVA_SUFFIX) : PathFilterGroup.createFromStrings(paths));
+            while (tw.next()) {
+                if (!tw.getPathString().endsWith(JAVA_SUFFIX)) continue;
+                Path target = workDir.resolve(tw.getPathString());
+                Files.createDirectories(target.getParent());
+                ObjectId blob = tw.getObjectId(0);
+                try (OutputStream out = Files.newOutputStream(target)) {
+                    repo.open(blob, Constants.OBJ_BLOB).copyTo(out);
+                }
+                written.put(target, blob);
+            }
+        }
+        return written;
+    }
+
+    private String defaultBranch(String url) throws Exception {
+        Map<String, Ref> refs = Git.lsRemoteRepository().setRemote(url).callAsMap();
+        Ref head = refs.get(Constants.HEAD);
+        if (head != null && head.isSymbolic()) return head.getTarget().getName();
+        // server did not advertise the symref: pick the branch HEAD points at, preferring main/master
+        List<String> candidates = new ArrayList<>();
+        for (Ref r : refs.values()) {
+            if (!r.getName().startsWith(Constants.R_HEADS)) continue;
+            if (head == null || Objects.equals(r.getObjectId(), head.getObjectId())) candidates.add(r.getName());
+        }
+        for (String preferred : List.of(Constants.R_HEADS + "main", Constants.R_HEADS + Constants.MASTER)) {
+            if (candidates.contains(preferred)) return preferred;
+        }
+        if (candidates.isEmpty()) throw new IllegalStateException("No branches found in " + url);
+        Collections.sort(candidates);
+        return candidates.get(0);
+    }
+
+    private void evict(Path current) throws IOException {
+        List<Path> mirrors;
+        try (Stream<Path> list = Files.list(root)) {
+            mirrors = new ArrayList<>(list.filter(Files::isDirectory).toList());
+        }
+        Map<Path, Long> sizes = new HashMap<>();
+        long total = 0;
+        for (Path m : mirrors) {
+            long size = sizeOf(m);
+            sizes.put(m, size);
+            total += size;
+        }
+        if (total <= budgetBytes) return;
+
+        mirrors.sort(Comparator.comparing(RepoMirrorCache::lastUsed));
+        for (Path m : mirrors) {
+            if (total <= budgetBytes) break;
+            if (m.equals(current)) continue;
+            String key = m.getFileName().toString().replaceFirst("\\.git$", "");
+            ReentrantLock lock = locks.computeIfAbsent(key, k -> new ReentrantLock());
+            if (!lock.tryLock()) continue; // in use by another request
+            try {
+                log.info("Evicting mirror {} ({} bytes)", m, sizes.get(m));
+                deleteRecursively(m);
+                total -= sizes.get(m);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static FileTime lastUsed(Path p) {
+        try {
+            return Files.getLastModifiedTime(p);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static long sizeOf(Path dir) throws IOException {
+        long[] size = {0};
+        // JGit's background auto-gc creates and removes lock files while we walk, so skip vanished entries
+        Files.walkFileTree(dir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                size[0] += attrs.size();
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return size[0];
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        try (Stream<Path> walk = Files.walk(path)) {
+            walk.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
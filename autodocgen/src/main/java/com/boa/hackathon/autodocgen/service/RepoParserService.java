@@ -1,23 +1,54 @@
 package com.boa.hackathon.autodocgen.service;
+import com.boa.hackathon.autodocgen.model.BodyRef;
 import com.boa.hackathon.autodocgen.model.ClassMetadata;
 import com.boa.hackathon.autodocgen.model.MethodMeta;
 import com.boa.hackathon.autodocgen.model.ProjectMetadata;
+import com.boa.hackathon.autodocgen.util.BodyLoader;
+import com.boa.hackathon.autodocgen.util.CloneFingerprinter;
+import com.boa.hackathon.autodocgen.util.EndpointExtractor;
+import com.boa.hackathon.autodocgen.util.JsonUtil;
+import com.boa.hackathon.autodocgen.util.KeywordMatcher;
+import com.boa.hackathon.autodocgen.util.MetadataCodec;
+import com.boa.hackathon.autodocgen.util.SourceText;
 import com.github.javaparser.*;
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.body.*;
 import com.github.javaparser.ast.comments.Comment;
 import com.github.javaparser.ast.expr.MethodCallExpr;
 import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.AbstractTreeIterator;
+import org.eclipse.jgit.treewalk.CanonicalTreeParser;
+import org.eclipse.jgit.treewalk.filter.PathSuffixFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 @Service
 public class RepoParserService {
@@ -27,94 +58,419 @@ public class RepoParserService {
     private static final Path BASE_DIR = Paths.get(System.getProperty("java.io.tmpdir"), "autodoc_repos");
     private static final Pattern SAFE = Pattern.compile("[^A-Za-z0-9._-]");
 
-    static {
-        ParserConfiguration config = new ParserConfiguration();
-        config.setLanguageLevel(ParserConfiguration.LanguageLevel.BLEEDING_EDGE);
-        StaticJavaParser.setConfiguration(config);
+    private static final ParserConfiguration PARSER_CONFIG = new ParserConfiguration()
+            .setLanguageLevel(ParserConfiguration.LanguageLevel.BLEEDING_EDGE);
+    // version of what parseFile extracts; part of the parse cache key
+    private static final int PARSE_VERSION = 1;
+    // JavaParser instances are not thread-safe, so every pool worker gets its own.
+    private static final ThreadLocal<JavaParser> PARSER = ThreadLocal.withInitial(() -> new JavaParser(PARSER_CONFIG));
+
+    private final ForkJoinPool parsePool;
+    private final KeywordMatcher keywords;
+    private final RepoMirrorCache mirrors;
+    private final ParseCache parseCache;
+    private final String configVersion; // parse cache namespace
+    private final AtomicLong filesParsed = new AtomicLong();
+    private final AtomicLong parseFailures = new AtomicLong();
+    private final Path baseDir; // working trees and snapshots
+    private final Map<String, Semaphore> workTrees = new ConcurrentHashMap<>(); // repo key -> lease on its working tree
+    private final long leaseTimeoutMs;
+
+    @Autowired
+    public RepoParserService(@Value("${autodoc.parser.parallelism:0}") int parallelism,
+                             @Value("${autodoc.parser.domain-keywords:inventory,stock,warehouse,product,order,user,auth,token,lock,redis}") String[] domainKeywords,
+                             RepoMirrorCache mirrors,
+                             ParseCache parseCache,
+                             @Value("${autodoc.repo.lease-timeout-seconds:300}") long leaseTimeoutSeconds) {
+        this(parallelism, domainKeywords, mirrors, parseCache, BASE_DIR, TimeUnit.SECONDS.toMillis(leaseTimeoutSeconds));
+    }
+
+    RepoParserService(int parallelism, String[] domainKeywords, RepoMirrorCache mirrors, ParseCache parseCache, Path baseDir,
+                      long leaseTimeoutMs) {
+        this.baseDir = baseDir;
+        this.leaseTimeoutMs = leaseTimeoutMs;
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.parsePool = new ForkJoinPool(threads);
+        this.keywords = new KeywordMatcher(Arrays.asList(domainKeywords));
+        this.mirrors = mirrors;
+        this.parseCache = parseCache;
+        this.configVersion = configVersion(domainKeywords);
+    }
+
+    /**
+     * Everything besides the source text that decides what parsing produces: the cached form,
+     * the extraction code (bump {@link #PARSE_VERSION} when it changes), the language level and
+     * the domain keywords.
+     */
+    private static String configVersion(String[] domainKeywords) {
+        String[] sorted = domainKeywords.clone();
+        Arrays.sort(sorted);
+        String config = MetadataCodec.VERSION + "|" + PARSE_VERSION + "|" + PARSER_CONFIG.getLanguageLevel() + "|" + String.join(",", sorted);
+        try {
+            byte[] sha = MessageDigest.getInstance("SHA-256").digest(config.getBytes(StandardCharsets.UTF_8));
+            return "v" + MetadataCodec.VERSION + "-" + HexFormat.of().formatHex(sha, 0, 6);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        parsePool.shutdown();
+    }
+
+    /** Files run through JavaParser, i.e. not served from the parse cache. */
+    public long getFilesParsed() {
+        return filesParsed.get();
+    }
+
+    public long getParseFailures() {
+        return parseFailures.get();
+    }
+
+    /**
+     * A parsed project together with a lease on the working tree its {@link BodyRef}s point
+     * into. While the lease is held no other run of the same repository touches the tree, so
+     * close it only once nothing will load bodies any more: after enrichment and generation.
+     * Closing twice is harmless.
+     */
+    public static final class Checkout implements AutoCloseable {
+        private final ProjectMetadata project;
+        private final Semaphore lease;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Checkout(ProjectMetadata project, Semaphore lease) {
+            this.project = project;
+            this.lease = lease;
+        }
+
+        public ProjectMetadata getProject() {
+            return project;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) lease.release();
+        }
     }
 
-    public ProjectMetadata cloneAndParse(String urlRaw) throws Exception {
+    public Checkout cloneAndParse(String urlRaw, boolean incremental, PipelineProgress progress) throws Exception {
+        return cloneAndParse(urlRaw, incremental, progress, classes -> {
+        });
+    }
+
+    /**
+     * Sync the repository's mirror, check out its {@code .java} files and parse them. With
+     * {@code incremental} set and a snapshot from a previous run on disk, only the files changed
+     * between the snapshot's commit and the new HEAD are checked out and re-parsed; everything
+     * else, AI descriptions included, is carried over from the snapshot.
+     * <p>
+     * Each file's classes are also handed to {@code sink} on the parse worker as soon as the
+     * file is parsed. The sink may block, which slows parsing down to the pace of whatever
+     * consumes the classes. Classes carried over from a snapshot are not passed to it.
+     * <p>
+     * The working tree is leased to the caller until the returned {@link Checkout} is closed;
+     * another run of the same repository waits here until then, and gives up with
+     * {@link RejectedExecutionException} after {@code autodoc.repo.lease-timeout-seconds}.
+     */
+    public Checkout cloneAndParse(String urlRaw, boolean incremental, PipelineProgress progress,
+                                  Consumer<List<ClassMetadata>> sink) throws Exception {
         String url = sanitize(urlRaw);
         log.info("Sanitized URL: {}", url);
         if (!(url.startsWith("https://github.com/") || url.startsWith("git@github.com:"))) {
             throw new IllegalArgumentException("Only GitHub URLs supported");
         }
+        return checkout(url, incremental, progress, sink);
+    }
+
+    /** {@link #cloneAndParse(String, boolean, PipelineProgress, Consumer)} of an already validated URL. */
+    Checkout checkout(String url, boolean incremental, PipelineProgress progress,
+                      Consumer<List<ClassMetadata>> sink) throws Exception {
+        Semaphore lease = workTrees.computeIfAbsent(repoKey(url), k -> new Semaphore(1));
+        if (!lease.tryAcquire()) {
+            log.info("Waiting for another run of {} to release its working tree", url);
+            if (!lease.tryAcquire(leaseTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new RejectedExecutionException("Another run of " + url + " is still using its working tree, try again later");
+            }
+        }
+        try {
+            return new Checkout(parseWorkTree(url, incremental, progress, sink), lease);
+        } catch (Exception | Error e) {
+            lease.release();
+            throw e;
+        }
+    }
+
+    private ProjectMetadata parseWorkTree(String url, boolean incremental, PipelineProgress progress,
+                                          Consumer<List<ClassMetadata>> sink) throws Exception {
         String repoName = extractRepoName(url);
-        String safeName = SAFE.matcher(repoName).replaceAll("_");
-        Path repoDir = BASE_DIR.resolve(safeName);
-        Files.createDirectories(BASE_DIR);
-        if (Files.exists(repoDir)) deleteRecursively(repoDir);
-        log.info("Cloning {} -> {}", url, repoDir);
-        Git.cloneRepository().setURI(url).setDirectory(repoDir.toFile()).call();
-
-        ProjectMetadata pm = new ProjectMetadata();
-        pm.setProjectName(repoName);
-        List<ClassMetadata> classes = new ArrayList<>();
-        // parse java files
-        Files.walk(repoDir)
-                .filter(p -> p.toString().endsWith(".java"))
-                .forEach(p -> {
+        String key = repoKey(url);
+        Path repoDir = baseDir.resolve(key);
+        Files.createDirectories(baseDir);
+
+        try (RepoMirrorCache.Mirror mirror = progress.stage("clone", () -> mirrors.sync(url, key))) {
+            if (incremental) {
+                ProjectMetadata previous = loadSnapshot(key);
+                if (previous != null && Files.isDirectory(repoDir)) {
                     try {
-                        CompilationUnit cu = StaticJavaParser.parse(p);
-                        cu.findAll(ClassOrInterfaceDeclaration.class).forEach(c -> {
-                            ClassMetadata cm = new ClassMetadata();
-                            cm.setClassName(c.getNameAsString());
-                            cm.setPackageName(cu.getPackageDeclaration().map(pd -> pd.getNameAsString()).orElse(""));
-                            cm.setType(detectType(c));
-                            cm.setComment(c.getComment().map(Comment::getContent).orElse("No comment"));
-
-                            List<String> fields = new ArrayList<>();
-                            c.getFields().forEach(fd -> fields.add(fd.getVariables().toString()));
-                            cm.setFields(fields);
-
-                            List<MethodMeta> methods = new ArrayList<>();
-                            c.getMethods().forEach(m -> {
-                                MethodMeta mm = new MethodMeta();
-                                mm.setName(m.getNameAsString());
-                                List<String> params = new ArrayList<>();
-                                m.getParameters().forEach(pv -> params.add(pv.getTypeAsString() + " " + pv.getNameAsString()));
-                                mm.setParams(params);
-                                mm.setReturnType(m.getType().asString());
-                                mm.setComment(m.getComment().map(Comment::getContent).orElse("No comment"));
-                                m.getBody().ifPresent(b -> mm.setBody(b.toString()));
-                                // Repository call detection
-                                List<String> repoCalls = new ArrayList<>();
-                                m.findAll(MethodCallExpr.class).forEach(mc -> mc.getScope().ifPresent(s -> {
-                                    String scope = s.toString();
-                                    if (scope.toLowerCase().endsWith("repository") || scope.toLowerCase().contains("repo")) {
-                                        repoCalls.add(mc.getNameAsString());
-                                    }
-                                }));
-                                mm.setRepositoryCalls(repoCalls);
-
-                                // Domain keywords (quick heuristic)
-                                try {
-                                    String fileText = new String(Files.readAllBytes(p)).toLowerCase();
-                                    List<String> domain = new ArrayList<>();
-                                    for (String w : List.of("inventory", "stock", "warehouse", "product", "order", "user", "auth", "token", "lock", "redis")) {
-                                        if (fileText.contains(w)) domain.add(w);
-                                    }
-                                    mm.setDomainKeywords(domain);
-                                } catch (IOException e) {
-                                    throw new RuntimeException(e);
-                                }
-
-                                methods.add(mm);
-                            });
-
-                            cm.setMethods(methods);
-                            Map<String, Object> extra = new HashMap<>();
-                            extra.put("filePath", p.toString());
-                            cm.setExtra(extra);
-                            classes.add(cm);
-                        });
-                    } catch (Exception ex) {
-                        log.warn("parse file {} failed: {}", p, ex.getMessage());
+                        return updateAndParse(mirror, repoDir, previous, progress, sink);
+                    } catch (Exception e) {
+                        log.warn("Incremental update of {} failed, falling back to a full checkout: {}", repoName, e.getMessage());
                     }
+                }
+            }
+
+            if (Files.exists(repoDir)) deleteRecursively(repoDir);
+            log.info("Checking out {} -> {}", mirror.getHead().name(), repoDir);
+            Map<Path, ObjectId> files = progress.stage("checkout", () -> mirrors.checkout(mirror, mirror.getHead(), repoDir));
+
+            ProjectMetadata pm = new ProjectMetadata();
+            pm.setProjectName(repoName);
+            pm.setRepoKey(key);
+            pm.setHeadCommit(mirror.getHead().name());
+            pm.setClasses(progress.stage("parse", () -> parseFiles(files, progress, sink)));
+            pm.setClassCount(pm.getClasses().size());
+            return pm;
+        }
+    }
+
+    private ProjectMetadata updateAndParse(RepoMirrorCache.Mirror mirror, Path repoDir, ProjectMetadata previous, PipelineProgress progress,
+                                           Consumer<List<ClassMetadata>> sink) throws Exception {
+        Repository repo = mirror.getRepository();
+        ObjectId oldHead = ObjectId.fromString(previous.getHeadCommit());
+        ObjectId newHead = mirror.getHead();
+        if (newHead.equals(oldHead)) {
+            log.info("{} unchanged at {}, reusing snapshot", previous.getProjectName(), newHead.name());
+            return previous;
+        }
+
+        List<DiffEntry> diff;
+        try (Git git = new Git(repo)) {
+            diff = git.diff()
+                    .setOldTree(treeOf(repo, oldHead))
+                    .setNewTree(treeOf(repo, newHead))
+                    .setPathFilter(PathSuffixFilter.create(".java"))
+                    .call();
+        }
+        Set<String> stale = new HashSet<>();
+        List<String> changed = new ArrayList<>();
+        for (DiffEntry d : diff) {
+            if (d.getChangeType() != DiffEntry.ChangeType.ADD) {
+                Path old = repoDir.resolve(d.getOldPath());
+                Files.deleteIfExists(old);
+                stale.add(old.toString());
+            }
+            if (d.getChangeType() != DiffEntry.ChangeType.DELETE) {
+                stale.add(repoDir.resolve(d.getNewPath()).toString());
+                changed.add(d.getNewPath());
+            }
+        }
+        log.info("{}: {} -> {}, {} java files changed", previous.getProjectName(),
+                oldHead.abbreviate(8).name(), newHead.abbreviate(8).name(), diff.size());
+        Map<Path, ObjectId> files = mirrors.checkout(mirror, newHead, repoDir, changed);
+
+        List<ClassMetadata> classes = previous.getClasses().stream()
+                .filter(c -> !stale.contains(filePathOf(c)))
+                .collect(Collectors.toCollection(ArrayList::new));
+        classes.addAll(progress.stage("parse", () -> parseFiles(files, progress, sink)));
+        // keep the same path order a full parse would produce
+        classes.sort(Comparator.comparing(c -> Paths.get(filePathOf(c))));
+
+        previous.setClasses(classes);
+        previous.setClassCount(classes.size());
+        previous.setHeadCommit(newHead.name());
+        return previous;
+    }
+
+    private static AbstractTreeIterator treeOf(Repository repo, ObjectId commit) throws IOException {
+        try (RevWalk walk = new RevWalk(repo); ObjectReader reader = repo.newObjectReader()) {
+            CanonicalTreeParser tree = new CanonicalTreeParser();
+            tree.reset(reader, walk.parseCommit(commit).getTree());
+            return tree;
+        }
+    }
+
+    private static String filePathOf(ClassMetadata c) {
+        return c.getExtra() == null ? "" : String.valueOf(c.getExtra().get("filePath"));
+    }
+
+    /**
+     * Persist the (enriched) metadata next to the clone so the next incremental run can start from it.
+     */
+    public void saveSnapshot(ProjectMetadata pm) {
+        if (pm.getHeadCommit() == null || pm.getRepoKey() == null) return;
+        Path snapshot = snapshotPath(pm.getRepoKey());
+        try {
+            JsonUtil.write(snapshot, pm);
+        } catch (IOException e) {
+            log.warn("Could not save snapshot {}: {}", snapshot, e.getMessage());
+        }
+    }
+
+    private ProjectMetadata loadSnapshot(String key) {
+        Path snapshot = snapshotPath(key);
+        if (!Files.exists(snapshot)) return null;
+        try {
+            ProjectMetadata pm = JsonUtil.read(snapshot, ProjectMetadata.class);
+            return pm.getHeadCommit() != null && pm.getClasses() != null && key.equals(pm.getRepoKey()) ? pm : null;
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable snapshot {}: {}", snapshot, e.getMessage());
+            return null;
+        }
+    }
+
+    private Path snapshotPath(String key) {
+        return baseDir.resolve(key + ".snapshot.json");
+    }
+
+    /**
+     * Parse the given source files on the shared parse pool. Classes come back grouped by file
+     * in path order, so the output is stable regardless of which worker finished first.
+     */
+    public List<ClassMetadata> parseFiles(List<Path> files) throws Exception {
+        return parseFiles(files, PipelineProgress.NONE);
+    }
+
+    public List<ClassMetadata> parseFiles(List<Path> files, PipelineProgress progress) throws Exception {
+        return parseFiles(files, progress, classes -> {
+        });
+    }
+
+    /** Like {@link #parseFiles(List, PipelineProgress)}, passing each file's classes to {@code sink} as they are parsed. */
+    public List<ClassMetadata> parseFiles(List<Path> files, PipelineProgress progress, Consumer<List<ClassMetadata>> sink) throws Exception {
+        return parseFiles(files, Map.of(), progress, sink);
+    }
+
+    /**
+     * Like {@link #parseFiles(List, PipelineProgress, Consumer)}, looking each file up in the
+     * {@link ParseCache} by its blob id first; only misses, and files without an id, are parsed.
+     */
+    public List<ClassMetadata> parseFiles(Map<Path, ObjectId> files, PipelineProgress progress, Consumer<List<ClassMetadata>> sink) throws Exception {
+        return parseFiles(new ArrayList<>(files.keySet()), files, progress, sink);
+    }
+
+    private List<ClassMetadata> parseFiles(List<Path> files, Map<Path, ObjectId> blobs, PipelineProgress progress,
+                                           Consumer<List<ClassMetadata>> sink) throws Exception {
+        ConcurrentSkipListMap<Path, List<ClassMetadata>> byFile = new ConcurrentSkipListMap<>();
+        long start = System.nanoTime();
+        Map<String, Long> cacheBefore = parseCache.stats();
+        progress.filesDiscovered(files.size());
+        parsePool.submit(() -> files.parallelStream().forEach(p -> {
+            List<ClassMetadata> parsed = parseOrLoad(p, blobs.get(p));
+            byFile.put(p, parsed);
+            progress.fileParsed();
+            if (!parsed.isEmpty()) sink.accept(parsed);
+        })).get();
+
+        List<ClassMetadata> classes = new ArrayList<>();
+        byFile.values().forEach(classes::addAll);
+        log.info("Parsed {} files ({} classes, {} from cache) in {} ms with parallelism {}",
+                files.size(), classes.size(), parseCache.stats().get("hits") - cacheBefore.get("hits"),
+                (System.nanoTime() - start) / 1_000_000, parsePool.getParallelism());
+        return classes;
+    }
+
+    private List<ClassMetadata> parseOrLoad(Path p, ObjectId blob) {
+        if (blob != null) {
+            List<ClassMetadata> cached = parseCache.get(blob, configVersion, p.toString());
+            if (cached != null) return cached;
+        }
+        List<ClassMetadata> classes;
+        try {
+            classes = parseFile(p);
+            filesParsed.incrementAndGet();
+        } catch (Exception ex) {
+            parseFailures.incrementAndGet();
+            log.warn("parse file {} failed: {}", p, ex.getMessage());
+            return List.of();
+        }
+        if (blob != null) parseCache.put(blob, configVersion, classes);
+        return classes;
+    }
+
+    private List<ClassMetadata> parseFile(Path p) throws Exception {
+        List<ClassMetadata> classes = new ArrayList<>();
+        Map<MethodDeclaration, MethodMeta> keywordTargets = new IdentityHashMap<>();
+        SourceText source = SourceText.read(p);
+        String file = p.toString();
+        ParseResult<CompilationUnit> result = PARSER.get().parse(source.text());
+        CompilationUnit cu = result.getResult().orElseThrow(() -> new ParseProblemException(result.getProblems()));
+        List<String> imports = new ArrayList<>();
+        cu.getImports().forEach(i -> {
+            if (!i.isStatic()) imports.add(i.getNameAsString() + (i.isAsterisk() ? ".*" : ""));
+        });
+        cu.findAll(ClassOrInterfaceDeclaration.class).forEach(c -> {
+            ClassMetadata cm = new ClassMetadata();
+            cm.setClassName(c.getNameAsString());
+            cm.setPackageName(cu.getPackageDeclaration().map(pd -> pd.getNameAsString()).orElse(""));
+            cm.setType(detectType(c));
+            cm.setBasePath(EndpointExtractor.basePath(c));
+            cm.setComment(c.getComment().map(Comment::getContent).orElse("No comment"));
+
+            cm.setImports(imports);
+
+            List<String> fields = new ArrayList<>();
+            Map<String, String> fieldTypes = new LinkedHashMap<>();
+            c.getFields().forEach(fd -> {
+                fields.add(fd.getVariables().toString());
+                fd.getVariables().forEach(v -> fieldTypes.put(v.getNameAsString(), v.getTypeAsString()));
+            });
+            cm.setFields(fields);
+            cm.setFieldTypes(fieldTypes);
+
+            List<MethodMeta> methods = new ArrayList<>();
+            c.getMethods().forEach(m -> {
+                MethodMeta mm = new MethodMeta();
+                mm.setName(m.getNameAsString());
+                List<String> params = new ArrayList<>();
+                m.getParameters().forEach(pv -> params.add(pv.getTypeAsString() + " " + pv.getNameAsString()));
+                mm.setParams(params);
+                mm.setReturnType(m.getType().asString());
+                mm.setComment(m.getComment().map(Comment::getContent).orElse("No comment"));
+                EndpointExtractor.extract(m, mm);
+                m.getRange().ifPresent(r -> {
+                    mm.setBeginLine(r.begin.line);
+                    mm.setEndLine(r.end.line);
+                });
+                m.getBody().ifPresent(b -> {
+                    b.getRange().ifPresent(r -> mm.setBodyRef(BodyLoader.refOf(file, source, source.begin(r), source.end(r), r.begin.line, r.end.line)));
+                    b.getTokenRange().ifPresent(tr -> mm.setFingerprint(CloneFingerprinter.of(tr)));
                 });
+                // Repository call detection
+                List<String> repoCalls = new ArrayList<>();
+                List<String> repoScopes = new ArrayList<>();
+                m.findAll(MethodCallExpr.class).forEach(mc -> mc.getScope().ifPresent(s -> {
+                    String scope = s.toString();
+                    if (scope.toLowerCase().endsWith("repository") || scope.toLowerCase().contains("repo")) {
+                        repoCalls.add(mc.getNameAsString());
+                        repoScopes.add(scope);
+                    }
+                }));
+                mm.setRepositoryCalls(repoCalls);
+                mm.setRepositoryScopes(repoScopes);
+
+                keywordTargets.put(m, mm);
+                methods.add(mm);
+            });
 
-        pm.setClasses(classes);
-        return pm;
+            cm.setMethods(methods);
+            Map<String, Object> extra = new HashMap<>();
+            extra.put("filePath", file);
+            cm.setExtra(extra);
+            classes.add(cm);
+        });
+        tagDomainKeywords(source, keywordTargets);
+        return classes;
+    }
+
+    /**
+     * Keyword pass: one automaton scan per method over the text we already loaded for parsing,
+     * limited to the method's own source range.
+     */
+    private void tagDomainKeywords(SourceText source, Map<MethodDeclaration, MethodMeta> targets) {
+        targets.forEach((m, mm) -> mm.setDomainKeywords(m.getRange()
+                .map(r -> keywords.find(source.text(), source.begin(r), source.end(r)))
+                .orElseGet(ArrayList::new)));
     }
 
     private String sanitize(String in) {
@@ -125,6 +481,26 @@ public class RepoParserService {
         return s;
     }
 
+    /**
+     * Name of the mirror, working tree and snapshot of {@code url}: the repository name, for
+     * readability, plus a hash of the whole normalised URL, so {@code github.com/a/utils} and
+     * {@code github.com/b/utils} never share state. SSH and HTTPS forms, a trailing slash or
+     * {@code .git} and letter case (GitHub ignores it) all map to the same key.
+     */
+    static String repoKey(String url) {
+        String u = url.trim().toLowerCase(Locale.ROOT);
+        if (u.startsWith("git@github.com:")) u = "https://github.com/" + u.substring("git@github.com:".length());
+        while (u.endsWith("/")) u = u.substring(0, u.length() - 1);
+        if (u.endsWith(".git")) u = u.substring(0, u.length() - 4);
+        try {
+            byte[] sha = MessageDigest.getInstance("SHA-256").digest(u.getBytes(StandardCharsets.UTF_8));
+            int slash = u.lastIndexOf('/');
+            return SAFE.matcher(u.substring(slash + 1)).replaceAll("_") + "-" + HexFormat.of().formatHex(sha, 0, 6);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     private String extractRepoName(String url) {
         String u = url.endsWith("/") ? url.substring(0,url.length()-1) : url;
         if (u.endsWith(".git")) u = u.substring(0,u.length()-4);
@@ -134,6 +510,7 @@ public class RepoParserService {
     }
 
     private String detectType(ClassOrInterfaceDeclaration c) {
+        if (EndpointExtractor.isController(c)) return "Controller";
         String n = c.getNameAsString().toLowerCase();
         if (n.contains("controller")) return "Controller";
         if (n.contains("service")) return "Service";
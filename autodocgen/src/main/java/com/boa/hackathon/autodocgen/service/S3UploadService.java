@@ -1,31 +1,54 @@
 package com.boa.hackathon.autodocgen.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
-import software.amazon.awssdk.auth.credentials.ProfileCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class S3UploadService {
 
+    private static final Logger log = LoggerFactory.getLogger(S3UploadService.class);
+
     private static final String BUCKET_NAME = "autodocgen-bucket"; // replace with your actual S3 bucket
     private static final Region REGION = Region.AP_SOUTH_1;
 
     private final S3Client s3Client;
+    private final boolean enabled;
+    private final ExecutorService uploads = Executors.newVirtualThreadPerTaskExecutor();
+    private final Timer uploaded;
+    private final Timer failed;
 
-
-    public S3UploadService() {
+    public S3UploadService(@Value("${autodoc.s3.enabled:true}") boolean enabled, MeterRegistry registry) {
+        this.enabled = enabled;
+        this.uploaded = Timer.builder("autodoc.s3.upload").tag("outcome", "success").register(registry);
+        this.failed = Timer.builder("autodoc.s3.upload").tag("outcome", "failure").register(registry);
         this.s3Client = S3Client.builder()
                 .region(REGION)
                 .credentialsProvider(DefaultCredentialsProvider.create())
                 .build();
     }
 
+    public boolean isEnabled() {
+        return enabled;
+    }
+
     public String uploadFile(File file, String key) {
         try {
             PutObjectRequest request = PutObjectRequest.builder()
@@ -40,5 +63,38 @@ public class S3UploadService {
             throw new RuntimeException("Failed to upload file to S3: " + e.getMessage(), e);
         }
     }
-}
 
+    /**
+     * Upload {@code file} in the background. Failures are logged, not thrown.
+     *
+     * @param deleteAfter remove the file once the upload has finished or failed
+     */
+    public CompletableFuture<String> uploadAsync(Path file, String key, boolean deleteAfter) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                String url = uploadFile(file.toFile(), key);
+                uploaded.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                log.info("Uploaded to S3: {}", url);
+                return url;
+            } catch (RuntimeException e) {
+                failed.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                log.warn("Failed to upload to S3: {}", e.getMessage());
+                return null;
+            } finally {
+                if (deleteAfter) {
+                    try {
+                        Files.deleteIfExists(file);
+                    } catch (IOException e) {
+                        log.debug("Could not delete {}: {}", file, e.getMessage());
+                    }
+                }
+            }
+        }, uploads);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        uploads.close(); // lets in-flight uploads finish
+    }
+}
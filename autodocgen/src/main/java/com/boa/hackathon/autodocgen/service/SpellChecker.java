@@ -0,0 +1,273 @@
+package com.boa.hackathon.autodocgen.service;
+
+import com.boa.hackathon.autodocgen.model.ClassMetadata;
+import com.boa.hackathon.autodocgen.model.MethodMeta;
+import com.boa.hackathon.autodocgen.model.ProjectMetadata;
+import com.boa.hackathon.autodocgen.util.Dawg;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * English dictionary for the documentation quality report. Word lists are read once, on first
+ * use, into a {@link Dawg} shared by every job; each project adds its own code vocabulary
+ * (the words inside its class, method, field and parameter names) through
+ * {@link #vocabularyFor(ProjectMetadata)}.
+ * <p>
+ * Dictionaries come from {@code autodoc.spell.dictionary} (comma-separated files, one word per
+ * line; by default the system's {@code /usr/share/dict/words} when it exists) plus the word
+ * list bundled on the classpath. Plurals, {@code -ed}/{@code -ing}/{@code -ly}/{@code -er}
+ * forms and {@code un-}/{@code re-} prefixes of known words are accepted without being listed.
+ */
+@Component
+public class SpellChecker {
+
+    private static final Logger log = LoggerFactory.getLogger(SpellChecker.class);
+
+    static final String BUNDLED_DICTIONARY = "dictionary/en-common.txt";
+    private static final String SYSTEM_DICTIONARY = "/usr/share/dict/words";
+    private static final String[] PREFIXES = {"un", "re", "pre", "non", "sub"};
+
+    private final String dictionaryPaths;
+    private final boolean bundled;
+    private final int maxEditDistance;
+    private final int maxSuggestions;
+    private volatile Dawg dictionary;
+
+    public SpellChecker(@Value("${autodoc.spell.dictionary:}") String dictionaryPaths,
+                        @Value("${autodoc.spell.bundled:true}") boolean bundled,
+                        @Value("${autodoc.spell.max-edit-distance:2}") int maxEditDistance,
+                        @Value("${autodoc.spell.max-suggestions:3}") int maxSuggestions) {
+        this.dictionaryPaths = dictionaryPaths;
+        this.bundled = bundled;
+        this.maxEditDistance = maxEditDistance;
+        this.maxSuggestions = maxSuggestions;
+    }
+
+    /** The shared dictionary, loaded on first call. */
+    public Dawg dictionary() {
+        Dawg d = dictionary;
+        if (d == null) {
+            synchronized (this) {
+                d = dictionary;
+                if (d == null) dictionary = d = load();
+            }
+        }
+        return d;
+    }
+
+    /** Dictionary plus the words used in {@code pm}'s identifiers. */
+    public Vocabulary vocabularyFor(ProjectMetadata pm) {
+        return vocabulary(codeWords(pm));
+    }
+
+    public Vocabulary vocabulary(Collection<String> codeWords) {
+        return new Vocabulary(dictionary(), Dawg.of(codeWords), maxEditDistance, maxSuggestions);
+    }
+
+    private Dawg load() {
+        long start = System.nanoTime();
+        Set<String> words = new HashSet<>();
+        List<Path> files = new ArrayList<>();
+        if (dictionaryPaths == null || dictionaryPaths.isBlank()) {
+            Path system = Paths.get(SYSTEM_DICTIONARY);
+            if (Files.isReadable(system)) files.add(system);
+        } else {
+            for (String p : dictionaryPaths.split(",")) if (!p.isBlank()) files.add(Paths.get(p.trim()));
+        }
+        for (Path file : files) {
+            try (BufferedReader r = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                readWords(r, words);
+            } catch (IOException e) {
+                log.warn("Dictionary {} could not be read: {}", file, e.getMessage());
+            }
+        }
+        if (bundled) {
+            try (InputStream in = SpellChecker.class.getClassLoader().getResourceAsStream(BUNDLED_DICTIONARY)) {
+                if (in == null) throw new IllegalStateException("Bundled dictionary " + BUNDLED_DICTIONARY + " is missing");
+                readWords(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)), words);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        Dawg d = Dawg.of(words);
+        log.info("Loaded dictionary from {}{}: {} in {} ms", files, bundled ? " and " + BUNDLED_DICTIONARY : "", d,
+                (System.nanoTime() - start) / 1_000_000);
+        return d;
+    }
+
+    /** Lower-cased entries made of letters and apostrophes only; anything else cannot occur in a scanned word. */
+    private static void readWords(BufferedReader r, Set<String> into) throws IOException {
+        for (String line; (line = r.readLine()) != null; ) {
+            String w = line.trim();
+            if (w.isEmpty() || w.startsWith("#")) continue;
+            w = w.toLowerCase(Locale.ROOT);
+            if (w.chars().allMatch(c -> c >= 'a' && c <= 'z' || c == '\'')) into.add(w);
+        }
+    }
+
+    static Set<String> codeWords(ProjectMetadata pm) {
+        Set<String> words = new HashSet<>();
+        if (pm.getClasses() == null) return words;
+        for (ClassMetadata c : pm.getClasses()) {
+            addIdentifiers(c.getClassName(), words);
+            addIdentifiers(c.getPackageName(), words);
+            if (c.getFieldTypes() != null) {
+                c.getFieldTypes().forEach((name, type) -> {
+                    addIdentifiers(name, words);
+                    addIdentifiers(type, words);
+                });
+            }
+            if (c.getMethods() == null) continue;
+            for (MethodMeta m : c.getMethods()) {
+                addIdentifiers(m.getName(), words);
+                addIdentifiers(m.getReturnType(), words);
+                if (m.getParams() != null) m.getParams().forEach(p -> addIdentifiers(p, words));
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Every identifier in {@code text}, whole and split at camel-case humps, lower-cased:
+     * {@code List<HTTPOrderItem>} gives {@code list, httporderitem, http, order, item}.
+     */
+    static void addIdentifiers(String text, Set<String> into) {
+        if (text == null) return;
+        int start = -1;
+        for (int i = 0, n = text.length(); i <= n; i++) {
+            char c = i < n ? text.charAt(i) : ' ';
+            boolean letter = c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z';
+            if (letter && start < 0) start = i;
+            if (!letter && start >= 0) {
+                addIdentifier(text, start, i, into);
+                start = -1;
+            }
+        }
+    }
+
+    private static void addIdentifier(String text, int start, int end, Set<String> into) {
+        into.add(text.substring(start, end).toLowerCase(Locale.ROOT));
+        int part = start;
+        for (int i = start + 1; i < end; i++) {
+            char prev = text.charAt(i - 1), c = text.charAt(i);
+            boolean hump = Character.isUpperCase(c) && (Character.isLowerCase(prev)
+                    || i + 1 < end && Character.isUpperCase(prev) && Character.isLowerCase(text.charAt(i + 1)));
+            if (hump) {
+                into.add(text.substring(part, i).toLowerCase(Locale.ROOT));
+                part = i;
+            }
+        }
+        if (part > start) into.add(text.substring(part, end).toLowerCase(Locale.ROOT));
+    }
+
+    /** Known words for one project. Thread-safe; words are expected in lower case. */
+    public static class Vocabulary {
+
+        private final Dawg dictionary;
+        private final Dawg code;
+        private final int maxEditDistance;
+        private final int maxSuggestions;
+
+        Vocabulary(Dawg dictionary, Dawg code, int maxEditDistance, int maxSuggestions) {
+            this.dictionary = dictionary;
+            this.code = code;
+            this.maxEditDistance = maxEditDistance;
+            this.maxSuggestions = maxSuggestions;
+        }
+
+        public boolean isKnown(CharSequence word) {
+            int start = 0, end = word.length();
+            while (start < end && word.charAt(start) == '\'') start++; // quotes around a word
+            while (end > start && word.charAt(end - 1) == '\'') end--;
+            if (end - start < 2 || inflected(word, start, end)) return true;
+            for (String prefix : PREFIXES) {
+                if (end - start > prefix.length() + 2 && startsWith(word, start, prefix)
+                        && inflected(word, start + prefix.length(), end)) return true;
+            }
+            return false;
+        }
+
+        /** Known words within the configured edit distance, closest first. */
+        public List<String> suggest(String word) {
+            Map<String, Integer> candidates = new HashMap<>();
+            for (Dawg d : List.of(dictionary, code)) {
+                for (String s : d.suggest(word, maxEditDistance, maxSuggestions)) candidates.putIfAbsent(s, distance(word, s));
+            }
+            return candidates.entrySet().stream()
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().thenComparing(Map.Entry.comparingByKey()))
+                    .limit(maxSuggestions)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        }
+
+        private boolean inflected(CharSequence w, int start, int end) {
+            int n = end - start;
+            if (has(w, start, end, "")) return true;
+            if (n > 3 && endsWith(w, end, "'s") && has(w, start, end - 2, "")) return true;
+            if (n > 3 && endsWith(w, end, "s") && has(w, start, end - 1, "")) return true;
+            if (n > 4 && endsWith(w, end, "es") && has(w, start, end - 2, "")) return true;
+            if (n > 4 && endsWith(w, end, "ies") && has(w, start, end - 3, "y")) return true;
+            if (n > 4 && endsWith(w, end, "ied") && has(w, start, end - 3, "y")) return true;
+            if (n > 3 && (endsWith(w, end, "ed") || endsWith(w, end, "er"))
+                    && (has(w, start, end - 2, "") || has(w, start, end - 1, "") || doubled(w, start, end - 2))) return true;
+            if (n > 4 && endsWith(w, end, "est") && (has(w, start, end - 3, "") || has(w, start, end - 2, ""))) return true;
+            if (n > 4 && endsWith(w, end, "ing")
+                    && (has(w, start, end - 3, "") || has(w, start, end - 3, "e") || doubled(w, start, end - 3))) return true;
+            if (n > 4 && endsWith(w, end, "ily") && has(w, start, end - 3, "y")) return true;
+            if (n > 4 && endsWith(w, end, "ly") && has(w, start, end - 2, "")) return true;
+            if (n > 5 && endsWith(w, end, "ness") && has(w, start, end - 4, "")) return true;
+            return n > 5 && endsWith(w, end, "ment") && has(w, start, end - 4, "");
+        }
+
+        // "stopped", "running": a doubled final consonant before the suffix
+        private boolean doubled(CharSequence w, int start, int stemEnd) {
+            return stemEnd - start > 2 && w.charAt(stemEnd - 1) == w.charAt(stemEnd - 2) && has(w, start, stemEnd - 1, "");
+        }
+
+        private boolean has(CharSequence w, int start, int end, String suffix) {
+            return end - start + suffix.length() >= 2
+                    && (dictionary.contains(w, start, end, suffix) || code.contains(w, start, end, suffix));
+        }
+
+        private static boolean endsWith(CharSequence w, int end, String suffix) {
+            int from = end - suffix.length();
+            if (from < 0) return false;
+            for (int i = 0; i < suffix.length(); i++) if (w.charAt(from + i) != suffix.charAt(i)) return false;
+            return true;
+        }
+
+        private static boolean startsWith(CharSequence w, int start, String prefix) {
+            for (int i = 0; i < prefix.length(); i++) if (w.charAt(start + i) != prefix.charAt(i)) return false;
+            return true;
+        }
+
+        private static int distance(String a, String b) {
+            int[] prev = new int[b.length() + 1], cur = new int[b.length() + 1];
+            for (int j = 0; j <= b.length(); j++) prev[j] = j;
+            for (int i = 1; i <= a.length(); i++) {
+                cur[0] = i;
+                for (int j = 1; j <= b.length(); j++) {
+                    int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                    cur[j] = Math.min(Math.min(cur[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+                }
+                int[] t = prev;
+                prev = cur;
+                cur = t;
+            }
+            return prev[b.length()];
+        }
+    }
+}
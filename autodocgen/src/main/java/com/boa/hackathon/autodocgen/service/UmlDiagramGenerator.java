@@ -0,0 +1,147 @@
+package com.boa.hackathon.autodocgen.service;
+
+import com.boa.hackathon.autodocgen.model.ClassMetadata;
+import com.boa.hackathon.autodocgen.model.DocRequest;
+import com.boa.hackathon.autodocgen.model.ProjectMetadata;
+import com.boa.hackathon.autodocgen.model.RelationshipIndex;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Class diagrams, one per package, plus an overview of the packages and how many
+ * dependencies run between them. Edges come from the project's {@link RelationshipIndex}. Written under {@code diagrams/} as {@code .puml} sources and
+ * rendered images; rendering is parallel and cached by {@link DiagramRenderer}.
+ */
+@Component
+public class UmlDiagramGenerator implements ArtifactGenerator {
+
+    public static final String DIR = "diagrams/";
+    public static final String OVERVIEW = "package-overview"; // not a valid package name, so it never clashes
+    private static final String DEFAULT_PACKAGE = "default";
+
+    private final DiagramRenderer renderer;
+
+    public UmlDiagramGenerator(DiagramRenderer renderer) {
+        this.renderer = renderer;
+    }
+
+    @Override
+    public String name() {
+        return "uml";
+    }
+
+    @Override
+    public boolean needsEnrichment() {
+        return false; // diagrams show structure only
+    }
+
+    @Override
+    public void validate(DocRequest request) {
+        DiagramRenderer.Format.of(request.getDiagramFormat());
+    }
+
+    @Override
+    public Map<String, ArtifactWriter> generate(ArtifactContext ctx) throws IOException {
+        DiagramRenderer.Format format = DiagramRenderer.Format.of(ctx.getRequest().getDiagramFormat());
+        Map<String, String> diagrams = buildPlantUml(ctx.getProject());
+        List<String> names = new ArrayList<>(diagrams.keySet());
+        List<String> sources = new ArrayList<>(diagrams.values());
+
+        List<byte[]> images = renderer.renderAll(sources, format);
+        Map<String, ArtifactWriter> out = new LinkedHashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            out.put(DIR + names.get(i) + ".puml", ArtifactWriter.of(sources.get(i).getBytes(StandardCharsets.UTF_8)));
+            out.put(DIR + names.get(i) + "." + format.extension(), ArtifactWriter.of(images.get(i)));
+        }
+        return out;
+    }
+
+    /** PlantUML source of every diagram by name: the package overview first, then one per package. */
+    Map<String, String> buildPlantUml(ProjectMetadata pm) {
+        Map<String, List<ClassMetadata>> byPackage = new TreeMap<>();
+        for (ClassMetadata c : pm.getClasses()) byPackage.computeIfAbsent(packageOf(c), k -> new ArrayList<>()).add(c);
+        RelationshipIndex index = pm.getRelationships();
+
+        Map<String, String> diagrams = new LinkedHashMap<>();
+        diagrams.put(OVERVIEW, buildOverview(byPackage, index.edges()));
+        for (Map.Entry<String, List<ClassMetadata>> e : byPackage.entrySet()) {
+            diagrams.put(e.getKey(), buildPackageDiagram(e.getKey(), e.getValue(), index));
+        }
+        return diagrams;
+    }
+
+    private String buildPackageDiagram(String pkg, List<ClassMetadata> classes, RelationshipIndex index) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("@startuml\n");
+        sb.append("skinparam classAttributeIconSize 0\n");
+        sb.append("title ").append(pkg).append("\n");
+
+        for (ClassMetadata c : classes) {
+            sb.append("class ").append(ensureId(c.getClassName())).append(" {\n");
+            if (c.getFields() != null) {
+                for (String f : c.getFields()) sb.append("  ").append(f.replaceAll("[\\[\\]]", "")).append("\n");
+            }
+            sb.append("}\n");
+        }
+
+        // one arrow per class pair: solid for repository calls (labelled with their count), dotted for field-only use
+        Map<String, int[]> arrows = new LinkedHashMap<>(); // "from to" -> {calls, fields}
+        Set<String> stubs = new HashSet<>();
+        for (RelationshipIndex.Edge e : classes.stream().flatMap(c -> index.outgoing(c).stream()).toList()) {
+            String to = ensureId(e.getTo().getClassName());
+            if (!packageOf(e.getTo()).equals(pkg)) {
+                // targets in other packages appear as bare, qualified stubs
+                String qualified = qualifiedName(e.getTo());
+                to = ensureId(qualified);
+                if (stubs.add(to)) sb.append("class \"").append(qualified).append("\" as ").append(to).append(" <<external>>\n");
+            }
+            int[] w = arrows.computeIfAbsent(ensureId(e.getFrom().getClassName()) + " " + to, k -> new int[2]);
+            w[e.getKind() == RelationshipIndex.Kind.CALL ? 0 : 1] += e.getWeight();
+        }
+        arrows.forEach((pair, w) -> {
+            String[] ends = pair.split(" ");
+            sb.append(ends[0]).append(w[0] > 0 ? " --> " : " ..> ").append(ends[1]);
+            if (w[0] > 1) sb.append(" : ").append(w[0]).append(" calls");
+            sb.append("\n");
+        });
+        sb.append("@enduml\n");
+        return sb.toString();
+    }
+
+    private String buildOverview(Map<String, List<ClassMetadata>> byPackage, List<RelationshipIndex.Edge> edges) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("@startuml\n");
+        sb.append("title Packages\n");
+        for (Map.Entry<String, List<ClassMetadata>> e : byPackage.entrySet()) {
+            sb.append("package \"").append(e.getKey()).append(" (").append(e.getValue().size()).append(" classes)\" as ")
+                    .append(packageId(e.getKey())).append(" {\n}\n");
+        }
+        Map<String, Integer> weights = new TreeMap<>();
+        for (RelationshipIndex.Edge e : edges) {
+            String from = packageOf(e.getFrom()), to = packageOf(e.getTo());
+            if (!from.equals(to)) weights.merge(packageId(from) + " --> " + packageId(to), e.getWeight(), Integer::sum);
+        }
+        weights.forEach((arrow, n) -> sb.append(arrow).append(" : ").append(n).append("\n"));
+        sb.append("@enduml\n");
+        return sb.toString();
+    }
+
+    private static String packageOf(ClassMetadata c) {
+        return c.getPackageName() == null || c.getPackageName().isBlank() ? DEFAULT_PACKAGE : c.getPackageName();
+    }
+
+    private static String qualifiedName(ClassMetadata c) {
+        return packageOf(c) + "." + c.getClassName();
+    }
+
+    private String packageId(String pkg) {
+        return "pkg_" + ensureId(pkg);
+    }
+
+    private String ensureId(String s) {
+        return s.replaceAll("[^A-Za-z0-9_]", "_");
+    }
+}
@@ -0,0 +1,95 @@
+package com.boa.hackathon.autodocgen.util;
+
+import com.boa.hackathon.autodocgen.model.BodyRef;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads method bodies back from their source files through {@link BodyRef}s. Files are
+ * memory-mapped on first use and the mappings of the most recently used files are kept, so
+ * loading every body of a class (as prompt building does) maps its file once. A file that
+ * changed size or modification time since it was mapped is mapped again, and a body whose
+ * text no longer matches its hash is not returned. Files must not be truncated while a
+ * caller may still load from them: {@link com.boa.hackathon.autodocgen.service.RepoParserService.Checkout}
+ * keeps the working tree stable for as long as a run uses it.
+ */
+public class BodyLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(BodyLoader.class);
+    private static final int MAX_MAPPED_FILES = 64;
+
+    private record Mapped(MappedByteBuffer buffer, long size, long modified) {
+    }
+
+    private static final Map<String, Mapped> MAPPED = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Mapped> eldest) {
+            return size() > MAX_MAPPED_FILES;
+        }
+    };
+
+    /** FNV-1a over the UTF-16 units of {@code text[start, end)}, as stored in {@link BodyRef#getHash()}. */
+    public static long hash(CharSequence text, int start, int end) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = start; i < end; i++) {
+            h ^= text.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /** Reference to {@code source[start, end)} of the file at {@code file}. */
+    public static BodyRef refOf(String file, SourceText source, int start, int end, int beginLine, int endLine) {
+        long from = source.byteOffset(start);
+        return new BodyRef(file, from, (int) (source.byteOffset(end) - from), beginLine, endLine,
+                hash(source.text(), start, end));
+    }
+
+    /** The body's text, or null when there is no body or its file is gone or has changed. */
+    public static String load(BodyRef ref) {
+        if (ref == null || ref.getFile() == null) return null;
+        try {
+            Path path = Paths.get(ref.getFile());
+            BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            long modified = attrs.lastModifiedTime().toMillis();
+            if (ref.getOffset() < 0 || ref.getOffset() + ref.getLength() > attrs.size()) return null;
+            Mapped mapped;
+            synchronized (MAPPED) {
+                mapped = MAPPED.get(ref.getFile());
+                if (mapped == null || mapped.size() != attrs.size() || mapped.modified() != modified) {
+                    mapped = new Mapped(map(path, attrs.size()), attrs.size(), modified);
+                    MAPPED.put(ref.getFile(), mapped);
+                }
+            }
+            byte[] bytes = new byte[ref.getLength()];
+            mapped.buffer().get((int) ref.getOffset(), bytes); // absolute get: safe on the shared buffer
+            String body = new String(bytes, StandardCharsets.UTF_8);
+            return hash(body, 0, body.length()) == ref.getHash() ? body : null;
+        } catch (IOException | RuntimeException | InternalError e) {
+            // InternalError: the file was truncated under its mapping
+            synchronized (MAPPED) {
+                MAPPED.remove(ref.getFile());
+            }
+            log.debug("Body of {} at {} not loadable: {}", ref.getFile(), ref.getOffset(), e.getMessage());
+            return null;
+        }
+    }
+
+    private static MappedByteBuffer map(Path path, long size) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            return ch.map(FileChannel.MapMode.READ_ONLY, 0, size); // the mapping outlives the channel
+        }
+    }
+}
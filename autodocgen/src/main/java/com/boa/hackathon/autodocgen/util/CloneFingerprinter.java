@@ -0,0 +1,105 @@
+package com.boa.hackathon.autodocgen.util;
+
+import com.boa.hackathon.autodocgen.model.BodyFingerprint;
+import com.github.javaparser.JavaToken;
+import com.github.javaparser.TokenRange;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Turns a token range into a {@link BodyFingerprint}. Identifiers and literals are normalised
+ * so renamed copies (type-2 clones) still match, k-grams are hashed with a rolling hash, and
+ * winnowing keeps the minimum hash of every window. Any normalised token run of at least
+ * {@link #GUARANTEE} tokens shared by two bodies yields at least one common fingerprint.
+ */
+public class CloneFingerprinter {
+
+    public static final int K = 15;  // tokens per k-gram
+    public static final int W = 16;  // k-grams per winnowing window
+    public static final int GUARANTEE = K + W - 1;
+
+    private static final long BASE = 0x100000001b3L;
+    private static final long BASE_POW_K_MINUS_1;
+    private static final int IDENTIFIER = 0x1d;
+    private static final int LITERAL = 0x11;
+
+    static {
+        long p = 1;
+        for (int i = 1; i < K; i++) p *= BASE;
+        BASE_POW_K_MINUS_1 = p;
+    }
+
+    public static BodyFingerprint of(TokenRange range) {
+        int n = 0;
+        int[] codes = new int[64];
+        int[] tokenLines = new int[64];
+        long exact = 17, normalized = 17;
+        for (JavaToken t : range) {
+            JavaToken.Category cat = t.getCategory();
+            if (cat.isWhitespaceOrComment()) continue;
+            int raw = t.getText().hashCode();
+            int code = cat.isIdentifier() ? IDENTIFIER : cat.isLiteral() ? LITERAL : raw;
+            if (n == codes.length) {
+                codes = Arrays.copyOf(codes, n * 2);
+                tokenLines = Arrays.copyOf(tokenLines, n * 2);
+            }
+            codes[n] = code;
+            tokenLines[n] = t.getRange().map(r -> r.begin.line).orElse(0);
+            n++;
+            exact = exact * BASE + raw;
+            normalized = normalized * BASE + code;
+        }
+
+        BodyFingerprint fp = new BodyFingerprint();
+        fp.setTokenCount(n);
+        fp.setExactHash(mix(exact));
+        fp.setNormalizedHash(mix(normalized));
+
+        List<long[]> selected = new ArrayList<>(); // {hash, offset}
+        int grams = n - K + 1;
+        if (grams > 0) {
+            long[] gramHashes = new long[grams];
+            long h = 0;
+            for (int i = 0; i < n; i++) {
+                if (i >= K) h -= codes[i - K] * BASE_POW_K_MINUS_1;
+                h = h * BASE + codes[i];
+                if (i >= K - 1) gramHashes[i - K + 1] = mix(h);
+            }
+            // winnowing: rightmost minimum of each window, recorded once per change
+            int window = Math.min(W, grams);
+            int last = -1;
+            for (int start = 0; start + window <= grams; start++) {
+                int min = start;
+                for (int i = start + 1; i < start + window; i++) {
+                    if (gramHashes[i] <= gramHashes[min]) min = i;
+                }
+                if (min != last) {
+                    selected.add(new long[]{gramHashes[min], min});
+                    last = min;
+                }
+            }
+        }
+        long[] hashes = new long[selected.size()];
+        int[] offsets = new int[selected.size()];
+        int[] lines = new int[selected.size() * 2];
+        for (int i = 0; i < selected.size(); i++) {
+            hashes[i] = selected.get(i)[0];
+            offsets[i] = (int) selected.get(i)[1];
+            lines[2 * i] = tokenLines[offsets[i]];
+            lines[2 * i + 1] = tokenLines[offsets[i] + K - 1];
+        }
+        fp.setHashes(hashes);
+        fp.setOffsets(offsets);
+        fp.setLines(lines);
+        return fp;
+    }
+
+    // splitmix64 finaliser, so k-gram hashes are evenly spread for winnowing
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
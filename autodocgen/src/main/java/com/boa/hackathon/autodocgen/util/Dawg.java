@@ -0,0 +1,231 @@
+package com.boa.hackathon.autodocgen.util;
+
+import java.util.*;
+
+/**
+ * Immutable set of words stored as a minimal acyclic automaton (a DAWG): words share both
+ * prefixes and suffixes, so a large English dictionary takes a few megabytes. Nodes and edges
+ * are flat arrays; a lookup walks one edge per character with a binary search over the
+ * node's sorted labels, and allocates nothing.
+ * <p>
+ * Built with Daciuk's incremental algorithm, which needs the words in sorted order; use
+ * {@link #of(Collection)} for unsorted input.
+ */
+public class Dawg {
+
+    private final int[] firstEdge;  // per node, index of its first edge; one extra entry closes the last node
+    private final char[] labels;    // per edge, sorted within a node
+    private final int[] targets;    // per edge, target node
+    private final boolean[] terminal;
+    private final int words;
+
+    private Dawg(int[] firstEdge, char[] labels, int[] targets, boolean[] terminal, int words) {
+        this.firstEdge = firstEdge;
+        this.labels = labels;
+        this.targets = targets;
+        this.terminal = terminal;
+        this.words = words;
+    }
+
+    /** Build from words in any order; duplicates and empty strings are ignored. */
+    public static Dawg of(Collection<String> words) {
+        Builder b = new Builder();
+        new TreeSet<>(words).forEach(b::add);
+        return b.build();
+    }
+
+    public int size() {
+        return words;
+    }
+
+    public int nodeCount() {
+        return terminal.length;
+    }
+
+    public int edgeCount() {
+        return labels.length;
+    }
+
+    public boolean contains(CharSequence word) {
+        return contains(word, 0, word.length(), "");
+    }
+
+    /**
+     * Whether characters {@code [start, end)} of {@code word} followed by {@code suffix} form a
+     * word; lets callers try stems such as "configur" + "e" without building strings.
+     */
+    public boolean contains(CharSequence word, int start, int end, String suffix) {
+        int node = 0;
+        for (int i = start; i < end && node >= 0; i++) node = step(node, word.charAt(i));
+        for (int i = 0; i < suffix.length() && node >= 0; i++) node = step(node, suffix.charAt(i));
+        return node >= 0 && terminal[node];
+    }
+
+    /**
+     * Words within {@code maxDistance} Levenshtein edits of {@code word}, closest first and
+     * then alphabetical, at most {@code limit} of them. Branches whose best possible distance
+     * already exceeds the bound are pruned, so only a thin slice of the automaton is visited.
+     */
+    public List<String> suggest(CharSequence word, int maxDistance, int limit) {
+        int n = word.length();
+        int maxDepth = n + maxDistance;
+        int[][] rows = new int[maxDepth + 1][n + 1];
+        for (int j = 0; j <= n; j++) rows[0][j] = j;
+        List<Map.Entry<String, Integer>> found = new ArrayList<>();
+        walk(0, 0, new StringBuilder(), word, rows, maxDistance, found);
+        found.sort(Map.Entry.<String, Integer>comparingByValue().thenComparing(Map.Entry.comparingByKey()));
+        List<String> out = new ArrayList<>(Math.min(limit, found.size()));
+        for (int i = 0; i < found.size() && i < limit; i++) out.add(found.get(i).getKey());
+        return out;
+    }
+
+    private void walk(int node, int depth, StringBuilder prefix, CharSequence word, int[][] rows, int max,
+                      List<Map.Entry<String, Integer>> found) {
+        int n = word.length();
+        int[] row = rows[depth];
+        if (terminal[node] && row[n] <= max && depth > 0) found.add(Map.entry(prefix.toString(), row[n]));
+        if (depth + 1 >= rows.length) return;
+        int[] next = rows[depth + 1];
+        for (int e = firstEdge[node]; e < firstEdge[node + 1]; e++) {
+            char c = labels[e];
+            next[0] = row[0] + 1;
+            int best = next[0];
+            for (int j = 1; j <= n; j++) {
+                int cost = word.charAt(j - 1) == c ? 0 : 1;
+                next[j] = Math.min(Math.min(next[j - 1] + 1, row[j] + 1), row[j - 1] + cost);
+                best = Math.min(best, next[j]);
+            }
+            if (best > max) continue;
+            prefix.append(c);
+            walk(targets[e], depth + 1, prefix, word, rows, max, found);
+            prefix.setLength(prefix.length() - 1);
+        }
+    }
+
+    private int step(int node, char c) {
+        int lo = firstEdge[node], hi = firstEdge[node + 1] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            char l = labels[mid];
+            if (l < c) lo = mid + 1;
+            else if (l > c) hi = mid - 1;
+            else return targets[mid];
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        return "Dawg[" + words + " words, " + nodeCount() + " nodes, " + edgeCount() + " edges]";
+    }
+
+    /** Incremental construction from words added in strictly increasing order. */
+    public static class Builder {
+
+        private static class Node {
+            char[] labels = new char[0];
+            Node[] targets = new Node[0];
+            boolean terminal;
+            int hash;
+            int id = -1;
+
+            Node addChild(char c) {
+                int n = labels.length;
+                labels = Arrays.copyOf(labels, n + 1);
+                targets = Arrays.copyOf(targets, n + 1);
+                labels[n] = c;
+                return targets[n] = new Node();
+            }
+
+            // children are canonical by the time a node is registered, so identity suffices for them
+            @Override
+            public boolean equals(Object o) {
+                if (!(o instanceof Node other) || other.terminal != terminal || !Arrays.equals(other.labels, labels)) return false;
+                for (int i = 0; i < targets.length; i++) if (other.targets[i] != targets[i]) return false;
+                return true;
+            }
+
+            @Override
+            public int hashCode() {
+                return hash;
+            }
+
+            void seal() {
+                int h = terminal ? 1 : 0;
+                for (int i = 0; i < labels.length; i++) h = (h * 31 + labels[i]) * 31 + System.identityHashCode(targets[i]);
+                hash = h;
+            }
+        }
+
+        private final Node root = new Node();
+        private final Map<Node, Node> register = new HashMap<>();
+        private final List<Node> path = new ArrayList<>(); // nodes along the previous word, root excluded
+        private String previous = "";
+        private int words;
+
+        public Builder add(String word) {
+            if (word.isEmpty()) return this;
+            int cmp = word.compareTo(previous);
+            if (cmp == 0) return this;
+            if (cmp < 0) throw new IllegalArgumentException("Words must be added in sorted order: '" + word + "' after '" + previous + "'");
+            int common = 0;
+            while (common < word.length() && common < previous.length() && word.charAt(common) == previous.charAt(common)) common++;
+            minimize(common);
+            Node node = common == 0 ? root : path.get(common - 1);
+            for (int i = common; i < word.length(); i++) {
+                node = node.addChild(word.charAt(i));
+                path.add(node);
+            }
+            node.terminal = true;
+            previous = word;
+            words++;
+            return this;
+        }
+
+        public Dawg build() {
+            minimize(0);
+            // number nodes breadth-first so the root is 0
+            List<Node> order = new ArrayList<>();
+            root.id = 0;
+            order.add(root);
+            int edges = 0;
+            for (int i = 0; i < order.size(); i++) {
+                Node n = order.get(i);
+                edges += n.labels.length;
+                for (Node t : n.targets) {
+                    if (t.id < 0) {
+                        t.id = order.size();
+                        order.add(t);
+                    }
+                }
+            }
+            int[] first = new int[order.size() + 1];
+            char[] labels = new char[edges];
+            int[] targets = new int[edges];
+            boolean[] terminal = new boolean[order.size()];
+            int e = 0;
+            for (int i = 0; i < order.size(); i++) {
+                Node n = order.get(i);
+                first[i] = e;
+                terminal[i] = n.terminal;
+                for (int k = 0; k < n.labels.length; k++, e++) {
+                    labels[e] = n.labels[k];
+                    targets[e] = n.targets[k].id;
+                }
+            }
+            first[order.size()] = e;
+            return new Dawg(first, labels, targets, terminal, words);
+        }
+
+        /** Replace nodes past {@code depth} on the previous word's path by equivalent registered ones. */
+        private void minimize(int depth) {
+            for (int i = path.size() - 1; i >= depth; i--) {
+                Node child = path.remove(i);
+                Node parent = i == 0 ? root : path.get(i - 1);
+                child.seal();
+                Node existing = register.putIfAbsent(child, child);
+                if (existing != null) parent.targets[parent.targets.length - 1] = existing;
+            }
+        }
+    }
+}
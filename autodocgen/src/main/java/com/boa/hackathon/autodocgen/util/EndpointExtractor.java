@@ -0,0 +1,187 @@
+package com.boa.hackathon.autodocgen.util;
+
+import com.boa.hackathon.autodocgen.model.MethodMeta;
+import com.boa.hackathon.autodocgen.model.ParamMeta;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.Parameter;
+import com.github.javaparser.ast.expr.*;
+import com.github.javaparser.ast.nodeTypes.NodeWithAnnotations;
+
+import java.util.*;
+
+/**
+ * Reads HTTP mappings off the AST the parser already built: Spring {@code @RequestMapping}
+ * and its {@code @GetMapping}-style shortcuts, and JAX-RS {@code @Path} with {@code @GET}
+ * etc., at class and method level, plus the parameters bound by {@code @PathVariable},
+ * {@code @RequestParam}, {@code @RequestHeader}, {@code @RequestBody} and their JAX-RS
+ * counterparts. Annotations are matched by simple name, so qualified uses work too.
+ * <p>
+ * Paths are taken from string literals, including concatenations of literals; a constant
+ * reference is kept as its source text since its value is not known at this stage. For
+ * multi-path mappings the first path is used.
+ */
+public class EndpointExtractor {
+
+    private static final Map<String, String> SPRING_SHORTCUTS = Map.of(
+            "GetMapping", "GET", "PostMapping", "POST", "PutMapping", "PUT",
+            "DeleteMapping", "DELETE", "PatchMapping", "PATCH");
+    private static final Set<String> JAXRS_VERBS = Set.of("GET", "POST", "PUT", "DELETE", "PATCH", "HEAD", "OPTIONS");
+    private static final Set<String> CONTROLLER_ANNOTATIONS = Set.of("RestController", "Controller");
+    // types Spring binds from a request parameter when the parameter carries no annotation
+    private static final Set<String> SIMPLE_TYPES = Set.of(
+            "boolean", "byte", "short", "int", "long", "float", "double", "char",
+            "Boolean", "Byte", "Short", "Integer", "Long", "Float", "Double", "Character", "String", "CharSequence",
+            "Number", "BigDecimal", "BigInteger", "UUID", "Date", "LocalDate", "LocalDateTime", "LocalTime",
+            "Instant", "OffsetDateTime", "ZonedDateTime", "Duration", "URI", "URL", "Locale");
+
+    /** Whether the class is a Spring controller or a JAX-RS resource. */
+    public static boolean isController(NodeWithAnnotations<?> type) {
+        for (AnnotationExpr a : type.getAnnotations()) {
+            String n = simpleName(a);
+            if (CONTROLLER_ANNOTATIONS.contains(n) || n.equals("Path")) return true;
+        }
+        return false;
+    }
+
+    /** Class-level {@code @RequestMapping} or {@code @Path}, or null. */
+    public static String basePath(NodeWithAnnotations<?> type) {
+        for (AnnotationExpr a : type.getAnnotations()) {
+            String n = simpleName(a);
+            if (n.equals("RequestMapping") || n.equals("Path")) return first(attribute(a, "value", "path"));
+        }
+        return null;
+    }
+
+    /**
+     * Fill {@code endpoint}, {@code httpMethod} and {@code httpParams} of {@code mm} when
+     * {@code m} is mapped; leaves them null otherwise. A Spring {@code @RequestMapping} without
+     * a method matches every verb and is recorded without one. Unannotated Spring parameters of
+     * simple types (numbers, strings, dates, ...) are implicit {@code @RequestParam}s and are
+     * recorded as optional query parameters; other unannotated ones are model attributes or
+     * framework arguments and are left out.
+     */
+    public static void extract(MethodDeclaration m, MethodMeta mm) {
+        String verb = null, path = null;
+        boolean mapped = false, jaxrs = false;
+        for (AnnotationExpr a : m.getAnnotations()) {
+            String n = simpleName(a);
+            if (SPRING_SHORTCUTS.containsKey(n)) {
+                mapped = true;
+                verb = SPRING_SHORTCUTS.get(n);
+                path = first(attribute(a, "value", "path"));
+            } else if (n.equals("RequestMapping")) {
+                mapped = true;
+                path = first(attribute(a, "value", "path"));
+                verb = attribute(a, "method").map(EndpointExtractor::verbs).orElse(null);
+            } else if (JAXRS_VERBS.contains(n)) {
+                mapped = jaxrs = true;
+                verb = n;
+            } else if (n.equals("Path")) {
+                path = first(attribute(a, "value"));
+            }
+        }
+        if (!mapped) return; // a bare JAX-RS @Path is a sub-resource locator, not an operation
+        mm.setEndpoint(path == null ? "" : path);
+        mm.setHttpMethod(verb);
+        List<ParamMeta> params = new ArrayList<>();
+        for (Parameter p : m.getParameters()) {
+            ParamMeta pm = param(p, jaxrs);
+            if (pm != null) params.add(pm);
+        }
+        mm.setHttpParams(params);
+    }
+
+    private static ParamMeta param(Parameter p, boolean jaxrs) {
+        String type = p.getTypeAsString() + (p.isVarArgs() ? "[]" : "");
+        String javaName = p.getNameAsString();
+        boolean optional = type.startsWith("Optional<") || type.startsWith("java.util.Optional<");
+        boolean annotated = false;
+        for (AnnotationExpr a : p.getAnnotations()) {
+            String n = simpleName(a);
+            switch (n) {
+                case "PathVariable":
+                    return new ParamMeta(nameOr(a, javaName), ParamMeta.PATH, type, true);
+                case "RequestParam":
+                case "RequestHeader": {
+                    boolean required = !optional && attribute(a, "defaultValue").isEmpty()
+                            && attribute(a, "required").map(EndpointExtractor::isTrue).orElse(true);
+                    return new ParamMeta(nameOr(a, javaName), n.equals("RequestParam") ? ParamMeta.QUERY : ParamMeta.HEADER, type, required);
+                }
+                case "RequestBody":
+                    return new ParamMeta(javaName, ParamMeta.BODY, type,
+                            attribute(a, "required").map(EndpointExtractor::isTrue).orElse(true));
+                case "PathParam":
+                    return new ParamMeta(nameOr(a, javaName), ParamMeta.PATH, type, true);
+                case "QueryParam":
+                    return new ParamMeta(nameOr(a, javaName), ParamMeta.QUERY, type, false);
+                case "HeaderParam":
+                    return new ParamMeta(nameOr(a, javaName), ParamMeta.HEADER, type, false);
+                default:
+                    annotated = true; // @Context, @Valid on its own, @AuthenticationPrincipal, ...
+            }
+        }
+        if (annotated) return null;
+        // JAX-RS: the one unannotated parameter is the entity
+        if (jaxrs) return new ParamMeta(javaName, ParamMeta.BODY, type, true);
+        return isSimple(type) ? new ParamMeta(javaName, ParamMeta.QUERY, type, false) : null;
+    }
+
+    /** Simple value type (or an array of one), by simple name; enums cannot be told apart here. */
+    private static boolean isSimple(String type) {
+        String t = type.endsWith("[]") ? type.substring(0, type.length() - 2) : type;
+        return SIMPLE_TYPES.contains(t.substring(t.lastIndexOf('.') + 1));
+    }
+
+    private static String nameOr(AnnotationExpr a, String fallback) {
+        String name = first(attribute(a, "value", "name"));
+        return name == null || name.isEmpty() ? fallback : name;
+    }
+
+    /** Named attribute, or for {@code value} also the single member of {@code @X("...")}. */
+    private static Optional<Expression> attribute(AnnotationExpr a, String... names) {
+        if (a instanceof SingleMemberAnnotationExpr s) {
+            return names[0].equals("value") ? Optional.of(s.getMemberValue()) : Optional.empty();
+        }
+        if (a instanceof NormalAnnotationExpr n) {
+            for (String name : names) {
+                for (MemberValuePair p : n.getPairs()) {
+                    if (p.getNameAsString().equals(name)) return Optional.of(p.getValue());
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static String first(Optional<Expression> e) {
+        return e.map(EndpointExtractor::first).orElse(null);
+    }
+
+    private static String first(Expression e) {
+        if (e instanceof ArrayInitializerExpr arr) return arr.getValues().isEmpty() ? null : first(arr.getValues().get(0));
+        if (e instanceof StringLiteralExpr s) return s.asString();
+        if (e instanceof TextBlockLiteralExpr t) return t.asString().strip();
+        if (e instanceof BinaryExpr b && b.getOperator() == BinaryExpr.Operator.PLUS) return first(b.getLeft()) + first(b.getRight());
+        if (e instanceof EnclosedExpr p) return first(p.getInner());
+        return e.toString();
+    }
+
+    /** {@code RequestMethod.GET} or {@code {GET, POST}} as "GET" or "GET,POST". */
+    private static String verbs(Expression e) {
+        List<Expression> values = e instanceof ArrayInitializerExpr arr ? arr.getValues() : List.of(e);
+        StringJoiner out = new StringJoiner(",");
+        for (Expression v : values) {
+            if (v instanceof FieldAccessExpr f) out.add(f.getNameAsString());
+            else if (v instanceof NameExpr n) out.add(n.getNameAsString());
+        }
+        return out.length() == 0 ? null : out.toString();
+    }
+
+    private static boolean isTrue(Expression e) {
+        return !(e instanceof BooleanLiteralExpr b) || b.getValue();
+    }
+
+    private static String simpleName(AnnotationExpr a) {
+        String n = a.getNameAsString();
+        return n.substring(n.lastIndexOf('.') + 1);
+    }
+}
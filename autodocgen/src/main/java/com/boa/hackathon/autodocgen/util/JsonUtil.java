@@ -2,12 +2,122 @@ package com.boa.hackathon.autodocgen.util;
 
 
 
+import com.boa.hackathon.autodocgen.model.BodyRef;
+import com.boa.hackathon.autodocgen.model.ClassMetadata;
+import com.boa.hackathon.autodocgen.model.MethodMeta;
+import com.boa.hackathon.autodocgen.model.ProjectMetadata;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Locale;
 
 public class JsonUtil {
-    private static final ObjectMapper M = new ObjectMapper();
+    private static final ObjectMapper M = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false)
+            .configure(SerializationFeature.FLUSH_AFTER_WRITE_VALUE, false);
+    // same configuration, but method bodies are written as their text, read back from the sources
+    private static final ObjectMapper WITH_BODIES = M.copy().addMixIn(MethodMeta.class, WithBodyText.class);
+    // same configuration, but method bodies and their fingerprints are skipped
+    private static final ObjectMapper WITHOUT_BODIES = M.copy().addMixIn(MethodMeta.class, WithoutBody.class);
+    private static final ObjectWriter HEADER = M.copy().addMixIn(ProjectMetadata.class, WithoutClasses.class).writer();
+
+    private abstract static class WithBodyText {
+        @JsonProperty("body")
+        @JsonSerialize(using = BodyTextSerializer.class)
+        abstract BodyRef getBodyRef();
+    }
+
+    private static class BodyTextSerializer extends JsonSerializer<BodyRef> {
+        @Override
+        public void serialize(BodyRef ref, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            String body = BodyLoader.load(ref);
+            if (body == null) gen.writeNull();
+            else gen.writeString(body);
+        }
+    }
+
+    @JsonIgnoreProperties({"bodyRef", "fingerprint"})
+    private abstract static class WithoutBody {
+    }
+
+    @JsonIgnoreProperties({"classes"})
+    private abstract static class WithoutClasses {
+    }
+
+    /** How {@link #writeProject} lays out a project. */
+    public enum Layout {
+        PRETTY, COMPACT,
+        /** One line with the project's own fields, then one line per class. */
+        NDJSON;
+
+        /** {@code "pretty"} (the default when null), {@code "compact"} or {@code "ndjson"}, case-insensitive. */
+        public static Layout of(String name) {
+            if (name == null || name.isBlank()) return PRETTY;
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown JSON layout '" + name + "', expected pretty, compact or ndjson");
+            }
+        }
+    }
+
     public static String toJson(Object o){
         try { return M.writerWithDefaultPrettyPrinter().writeValueAsString(o);}
         catch(Exception e){ return "{}"; }
     }
+    public static void write(Path p, Object o) throws IOException {
+        M.writeValue(p.toFile(), o);
+    }
+    /** Pretty-print {@code o} to {@code out} without closing it (e.g. an open zip entry). */
+    public static void write(OutputStream out, Object o) throws IOException {
+        write(out, o, Layout.PRETTY);
+    }
+    /** Like {@link #write(OutputStream, Object)}; anything but {@link Layout#PRETTY} is written on one line. */
+    public static void write(OutputStream out, Object o, Layout layout) throws IOException {
+        (layout == Layout.PRETTY ? M.writerWithDefaultPrettyPrinter() : M.writer()).writeValue(out, o);
+    }
+
+    /**
+     * Serialise {@code pm} straight to {@code out}, which is left open; nothing is built up in
+     * memory, and in {@link Layout#NDJSON} each class is a separate value on its own line.
+     * Bodies are loaded from the sources one method at a time as they are written.
+     */
+    public static void writeProject(OutputStream out, ProjectMetadata pm, Layout layout, boolean includeBodies) throws IOException {
+        ObjectMapper mapper = includeBodies ? WITH_BODIES : WITHOUT_BODIES;
+        if (layout != Layout.NDJSON) {
+            ObjectWriter w = layout == Layout.PRETTY ? mapper.writerWithDefaultPrettyPrinter() : mapper.writer();
+            w.writeValue(out, pm);
+            return;
+        }
+        try (JsonGenerator gen = mapper.getFactory().createGenerator(out)) {
+            gen.setRootValueSeparator(new SerializedString("\n"));
+            HEADER.writeValue(gen, pm);
+            if (pm.getClasses() != null) {
+                ObjectWriter w = mapper.writerFor(ClassMetadata.class);
+                for (ClassMetadata c : pm.getClasses()) w.writeValue(gen, c);
+            }
+            gen.writeRaw('\n');
+        }
+    }
+
+    public static JsonNode readTree(String json) throws IOException {
+        return M.readTree(json);
+    }
+    public static <T> T read(Path p, Class<T> type) throws IOException {
+        return M.readValue(p.toFile(), type);
+    }
 }
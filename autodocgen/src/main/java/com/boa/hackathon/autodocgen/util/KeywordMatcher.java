@@ -0,0 +1,127 @@
+package com.boa.hackathon.autodocgen.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Aho-Corasick matcher over a fixed keyword dictionary. Matching is case-insensitive
+ * substring search (same semantics as {@code text.toLowerCase().contains(keyword)}), but
+ * all keywords are found in one pass over the text without copying it.
+ */
+public class KeywordMatcher {
+
+    private static final int ALPHABET = 128;
+
+    private final String[] keywords;
+    private final int[] delta;        // full transition table, ALPHABET entries per state
+    private final int[][] outputs;    // keyword indexes recognised when entering a state
+
+    public KeywordMatcher(List<String> dictionary) {
+        this.keywords = dictionary.stream()
+                .map(k -> k.trim().toLowerCase(Locale.ROOT))
+                .filter(k -> !k.isEmpty())
+                .distinct()
+                .toArray(String[]::new);
+
+        // 1. trie
+        List<int[]> trie = new ArrayList<>();
+        List<int[]> out = new ArrayList<>();
+        trie.add(newState());
+        out.add(new int[0]);
+        for (int k = 0; k < keywords.length; k++) {
+            int state = 0;
+            for (char ch : keywords[k].toCharArray()) {
+                if (ch >= ALPHABET) throw new IllegalArgumentException("Keyword must be ASCII: " + keywords[k]);
+                int next = trie.get(state)[ch];
+                if (next < 0) {
+                    next = trie.size();
+                    trie.get(state)[ch] = next;
+                    trie.add(newState());
+                    out.add(new int[0]);
+                }
+                state = next;
+            }
+            int[] o = out.get(state);
+            o = Arrays.copyOf(o, o.length + 1);
+            o[o.length - 1] = k;
+            out.set(state, o);
+        }
+
+        // 2. failure links, folded into a complete DFA (breadth first)
+        int states = trie.size();
+        int[] fail = new int[states];
+        this.delta = new int[states * ALPHABET];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int ch = 0; ch < ALPHABET; ch++) {
+            int next = trie.get(0)[ch];
+            if (next < 0) {
+                delta[ch] = 0;
+            } else {
+                delta[ch] = next;
+                fail[next] = 0;
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int[] inherited = out.get(fail[state]);
+            if (inherited.length > 0) {
+                int[] own = out.get(state);
+                int[] merged = Arrays.copyOf(own, own.length + inherited.length);
+                System.arraycopy(inherited, 0, merged, own.length, inherited.length);
+                out.set(state, merged);
+            }
+            for (int ch = 0; ch < ALPHABET; ch++) {
+                int next = trie.get(state)[ch];
+                if (next < 0) {
+                    delta[state * ALPHABET + ch] = delta[fail[state] * ALPHABET + ch];
+                } else {
+                    delta[state * ALPHABET + ch] = next;
+                    fail[next] = delta[fail[state] * ALPHABET + ch];
+                    queue.add(next);
+                }
+            }
+        }
+        this.outputs = out.toArray(new int[0][]);
+    }
+
+    private static int[] newState() {
+        int[] s = new int[ALPHABET];
+        Arrays.fill(s, -1);
+        return s;
+    }
+
+    public int size() {
+        return keywords.length;
+    }
+
+    /**
+     * Keywords occurring anywhere in {@code text[from, to)}, in dictionary order.
+     */
+    public List<String> find(CharSequence text, int from, int to) {
+        boolean[] seen = new boolean[keywords.length];
+        int remaining = keywords.length;
+        int state = 0;
+        for (int i = Math.max(0, from), end = Math.min(to, text.length()); i < end && remaining > 0; i++) {
+            char ch = text.charAt(i);
+            if (ch >= 'A' && ch <= 'Z') ch += 'a' - 'A';
+            state = ch < ALPHABET ? delta[state * ALPHABET + ch] : 0;
+            for (int k : outputs[state]) {
+                if (!seen[k]) {
+                    seen[k] = true;
+                    remaining--;
+                }
+            }
+        }
+        List<String> found = new ArrayList<>();
+        for (int k = 0; k < keywords.length; k++) if (seen[k]) found.add(keywords[k]);
+        return found;
+    }
+
+    public List<String> find(CharSequence text) {
+        return find(text, 0, text.length());
+    }
+}
@@ -0,0 +1,109 @@
+package com.boa.hackathon.autodocgen.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing {@code long -> int} map with linear probing, for counting hashed keys
+ * without boxing. Not thread-safe.
+ */
+public class LongIntHashMap {
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int size;
+    private int resizeAt;
+
+    public LongIntHashMap() {
+        this(16);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        int cap = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(cap);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** The value for {@code key}, or {@code missing} when absent. */
+    public int get(long key, int missing) {
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) return values[i];
+        }
+        return missing;
+    }
+
+    /**
+     * Associate {@code value} with {@code key} unless it already has one.
+     *
+     * @return the existing value, or {@code value} if it was inserted
+     */
+    public int putIfAbsent(long key, int value) {
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        for (; used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) return values[i];
+        }
+        used[i] = true;
+        keys[i] = key;
+        values[i] = value;
+        if (++size > resizeAt) grow();
+        return value;
+    }
+
+    /**
+     * Add {@code delta} to the value for {@code key}, treating an absent key as zero.
+     *
+     * @return the new value
+     */
+    public int addTo(long key, int delta) {
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        for (; used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) return values[i] += delta;
+        }
+        used[i] = true;
+        keys[i] = key;
+        values[i] = delta;
+        if (++size > resizeAt) grow();
+        return delta;
+    }
+
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(keys.length * 2);
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (!oldUsed[j]) continue;
+            int i = slot(oldKeys[j], mask);
+            while (used[i]) i = (i + 1) & mask;
+            used[i] = true;
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
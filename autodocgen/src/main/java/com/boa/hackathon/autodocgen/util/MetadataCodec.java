@@ -0,0 +1,273 @@
+package com.boa.hackathon.autodocgen.util;
+
+import com.boa.hackathon.autodocgen.model.BodyFingerprint;
+import com.boa.hackathon.autodocgen.model.BodyRef;
+import com.boa.hackathon.autodocgen.model.ClassMetadata;
+import com.boa.hackathon.autodocgen.model.MethodMeta;
+import com.boa.hackathon.autodocgen.model.ParamMeta;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Compact binary form of one file's parsed classes, for the parse cache. Numbers are varints,
+ * and every string is written once per file and then referred to by index, so type names,
+ * imports and annotations repeated across methods cost a byte or two each.
+ * <p>
+ * Only what parsing produces is stored: AI descriptions are not, and the file path (in
+ * {@code extra.filePath} and each {@link BodyRef}) is supplied on decode, since the same blob
+ * can be checked out under different paths. Bump {@link #VERSION} whenever the layout or the
+ * parsed model changes.
+ */
+public class MetadataCodec {
+
+    public static final int VERSION = 1;
+
+    public static void encode(List<ClassMetadata> classes, DataOutput out) throws IOException {
+        Writer w = new Writer(out);
+        w.varint(classes.size());
+        for (ClassMetadata c : classes) {
+            w.string(c.getClassName());
+            w.string(c.getPackageName());
+            w.string(c.getType());
+            w.string(c.getBasePath());
+            w.string(c.getComment());
+            w.strings(c.getImports());
+            w.strings(c.getFields());
+            Map<String, String> fieldTypes = c.getFieldTypes() == null ? Map.of() : c.getFieldTypes();
+            w.varint(fieldTypes.size());
+            for (Map.Entry<String, String> e : fieldTypes.entrySet()) {
+                w.string(e.getKey());
+                w.string(e.getValue());
+            }
+            List<MethodMeta> methods = c.getMethods() == null ? List.of() : c.getMethods();
+            w.varint(methods.size());
+            for (MethodMeta m : methods) method(w, m);
+        }
+    }
+
+    public static List<ClassMetadata> decode(DataInput in, String filePath) throws IOException {
+        Reader r = new Reader(in);
+        int count = r.varint();
+        List<ClassMetadata> classes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ClassMetadata c = new ClassMetadata();
+            c.setClassName(r.string());
+            c.setPackageName(r.string());
+            c.setType(r.string());
+            c.setBasePath(r.string());
+            c.setComment(r.string());
+            c.setImports(r.strings());
+            c.setFields(r.strings());
+            int fields = r.varint();
+            Map<String, String> fieldTypes = new LinkedHashMap<>();
+            for (int f = 0; f < fields; f++) fieldTypes.put(r.string(), r.string());
+            c.setFieldTypes(fieldTypes);
+            int methods = r.varint();
+            List<MethodMeta> list = new ArrayList<>(methods);
+            for (int m = 0; m < methods; m++) list.add(method(r, filePath));
+            c.setMethods(list);
+            Map<String, Object> extra = new HashMap<>();
+            extra.put("filePath", filePath);
+            c.setExtra(extra);
+            classes.add(c);
+        }
+        return classes;
+    }
+
+    private static void method(Writer w, MethodMeta m) throws IOException {
+        w.string(m.getName());
+        w.strings(m.getParams());
+        w.string(m.getReturnType());
+        w.strings(m.getRepositoryCalls());
+        w.strings(m.getRepositoryScopes());
+        w.strings(m.getDomainKeywords());
+        w.string(m.getComment());
+        w.varint(m.getBeginLine());
+        w.varint(m.getEndLine());
+        w.string(m.getEndpoint());
+        w.string(m.getHttpMethod());
+        if (m.getHttpParams() == null) {
+            w.varint(0);
+        } else {
+            w.varint(m.getHttpParams().size() + 1);
+            for (ParamMeta p : m.getHttpParams()) {
+                w.string(p.getName());
+                w.string(p.getIn());
+                w.string(p.getType());
+                w.out.writeBoolean(p.isRequired());
+            }
+        }
+        BodyRef b = m.getBodyRef();
+        w.out.writeBoolean(b != null);
+        if (b != null) {
+            w.varlong(b.getOffset());
+            w.varint(b.getLength());
+            w.varint(b.getBeginLine());
+            w.varint(b.getEndLine());
+            w.out.writeLong(b.getHash());
+        }
+        BodyFingerprint fp = m.getFingerprint();
+        w.out.writeBoolean(fp != null);
+        if (fp != null) {
+            w.varint(fp.getTokenCount());
+            w.out.writeLong(fp.getExactHash());
+            w.out.writeLong(fp.getNormalizedHash());
+            long[] hashes = fp.getHashes() == null ? new long[0] : fp.getHashes();
+            w.varint(hashes.length);
+            for (long h : hashes) w.out.writeLong(h);
+            w.ints(fp.getOffsets());
+            w.ints(fp.getLines());
+        }
+    }
+
+    private static MethodMeta method(Reader r, String filePath) throws IOException {
+        MethodMeta m = new MethodMeta();
+        m.setName(r.string());
+        m.setParams(r.strings());
+        m.setReturnType(r.string());
+        m.setRepositoryCalls(r.strings());
+        m.setRepositoryScopes(r.strings());
+        m.setDomainKeywords(r.strings());
+        m.setComment(r.string());
+        m.setBeginLine(r.varint());
+        m.setEndLine(r.varint());
+        m.setEndpoint(r.string());
+        m.setHttpMethod(r.string());
+        int params = r.varint();
+        if (params > 0) {
+            List<ParamMeta> list = new ArrayList<>(params - 1);
+            for (int i = 1; i < params; i++) list.add(new ParamMeta(r.string(), r.string(), r.string(), r.in.readBoolean()));
+            m.setHttpParams(list);
+        }
+        if (r.in.readBoolean()) {
+            m.setBodyRef(new BodyRef(filePath, r.varlong(), r.varint(), r.varint(), r.varint(), r.in.readLong()));
+        }
+        if (r.in.readBoolean()) {
+            BodyFingerprint fp = new BodyFingerprint();
+            fp.setTokenCount(r.varint());
+            fp.setExactHash(r.in.readLong());
+            fp.setNormalizedHash(r.in.readLong());
+            long[] hashes = new long[r.varint()];
+            for (int i = 0; i < hashes.length; i++) hashes[i] = r.in.readLong();
+            fp.setHashes(hashes);
+            fp.setOffsets(r.ints());
+            fp.setLines(r.ints());
+            m.setFingerprint(fp);
+        }
+        return m;
+    }
+
+    private static final class Writer {
+        final DataOutput out;
+        final Map<String, Integer> seen = new HashMap<>();
+
+        Writer(DataOutput out) {
+            this.out = out;
+        }
+
+        void varint(int v) throws IOException {
+            varlong(v & 0xffffffffL);
+        }
+
+        void varlong(long v) throws IOException {
+            while ((v & ~0x7fL) != 0) {
+                out.writeByte((int) (v & 0x7f) | 0x80);
+                v >>>= 7;
+            }
+            out.writeByte((int) v);
+        }
+
+        /** 0 for null, 1 followed by the text for a new string, index + 2 for a repeated one. */
+        void string(String s) throws IOException {
+            if (s == null) {
+                varint(0);
+                return;
+            }
+            Integer index = seen.get(s);
+            if (index != null) {
+                varint(index + 2);
+                return;
+            }
+            seen.put(s, seen.size());
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            varint(1);
+            varint(bytes.length);
+            out.write(bytes);
+        }
+
+        void strings(List<String> list) throws IOException {
+            if (list == null) {
+                varint(0);
+                return;
+            }
+            varint(list.size() + 1);
+            for (String s : list) string(s);
+        }
+
+        void ints(int[] a) throws IOException {
+            if (a == null) {
+                varint(0);
+                return;
+            }
+            varint(a.length + 1);
+            for (int v : a) varint(v);
+        }
+    }
+
+    private static final class Reader {
+        final DataInput in;
+        final List<String> seen = new ArrayList<>();
+
+        Reader(DataInput in) {
+            this.in = in;
+        }
+
+        int varint() throws IOException {
+            return (int) varlong();
+        }
+
+        long varlong() throws IOException {
+            long v = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = in.readByte();
+                v |= (long) (b & 0x7f) << shift;
+                if ((b & 0x80) == 0) return v;
+            }
+            throw new IOException("Malformed varint");
+        }
+
+        String string() throws IOException {
+            int tag = varint();
+            if (tag == 0) return null;
+            if (tag > 1) {
+                if (tag - 2 >= seen.size()) throw new IOException("Bad string reference " + (tag - 2));
+                return seen.get(tag - 2);
+            }
+            byte[] bytes = new byte[varint()];
+            in.readFully(bytes);
+            String s = new String(bytes, StandardCharsets.UTF_8);
+            seen.add(s);
+            return s;
+        }
+
+        List<String> strings() throws IOException {
+            int n = varint();
+            if (n == 0) return null;
+            List<String> list = new ArrayList<>(n - 1);
+            for (int i = 1; i < n; i++) list.add(string());
+            return list;
+        }
+
+        int[] ints() throws IOException {
+            int n = varint();
+            if (n == 0) return null;
+            int[] a = new int[n - 1];
+            for (int i = 0; i < a.length; i++) a[i] = varint();
+            return a;
+        }
+    }
+}
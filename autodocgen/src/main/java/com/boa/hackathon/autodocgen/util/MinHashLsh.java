@@ -0,0 +1,150 @@
+package com.boa.hackathon.autodocgen.util;
+
+import java.util.*;
+
+/**
+ * MinHash signatures with banded locality-sensitive hashing, for finding pairs of sets whose
+ * Jaccard similarity is likely to reach a threshold without comparing every pair.
+ * <p>
+ * Sets are sorted, distinct {@code int} token ids. Band size is chosen so the LSH curve's
+ * midpoint sits well below the threshold, trading a few extra candidates for recall; callers
+ * confirm candidates with {@link #jaccard(int[], int[])}.
+ */
+public class MinHashLsh {
+
+    /** Members a band bucket takes before further ones are skipped in that band. */
+    public static final int MAX_BUCKET_SIZE = 256;
+
+    private final int bands;
+    private final int rows;
+    private final long[] seeds;
+
+    public MinHashLsh(double threshold, int numHashes, long seed) {
+        if (threshold <= 0 || threshold > 1) throw new IllegalArgumentException("threshold must be in (0, 1]");
+        // largest rows-per-band whose curve midpoint (1/b)^(1/r) stays at or below 85% of the threshold
+        int r = 1;
+        for (int cand = 1; cand <= numHashes; cand++) {
+            int b = numHashes / cand;
+            if (Math.pow(1.0 / b, 1.0 / cand) <= threshold * 0.85) r = cand;
+        }
+        this.rows = r;
+        this.bands = numHashes / r;
+        this.seeds = new long[bands * rows];
+        SplittableRandom rnd = new SplittableRandom(seed);
+        for (int i = 0; i < seeds.length; i++) seeds[i] = rnd.nextLong();
+    }
+
+    public int getBands() {
+        return bands;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public long[] signature(int[] tokens) {
+        long[] sig = new long[seeds.length];
+        Arrays.fill(sig, Long.MAX_VALUE);
+        for (int t : tokens) {
+            for (int i = 0; i < seeds.length; i++) {
+                long h = mix(t ^ seeds[i]);
+                if (h < sig[i]) sig[i] = h;
+            }
+        }
+        return sig;
+    }
+
+    /**
+     * Pairs of indexes into {@code signatures} that share at least one band, each encoded as
+     * {@code (long) i << 32 | j} with {@code i < j}, sorted and distinct. Null signatures
+     * (empty sets) never pair.
+     * <p>
+     * A signature equal to an earlier one is paired with that one only and left out of the
+     * banding, so a large group of identical sets (hundreds of getters) costs one pair per
+     * member instead of one per pair of members and band. Within a band, a bucket stops taking
+     * members at {@link #MAX_BUCKET_SIZE}; the rest can still meet in other bands.
+     */
+    public long[] candidates(List<long[]> signatures) {
+        long[] pairs = new long[Math.max(16, signatures.size())];
+        int n = 0;
+        Map<Signature, Integer> firstWith = new HashMap<>();
+        boolean[] duplicate = new boolean[signatures.size()];
+        for (int i = 0; i < signatures.size(); i++) {
+            long[] sig = signatures.get(i);
+            if (sig == null) continue;
+            Integer first = firstWith.putIfAbsent(new Signature(sig), i);
+            if (first == null) continue;
+            duplicate[i] = true;
+            if (n == pairs.length) pairs = Arrays.copyOf(pairs, n * 2);
+            pairs[n++] = (long) first << 32 | i;
+        }
+        for (int band = 0; band < bands; band++) {
+            Map<Long, int[]> buckets = new HashMap<>(); // band hash -> {size, members...}
+            for (int i = 0; i < signatures.size(); i++) {
+                long[] sig = signatures.get(i);
+                if (sig == null || duplicate[i]) continue;
+                long key = band;
+                for (int r = 0; r < rows; r++) key = mix(key * 31 + sig[band * rows + r]);
+                int[] bucket = buckets.get(key);
+                if (bucket == null) {
+                    buckets.put(key, new int[]{1, i, 0, 0});
+                    continue;
+                }
+                int size = bucket[0];
+                if (size >= MAX_BUCKET_SIZE) continue;
+                for (int k = 1; k <= size; k++) {
+                    if (n == pairs.length) pairs = Arrays.copyOf(pairs, n * 2);
+                    pairs[n++] = (long) bucket[k] << 32 | i;
+                }
+                if (size + 1 == bucket.length) {
+                    bucket = Arrays.copyOf(bucket, bucket.length * 2);
+                    buckets.put(key, bucket);
+                }
+                bucket[++bucket[0]] = i;
+            }
+        }
+        Arrays.sort(pairs, 0, n);
+        int distinct = 0;
+        for (int k = 0; k < n; k++) {
+            if (distinct == 0 || pairs[k] != pairs[distinct - 1]) pairs[distinct++] = pairs[k];
+        }
+        return Arrays.copyOf(pairs, distinct);
+    }
+
+    private record Signature(long[] values) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Signature other && Arrays.equals(values, other.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(values);
+        }
+    }
+
+    /** Jaccard similarity of two sorted, distinct id arrays. */
+    public static double jaccard(int[] a, int[] b) {
+        if (a.length == 0 || b.length == 0) return 0.0;
+        int i = 0, j = 0, inter = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                inter++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (double) inter / (a.length + b.length - inter);
+    }
+
+    // splitmix64 finaliser
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
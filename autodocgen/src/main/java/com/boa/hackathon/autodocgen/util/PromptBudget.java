@@ -0,0 +1,93 @@
+package com.boa.hackathon.autodocgen.util;
+
+import java.util.List;
+
+/**
+ * Builds a prompt under an input token budget. Sections are appended in priority order; once
+ * the budget runs out, lists are cut short with a "+N more" marker and free text is truncated,
+ * so the most important context always survives. The footer (answer format) is reserved up
+ * front and always included.
+ */
+public class PromptBudget {
+
+    private static final String TRUNCATED = "\n... (truncated)";
+
+    private final int budget;
+    private final String footer;
+    private final StringBuilder sb = new StringBuilder();
+    private int used;
+
+    public PromptBudget(int budget, String header, String footer) {
+        this.budget = budget;
+        this.footer = footer;
+        this.used = TokenEstimator.estimate(footer);
+        sb.append(header);
+        used += TokenEstimator.estimate(header);
+    }
+
+    public int remaining() {
+        return Math.max(0, budget - used);
+    }
+
+    /** Append a short line if it fits; returns false when it does not. */
+    public boolean line(String label, Object value) {
+        String text = label + ": " + value + "\n";
+        int cost = TokenEstimator.estimate(text);
+        if (cost > remaining()) return false;
+        sb.append(text);
+        used += cost;
+        return true;
+    }
+
+    /** Append as many list items as fit, then a count of the ones left out. */
+    public void list(String label, List<String> items) {
+        String head = label + ": [";
+        sb.append(head);
+        used += TokenEstimator.estimate(head);
+        int i = 0;
+        for (; i < items.size(); i++) {
+            String item = (i > 0 ? ", " : "") + items.get(i);
+            int cost = TokenEstimator.estimate(item);
+            // keep a few tokens for the "+N more" marker
+            if (cost + 4 > remaining()) break;
+            sb.append(item);
+            used += cost;
+        }
+        if (i < items.size()) {
+            String more = (i > 0 ? ", " : "") + "+" + (items.size() - i) + " more";
+            sb.append(more);
+            used += TokenEstimator.estimate(more);
+        }
+        sb.append("]\n");
+        used += 1;
+    }
+
+    /** Append free text (e.g. a method body), truncated to whatever budget is left. */
+    public void text(String label, String text) {
+        if (text == null || text.isBlank()) return;
+        int avail = remaining() - TokenEstimator.estimate(label) - 4;
+        if (avail <= 0) return;
+        int cost = TokenEstimator.estimate(text);
+        String body = text;
+        if (cost > avail) {
+            avail -= TokenEstimator.estimate(TRUNCATED);
+            if (avail <= 0) return;
+            // proportional cut, then trim until it fits
+            int cut = (int) ((long) text.length() * avail / cost);
+            body = text.substring(0, cut);
+            while (!body.isEmpty() && TokenEstimator.estimate(body) > avail) body = body.substring(0, body.length() * 9 / 10);
+            body = body + TRUNCATED;
+        }
+        String section = label + ":\n" + body + "\n";
+        sb.append(section);
+        used += TokenEstimator.estimate(section);
+    }
+
+    public int estimatedTokens() {
+        return used;
+    }
+
+    public String build() {
+        return sb + footer;
+    }
+}
@@ -0,0 +1,85 @@
+package com.boa.hackathon.autodocgen.util;
+
+import com.github.javaparser.Position;
+import com.github.javaparser.Range;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * A source file loaded once, with a line index so JavaParser {@link Range}s can be turned
+ * into character offsets, and those into UTF-8 byte offsets in the file. Assumes the parser's
+ * default tab size of 1, and well-formed UTF-8 (a replaced malformed sequence shifts the byte
+ * offsets after it).
+ */
+public class SourceText {
+
+    private final String text;
+    private final int[] lineStarts;
+    private final long[] lineByteStarts;
+
+    public SourceText(String text) {
+        this.text = text;
+        int[] starts = new int[64];
+        long[] byteStarts = new long[64];
+        int lines = 1;
+        long bytes = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char ch = text.charAt(i);
+            bytes += utf8Length(ch);
+            boolean eol = ch == '\n' || (ch == '\r' && (i + 1 == n || text.charAt(i + 1) != '\n'));
+            if (eol) {
+                if (lines == starts.length) {
+                    starts = Arrays.copyOf(starts, lines * 2);
+                    byteStarts = Arrays.copyOf(byteStarts, lines * 2);
+                }
+                byteStarts[lines] = bytes;
+                starts[lines++] = i + 1;
+            }
+        }
+        this.lineStarts = Arrays.copyOf(starts, lines);
+        this.lineByteStarts = Arrays.copyOf(byteStarts, lines);
+    }
+
+    public static SourceText read(Path p) throws IOException {
+        return new SourceText(new String(Files.readAllBytes(p), StandardCharsets.UTF_8));
+    }
+
+    public String text() {
+        return text;
+    }
+
+    public int offset(Position pos) {
+        int line = Math.min(Math.max(pos.line, 1), lineStarts.length);
+        return Math.min(lineStarts[line - 1] + Math.max(pos.column, 1) - 1, text.length());
+    }
+
+    /** Start offset of {@code range}. */
+    public int begin(Range range) {
+        return offset(range.begin);
+    }
+
+    /** UTF-8 byte offset in the file of character offset {@code offset}. */
+    public long byteOffset(int offset) {
+        int line = Arrays.binarySearch(lineStarts, offset);
+        if (line < 0) line = -line - 2; // the line containing offset
+        long bytes = lineByteStarts[line];
+        for (int i = lineStarts[line]; i < offset; i++) bytes += utf8Length(text.charAt(i));
+        return bytes;
+    }
+
+    // a surrogate pair is four bytes, counted as two for each half
+    private static int utf8Length(char ch) {
+        if (ch < 0x80) return 1;
+        if (ch < 0x800 || Character.isSurrogate(ch)) return 2;
+        return 3;
+    }
+
+    /** Exclusive end offset of {@code range} (JavaParser end positions are inclusive). */
+    public int end(Range range) {
+        return Math.min(offset(range.end) + 1, text.length());
+    }
+}
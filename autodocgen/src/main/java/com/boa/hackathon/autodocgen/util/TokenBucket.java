@@ -0,0 +1,42 @@
+package com.boa.hackathon.autodocgen.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token-bucket rate limiter. Callers reserve a token under a short lock and then sleep outside
+ * it, so waiting virtual threads never pin their carrier.
+ */
+public class TokenBucket {
+
+    private final double ratePerNano;
+    private final double capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+    private double tokens;
+    private long last;
+
+    public TokenBucket(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0) throw new IllegalArgumentException("permitsPerSecond must be > 0");
+        this.ratePerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = Math.max(1, burst);
+        this.tokens = capacity;
+        this.last = System.nanoTime();
+    }
+
+    /** Block until a token is available. */
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - last) * ratePerNano);
+            last = now;
+            tokens -= 1;
+            // a negative balance is a reservation: wait until it would have been refilled
+            waitNanos = tokens >= 0 ? 0 : (long) Math.ceil(-tokens / ratePerNano);
+        } finally {
+            lock.unlock();
+        }
+        if (waitNanos > 0) TimeUnit.NANOSECONDS.sleep(waitNanos);
+    }
+}
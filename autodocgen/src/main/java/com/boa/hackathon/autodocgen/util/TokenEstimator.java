@@ -0,0 +1,28 @@
+package com.boa.hackathon.autodocgen.util;
+
+/**
+ * Cheap local token count for BPE-style tokenizers: a letter/digit run costs about one token per
+ * four characters, every other visible character costs one, whitespace is free. Good to within
+ * roughly 15% on code and English prose, which is all the prompt budgeting needs.
+ */
+public class TokenEstimator {
+
+    private static final int CHARS_PER_TOKEN = 4;
+
+    public static int estimate(CharSequence s) {
+        if (s == null) return 0;
+        int tokens = 0;
+        int run = 0;
+        for (int i = 0, n = s.length(); i < n; i++) {
+            char ch = s.charAt(i);
+            if (Character.isLetterOrDigit(ch)) {
+                run++;
+                continue;
+            }
+            tokens += (run + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+            run = 0;
+            if (!Character.isWhitespace(ch)) tokens++;
+        }
+        return tokens + (run + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+}
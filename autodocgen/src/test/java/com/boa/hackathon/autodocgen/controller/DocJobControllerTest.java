@@ -0,0 +1,108 @@
+package com.boa.hackathon.autodocgen.controller;
+
+import com.boa.hackathon.autodocgen.model.DocRequest;
+import com.boa.hackathon.autodocgen.service.DocGeneratorService;
+import com.boa.hackathon.autodocgen.service.DocJobService;
+import com.boa.hackathon.autodocgen.service.DocPipelineService;
+import com.boa.hackathon.autodocgen.service.PipelineProgress;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Drives the job endpoints against a pipeline stub that holds every run until released.
+ */
+class DocJobControllerTest {
+
+    private static final String REQUEST = "{\"url\":\"https://github.com/a/b\"}";
+
+    @TempDir
+    Path tmp;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private DocJobService jobService;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        DocPipelineService pipeline = new DocPipelineService(null, null, null, null) {
+            @Override
+            public File run(DocRequest req, PipelineProgress progress) throws Exception {
+                if (!release.await(10, TimeUnit.SECONDS)) throw new IllegalStateException("not released");
+                Path zip = Files.createDirectories(tmp.resolve(UUID.randomUUID().toString())).resolve("b-docs.zip");
+                return Files.writeString(zip, "zip bytes").toFile();
+            }
+        };
+        jobService = new DocJobService(pipeline, 1, 1, 100, 1440, new SimpleMeterRegistry());
+        DocJobController controller = new DocJobController();
+        ReflectionTestUtils.setField(controller, "jobService", jobService);
+        ReflectionTestUtils.setField(controller, "docGeneratorService", new DocGeneratorService(null, List.of(), 1));
+        mvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        ReflectionTestUtils.invokeMethod(jobService, "shutdown");
+    }
+
+    @Test
+    void rejectsJobsWithRetryAfterWhenWorkersAndQueueAreFull() throws Exception {
+        submit().andExpect(status().isAccepted()); // running
+        submit().andExpect(status().isAccepted()); // queued
+
+        submit().andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "30"));
+        assertEquals(1, jobService.queueDepth());
+    }
+
+    @Test
+    void statusAndDownloadFollowTheJob() throws Exception {
+        MvcResult submitted = submit()
+                .andExpect(status().isAccepted())
+                .andReturn();
+        String location = submitted.getResponse().getHeader(HttpHeaders.LOCATION);
+        assertNotNull(location);
+        String id = location.substring(location.lastIndexOf('/') + 1);
+
+        mvc.perform(get(location)).andExpect(status().isOk()).andExpect(jsonPath("$.id").value(id));
+        mvc.perform(get(location + "/download")).andExpect(status().isConflict());
+
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!jobService.get(id).orElseThrow().isFinished() && System.nanoTime() < deadline) Thread.sleep(20);
+
+        mvc.perform(get(location)).andExpect(jsonPath("$.status").value("SUCCEEDED"));
+        mvc.perform(get(location + "/download"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"b-docs.zip\""))
+                .andExpect(content().string("zip bytes"));
+        mvc.perform(get("/api/doc/jobs/unknown")).andExpect(status().isNotFound());
+    }
+
+    private ResultActions submit() throws Exception {
+        return mvc.perform(post("/api/doc/jobs").contentType(MediaType.APPLICATION_JSON).content(REQUEST));
+    }
+}
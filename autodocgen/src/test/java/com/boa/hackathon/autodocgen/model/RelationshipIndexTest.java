@@ -0,0 +1,63 @@
+package com.boa.hackathon.autodocgen.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RelationshipIndexTest {
+
+    @Test
+    void resolvesFieldTypesThroughImportsAndPackage() {
+        ClassMetadata webOrder = cls("shop.web", "Order", Map.of(), List.of());
+        ClassMetadata modelOrder = cls("shop.model", "Order", Map.of(), List.of());
+        ClassMetadata repo = cls("shop.repo", "OrderRepository", Map.of(), List.of());
+        ClassMetadata service = cls("shop.service", "OrderService",
+                Map.of("orderRepository", "OrderRepository", "recent", "List<Order>"),
+                List.of("shop.model.Order", "shop.repo.*"));
+        RelationshipIndex idx = RelationshipIndex.build(List.of(webOrder, modelOrder, repo, service));
+
+        assertSame(modelOrder, idx.resolve(service, "Order").orElseThrow(), "single-type import wins");
+        assertSame(webOrder, idx.resolve(webOrder, "Order").orElseThrow(), "same package");
+        assertSame(repo, idx.resolve(service, "OrderRepository").orElseThrow(), "unique simple name");
+        assertTrue(idx.resolve(repo, "Order").isEmpty(), "ambiguous without an import");
+        assertEquals(2, idx.bySimpleName("Order").size());
+        assertEquals(1, idx.byLowerCaseName("orderrepository").size());
+        assertEquals(2, idx.outgoing(service).size());
+    }
+
+    @Test
+    void mergesRepeatedCallsIntoOneWeightedEdge() {
+        ClassMetadata repo = cls("shop", "OrderRepository", Map.of(), List.of());
+        ClassMetadata service = cls("shop", "OrderService", Map.of("orders", "OrderRepository"), List.of());
+        MethodMeta place = new MethodMeta();
+        place.setParams(List.of());
+        place.setRepositoryScopes(List.of("orders", "this.orders", "orderRepository"));
+        MethodMeta cancel = new MethodMeta();
+        cancel.setParams(List.of("OrderRepository r"));
+        cancel.setRepositoryScopes(List.of("r"));
+        service.setMethods(List.of(place, cancel));
+
+        RelationshipIndex idx = RelationshipIndex.build(List.of(repo, service));
+
+        List<RelationshipIndex.Edge> calls = idx.outgoing(service).stream()
+                .filter(e -> e.getKind() == RelationshipIndex.Kind.CALL).toList();
+        assertEquals(1, calls.size());
+        assertSame(repo, calls.get(0).getTo());
+        assertEquals(4, calls.get(0).getWeight());
+    }
+
+    private static ClassMetadata cls(String pkg, String name, Map<String, String> fieldTypes, List<String> imports) {
+        ClassMetadata c = new ClassMetadata();
+        c.setPackageName(pkg);
+        c.setClassName(name);
+        c.setFieldTypes(new LinkedHashMap<>(fieldTypes));
+        c.setImports(imports);
+        c.setMethods(new ArrayList<>());
+        return c;
+    }
+}
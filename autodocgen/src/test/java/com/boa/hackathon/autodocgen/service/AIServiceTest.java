@@ -0,0 +1,251 @@
+package com.boa.hackathon.autodocgen.service;
+
+import com.boa.hackathon.autodocgen.model.ClassMetadata;
+import com.boa.hackathon.autodocgen.model.MethodMeta;
+import com.boa.hackathon.autodocgen.model.ProjectMetadata;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the enrichment engine against a local stub of the chat completions endpoint that adds
+ * latency and throttles every third request with a 429. Only a prompt's first attempt is ever
+ * throttled, so a retry always gets through however the concurrent calls interleave.
+ */
+class AIServiceTest {
+
+    private static final String REPLY = "{\"choices\":[{\"message\":{\"role\":\"assistant\",\"content\":\"described\"}}]}";
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final Set<String> prompts = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/v1/chat/completions", this::handle);
+        server.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange ex) throws IOException {
+        boolean firstAttempt = prompts.add(new String(ex.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+        int now = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(now, Math::max);
+        try {
+            Thread.sleep(20);
+            if (requests.incrementAndGet() % 3 == 0 && firstAttempt) {
+                ex.sendResponseHeaders(429, -1);
+                return;
+            }
+            byte[] body = REPLY.getBytes(StandardCharsets.UTF_8);
+            ex.getResponseHeaders().set("Content-Type", "application/json");
+            ex.sendResponseHeaders(200, body.length);
+            try (OutputStream out = ex.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+            ex.close();
+        }
+    }
+
+    private LlmClient client(long timeoutMs, int maxRetries) {
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/chat/completions";
+        return new LlmClient(url, "stub-model", "test-key", timeoutMs, maxRetries, 5, 1000, 1000);
+    }
+
+    private static LlmResponseCache noCache() {
+        return new LlmResponseCache(false, "", 0);
+    }
+
+    @Test
+    void enrichesEveryClassAndMethodWithinConcurrencyLimit() {
+        LlmClient llm = client(5_000, 5);
+        AIService ai = new AIService(llm, noCache(), 4, false, 0, 6000, 64);
+        ProjectMetadata pm = project(10, 5);
+
+        ai.enrichProject(pm);
+
+        for (ClassMetadata cm : pm.getClasses()) {
+            assertEquals("described", cm.getAiDescription());
+            cm.getMethods().forEach(mm -> assertEquals("described", mm.getAiDescription()));
+        }
+        assertTrue(maxInFlight.get() <= 4, "max in flight was " + maxInFlight.get());
+        assertTrue(llm.getRetryCount() > 0, "throttled calls should have been retried");
+    }
+
+    @Test
+    void timedOutCallsLeaveDescriptionUnset() throws Exception {
+        server.removeContext("/v1/chat/completions");
+        server.createContext("/v1/chat/completions", ex -> {
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            ex.sendResponseHeaders(500, -1);
+            ex.close();
+        });
+        AIService ai = new AIService(client(100, 1), noCache(), 2, false, 0, 6000, 64);
+        ProjectMetadata pm = project(1, 1);
+
+        ai.enrichProject(pm);
+
+        assertNull(pm.getClasses().get(0).getAiDescription());
+        assertNull(pm.getClasses().get(0).getMethods().get(0).getAiDescription());
+    }
+
+    @Test
+    void emptyRepliesAreNeitherUsedNorCached(@TempDir Path dir) {
+        server.removeContext("/v1/chat/completions");
+        server.createContext("/v1/chat/completions", ex -> {
+            ex.getRequestBody().readAllBytes();
+            requests.incrementAndGet();
+            byte[] body = "{\"choices\":[]}".getBytes(StandardCharsets.UTF_8);
+            ex.getResponseHeaders().set("Content-Type", "application/json");
+            ex.sendResponseHeaders(200, body.length);
+            try (OutputStream out = ex.getResponseBody()) {
+                out.write(body);
+            }
+            ex.close();
+        });
+        LlmResponseCache cache = new LlmResponseCache(true, dir.toString(), 1);
+        AIService ai = new AIService(client(5_000, 0), cache, 2, false, 0, 6000, 64);
+
+        ai.enrichProject(project(1, 1));
+        ProjectMetadata again = project(1, 1);
+        ai.enrichProject(again);
+
+        assertNull(again.getClasses().get(0).getAiDescription());
+        assertNull(again.getClasses().get(0).getMethods().get(0).getAiDescription());
+        assertEquals(0, cache.getHitCount());
+        assertEquals(4, requests.get());
+    }
+
+    @Test
+    void batchedMethodsFallBackToSingleCallsForMissingEntries() {
+        AtomicInteger batchCalls = new AtomicInteger();
+        server.removeContext("/v1/chat/completions");
+        server.createContext("/v1/chat/completions", ex -> {
+            String prompt = new String(ex.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            String content = "described";
+            if (prompt.contains("Reply with JSON only")) {
+                batchCalls.incrementAndGet();
+                // answers only the first method of the batch, wrapped in a code fence
+                content = "```json\\n{\\\"methods\\\":[{\\\"index\\\":0,\\\"sentence\\\":\\\"Saves it.\\\",\\\"sideEffects\\\":\\\"DB write\\\"}]}\\n```";
+            }
+            byte[] body = REPLY.replace("described", content).getBytes(StandardCharsets.UTF_8);
+            ex.getResponseHeaders().set("Content-Type", "application/json");
+            ex.sendResponseHeaders(200, body.length);
+            try (OutputStream out = ex.getResponseBody()) {
+                out.write(body);
+            }
+            ex.close();
+        });
+        AIService ai = new AIService(client(5_000, 0), noCache(), 4, true, 3000, 6000, 64);
+        ProjectMetadata pm = project(2, 3);
+        AtomicInteger planned = new AtomicInteger();
+        AtomicInteger done = new AtomicInteger();
+
+        ai.enrichProject(pm, new PipelineProgress() {
+            @Override
+            public void promptsPlanned(int count) {
+                planned.addAndGet(count);
+            }
+
+            @Override
+            public void promptDone() {
+                done.incrementAndGet();
+            }
+        });
+
+        assertEquals(2, batchCalls.get());
+        assertEquals(8, done.get()); // per class: the class, the batch and two fallbacks
+        assertEquals(done.get(), planned.get());
+        for (ClassMetadata cm : pm.getClasses()) {
+            assertEquals("SENTENCE: Saves it.\nSIDE_EFFECTS: DB write", cm.getMethods().get(0).getAiDescription());
+            assertEquals("described", cm.getMethods().get(1).getAiDescription());
+            assertEquals("described", cm.getMethods().get(2).getAiDescription());
+        }
+    }
+
+    @Test
+    void failedBatchCallIsNotRetriedMethodByMethod() {
+        AtomicInteger singleCalls = new AtomicInteger();
+        server.removeContext("/v1/chat/completions");
+        server.createContext("/v1/chat/completions", ex -> {
+            String prompt = new String(ex.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            if (prompt.contains("Reply with JSON only")) {
+                ex.sendResponseHeaders(429, -1);
+                ex.close();
+                return;
+            }
+            if (prompt.contains("Explain this Java method")) singleCalls.incrementAndGet();
+            byte[] body = REPLY.getBytes(StandardCharsets.UTF_8);
+            ex.getResponseHeaders().set("Content-Type", "application/json");
+            ex.sendResponseHeaders(200, body.length);
+            try (OutputStream out = ex.getResponseBody()) {
+                out.write(body);
+            }
+            ex.close();
+        });
+        AIService ai = new AIService(client(5_000, 1), noCache(), 4, true, 3000, 6000, 64);
+        ProjectMetadata pm = project(2, 3);
+
+        ai.enrichProject(pm);
+
+        assertEquals(0, singleCalls.get());
+        for (ClassMetadata cm : pm.getClasses()) {
+            assertEquals("described", cm.getAiDescription());
+            cm.getMethods().forEach(mm -> assertNull(mm.getAiDescription()));
+        }
+    }
+
+    private static ProjectMetadata project(int classes, int methodsPerClass) {
+        List<ClassMetadata> list = new ArrayList<>();
+        for (int c = 0; c < classes; c++) {
+            ClassMetadata cm = new ClassMetadata();
+            cm.setClassName("C" + c);
+            cm.setType("Service");
+            List<MethodMeta> methods = new ArrayList<>();
+            for (int m = 0; m < methodsPerClass; m++) {
+                MethodMeta mm = new MethodMeta();
+                mm.setName("m" + m);
+                methods.add(mm);
+            }
+            cm.setMethods(methods);
+            list.add(cm);
+        }
+        ProjectMetadata pm = new ProjectMetadata();
+        pm.setProjectName("stub");
+        pm.setClasses(list);
+        return pm;
+    }
+}
@@ -0,0 +1,35 @@
+package com.boa.hackathon.autodocgen.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiagramRendererTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void evictsDiskCacheBeyondTheSizeLimit() throws Exception {
+        DiagramRenderer renderer = new DiagramRenderer(1, true, dir.toString(), 0, 0);
+        byte[] svg = renderer.render("@startuml\nclass A\n@enduml", DiagramRenderer.Format.SVG);
+        assertTrue(svg.length > 0);
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+
+        DiagramRenderer bounded = new DiagramRenderer(1, true, dir.toString(), 0, 16);
+        bounded.render("@startuml\nclass B\n@enduml", DiagramRenderer.Format.SVG);
+        bounded.render("@startuml\nclass B\n@enduml", DiagramRenderer.Format.SVG);
+        assertEquals(1, bounded.getRenderCount());
+        assertEquals(1, bounded.getHitCount());
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(1, files.count());
+        }
+    }
+}
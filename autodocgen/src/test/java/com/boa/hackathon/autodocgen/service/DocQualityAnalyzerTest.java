@@ -0,0 +1,257 @@
+package com.boa.hackathon.autodocgen.service;
+
+import com.boa.hackathon.autodocgen.model.ClassMetadata;
+import com.boa.hackathon.autodocgen.model.MethodMeta;
+import com.boa.hackathon.autodocgen.util.CloneFingerprinter;
+import com.boa.hackathon.autodocgen.util.JsonUtil;
+import com.boa.hackathon.autodocgen.util.MinHashLsh;
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocQualityAnalyzerTest {
+
+    @Test
+    void lshFindsTheSamePairsAsExactComparison() {
+        List<ClassMetadata> classes = syntheticMethods(3000, 7);
+
+        List<Map<String, Object>> exact = DocQualityAnalyzer.detectSimilarMethods(classes, 0.6, Integer.MAX_VALUE);
+        List<Map<String, Object>> lsh = DocQualityAnalyzer.detectSimilarMethods(classes, 0.6, 0);
+
+        Set<String> exactKeys = keys(exact);
+        Set<String> lshKeys = keys(lsh);
+        assertTrue(exact.size() > 100, "fixture should contain similar pairs, had " + exact.size());
+        assertTrue(exactKeys.containsAll(lshKeys), "LSH must not report pairs below the threshold");
+        assertTrue(lshKeys.size() >= exactKeys.size() * 0.95, "recall " + lshKeys.size() + "/" + exactKeys.size());
+    }
+
+    @Test
+    void identicalMethodsPairOncePerMember() {
+        List<ClassMetadata> classes = new ArrayList<>();
+        for (int c = 0; c < 3000; c++) {
+            MethodMeta getter = new MethodMeta();
+            getter.setName("getId");
+            MethodMeta other = new MethodMeta();
+            other.setName("loadOrder" + c);
+            ClassMetadata cm = new ClassMetadata();
+            cm.setClassName("Entity" + c);
+            cm.setMethods(List.of(getter, other));
+            classes.add(cm);
+        }
+
+        List<long[]> signatures = new ArrayList<>();
+        MinHashLsh lsh = new MinHashLsh(0.6, 128, 42);
+        for (int i = 0; i < 3000; i++) signatures.add(lsh.signature(new int[]{1, 2}));
+        assertEquals(2999, lsh.candidates(signatures).length);
+
+        List<Map<String, Object>> lshPairs = DocQualityAnalyzer.detectSimilarMethods(classes, 0.6, 0);
+        long identical = lshPairs.stream().filter(p -> "getId".equals(p.get("methodA")) && "getId".equals(p.get("methodB"))).count();
+        assertEquals(2999, identical);
+        assertEquals(identical, lshPairs.size());
+    }
+
+    @Test
+    void smallInputsReportEveryPairAsBefore() {
+        // A and B identical, C similar to both, D E F identical, G unrelated
+        ClassMetadata one = classOf("One", method("save", "order", "stock"), method("save", "order", "stock"),
+                method("save", "order", "stock", "user"));
+        ClassMetadata two = classOf("Two", method("load", "token", "auth"), method("load", "token", "auth"),
+                method("load", "token", "auth"), method("render", "warehouse"));
+        List<ClassMetadata> classes = List.of(one, two);
+
+        List<Map<String, Object>> pairs = DocQualityAnalyzer.detectSimilarMethods(classes);
+
+        assertEquals(allPairs(classes, 0.6), pairs);
+        assertEquals(6, pairs.size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void docTextAnalysisMatchesFromStringAndReader() throws Exception {
+        String doc = """
+                # Title
+                  Widgets are configured here.\r
+                Run the frobnicator twice.
+                Then check output.
+
+                Widgets are configured here.
+                Run the frobnicator twice.
+                Then check output.
+                The frobnicator's FROBNICATOR, the and for.
+                Configred by OrderService.
+                """;
+        SpellChecker.Vocabulary vocabulary = new SpellChecker("", true, 2, 3).vocabulary(Set.of("orderservice"));
+
+        Map<String, Object> fromString = DocQualityAnalyzer.analyzeDocText(doc, vocabulary);
+        assertEquals(fromString, DocQualityAnalyzer.analyzeDocText(new java.io.StringReader(doc), vocabulary));
+
+        Map<String, Integer> lines = (Map<String, Integer>) fromString.get("duplicateLines");
+        assertEquals(Map.of("Widgets are configured here.", 2, "Run the frobnicator twice.", 2, "Then check output.", 2), lines);
+        Map<String, Integer> blocks = (Map<String, Integer>) fromString.get("duplicateBlocks");
+        assertEquals(Map.of("Widgets are configured here. Run the frobnicator twice. Then check output.", 2), blocks);
+        Map<String, Integer> words = (Map<String, Integer>) fromString.get("suspectWords");
+        assertEquals(Map.of("widgets", 2, "frobnicator", 3, "frobnicator's", 1, "configred", 1), words);
+        Map<String, List<String>> suggestions = (Map<String, List<String>>) fromString.get("spellingSuggestions");
+        assertEquals("configure", suggestions.get("configred").get(0));
+    }
+
+    @Test
+    void findsRenamedMethodClonesAndSharedBlocks() {
+        String shared = """
+                        int total = 0;
+                        for (int i = 0; i < items.size(); i++) {
+                            if (items.get(i).isActive()) {
+                                total += items.get(i).getPrice() * items.get(i).getQuantity();
+                            }
+                        }
+                """;
+        ClassMetadata a = parse("A", """
+                class A {
+                    int sum(List<Item> items) {
+                        int acc = 0;
+                        for (Item it : items) acc += it.getPrice();
+                        return acc;
+                    }
+                    int report(List<Item> items, Logger log) {
+                        log.info("start");
+                """ + shared + """
+                        log.info("done " + total);
+                        return total;
+                    }
+                }
+                """);
+        ClassMetadata b = parse("B", """
+                class B {
+                    int add(List<Order> orders) {
+                        int result = 1;
+                        for (Order o : orders) result += o.getCost();
+                        return result;
+                    }
+                    void audit(List<Item> items) {
+                        if (items.isEmpty()) throw new IllegalStateException("none");
+                """ + shared + """
+                        store(total);
+                    }
+                }
+                """);
+
+        List<Map<String, Object>> whole = DocQualityAnalyzer.detectDuplicateMethodBodies(List.of(a, b));
+        assertEquals(1, whole.size());
+        assertEquals("type-2", whole.get(0).get("type"));
+        assertEquals(2, whole.get(0).get("occurrences"));
+
+        List<Map<String, Object>> blocks = DocQualityAnalyzer.detectClonedBlocks(List.of(a, b), CloneFingerprinter.GUARANTEE, 10);
+        assertEquals(1, blocks.size(), blocks.toString());
+        String json = JsonUtil.toJson(blocks);
+        assertTrue(json.contains("\"methodName\" : \"report\"") && json.contains("\"methodName\" : \"audit\""), json);
+        assertTrue((int) blocks.get(0).get("tokens") >= CloneFingerprinter.GUARANTEE);
+    }
+
+    private static ClassMetadata parse(String name, String source) {
+        ClassMetadata cm = new ClassMetadata();
+        cm.setClassName(name);
+        List<MethodMeta> methods = new ArrayList<>();
+        for (MethodDeclaration m : StaticJavaParser.parse(source).findAll(MethodDeclaration.class)) {
+            MethodMeta mm = new MethodMeta();
+            mm.setName(m.getNameAsString());
+            mm.setBeginLine(m.getBegin().orElseThrow().line);
+            mm.setEndLine(m.getEnd().orElseThrow().line);
+            mm.setFingerprint(CloneFingerprinter.of(m.getBody().orElseThrow().getTokenRange().orElseThrow()));
+            methods.add(mm);
+        }
+        cm.setMethods(methods);
+        return cm;
+    }
+
+    private static MethodMeta method(String name, String... keywords) {
+        MethodMeta mm = new MethodMeta();
+        mm.setName(name);
+        mm.setDomainKeywords(List.of(keywords));
+        return mm;
+    }
+
+    private static ClassMetadata classOf(String name, MethodMeta... methods) {
+        ClassMetadata cm = new ClassMetadata();
+        cm.setClassName(name);
+        cm.setMethods(List.of(methods));
+        return cm;
+    }
+
+    /** The report as the original all-pairs comparison built it, for single-word names and keywords only. */
+    private static List<Map<String, Object>> allPairs(List<ClassMetadata> classes, double threshold) {
+        List<ClassMetadata> owners = new ArrayList<>();
+        List<MethodMeta> methods = new ArrayList<>();
+        for (ClassMetadata c : classes) {
+            for (MethodMeta m : c.getMethods()) {
+                owners.add(c);
+                methods.add(m);
+            }
+        }
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (int i = 0; i < methods.size(); i++) {
+            for (int j = i + 1; j < methods.size(); j++) {
+                Set<String> a = new HashSet<>(methods.get(i).getDomainKeywords());
+                a.add(methods.get(i).getName());
+                Set<String> b = new HashSet<>(methods.get(j).getDomainKeywords());
+                b.add(methods.get(j).getName());
+                Set<String> union = new HashSet<>(a);
+                union.addAll(b);
+                a.retainAll(b);
+                double score = (double) a.size() / union.size();
+                if (score < threshold) continue;
+                Map<String, Object> pair = new LinkedHashMap<>();
+                pair.put("classA", owners.get(i).getClassName());
+                pair.put("methodA", methods.get(i).getName());
+                pair.put("classB", owners.get(j).getClassName());
+                pair.put("methodB", methods.get(j).getName());
+                pair.put("score", Math.round(score * 100.0) / 100.0);
+                pair.put("suggestion", score > 0.8 ? "Highly similar — consider refactor/reuse" : "Possible reuse");
+                result.add(pair);
+            }
+        }
+        result.sort((x, y) -> Double.compare((double) y.get("score"), (double) x.get("score")));
+        return result;
+    }
+
+    private static Set<String> keys(List<Map<String, Object>> pairs) {
+        Set<String> keys = new HashSet<>();
+        for (Map<String, Object> p : pairs) keys.add(p.get("classA") + "." + p.get("methodA") + "|" + p.get("classB") + "." + p.get("methodB") + "|" + p.get("score"));
+        return keys;
+    }
+
+    /** Methods built from a small vocabulary, every third one a light edit of an earlier method. */
+    private static List<ClassMetadata> syntheticMethods(int count, long seed) {
+        Random rnd = new Random(seed);
+        String[] vocab = new String[400];
+        for (int i = 0; i < vocab.length; i++) vocab[i] = "word" + i;
+        List<List<String>> keywords = new ArrayList<>();
+        List<ClassMetadata> classes = new ArrayList<>();
+        ClassMetadata cm = null;
+        for (int i = 0; i < count; i++) {
+            if (i % 50 == 0) {
+                cm = new ClassMetadata();
+                cm.setClassName("C" + i / 50);
+                cm.setMethods(new ArrayList<>());
+                classes.add(cm);
+            }
+            List<String> kw;
+            if (i % 3 == 2) {
+                kw = new ArrayList<>(keywords.get(rnd.nextInt(keywords.size())));
+                kw.set(rnd.nextInt(kw.size()), vocab[rnd.nextInt(vocab.length)]);
+            } else {
+                kw = new ArrayList<>();
+                for (int k = 0; k < 8; k++) kw.add(vocab[rnd.nextInt(vocab.length)]);
+            }
+            keywords.add(kw);
+            MethodMeta mm = new MethodMeta();
+            mm.setName("m" + i);
+            mm.setDomainKeywords(kw);
+            cm.getMethods().add(mm);
+        }
+        return classes;
+    }
+}
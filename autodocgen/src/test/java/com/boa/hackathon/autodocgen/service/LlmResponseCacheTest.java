@@ -0,0 +1,47 @@
+package com.boa.hackathon.autodocgen.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LlmResponseCacheTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void concurrentPutsAndGetsSurviveReopening() throws Exception {
+        LlmResponseCache cache = new LlmResponseCache(true, dir.toString(), 1);
+        List<Future<?>> lookups = new ArrayList<>();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 500; i++) {
+                int n = i;
+                lookups.add(pool.submit(() -> {
+                    cache.put("m", "prompt " + n, "answer " + n + " ünïcode");
+                    assertEquals(Optional.of("answer " + n + " ünïcode"), cache.get("m", "prompt " + n));
+                    cache.put("m", "prompt " + n, "answer " + n + " ünïcode"); // duplicate: not appended again
+                }));
+            }
+        }
+        for (Future<?> lookup : lookups) lookup.get(); // rethrows a failed assertion
+        cache.close();
+
+        // tiny memory tier, so these are served from the log
+        LlmResponseCache reopened = new LlmResponseCache(true, dir.toString(), 0);
+        for (int i = 0; i < 500; i += 7) {
+            assertEquals(Optional.of("answer " + i + " ünïcode"), reopened.get("m", "prompt " + i));
+        }
+        assertEquals(Optional.empty(), reopened.get("other-model", "prompt 0"));
+        assertEquals(72, reopened.stats().get("diskHits"));
+        reopened.close();
+    }
+}
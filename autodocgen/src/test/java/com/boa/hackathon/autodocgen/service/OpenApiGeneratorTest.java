@@ -0,0 +1,90 @@
+package com.boa.hackathon.autodocgen.service;
+
+import com.boa.hackathon.autodocgen.model.ClassMetadata;
+import com.boa.hackathon.autodocgen.model.MethodMeta;
+import com.boa.hackathon.autodocgen.model.ParamMeta;
+import com.boa.hackathon.autodocgen.model.ProjectMetadata;
+import com.boa.hackathon.autodocgen.util.JsonUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.swagger.v3.core.util.Json;
+import io.swagger.v3.oas.models.OpenAPI;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpenApiGeneratorTest {
+
+    @Test
+    void buildsTypedOperationsAndSharedSchemas() throws Exception {
+        ClassMetadata orders = controller("OrderController", "/api/orders/",
+                endpoint("get", "GET", "/{id:\\d+}", "ResponseEntity<OrderDto>", new ParamMeta("id", ParamMeta.PATH, "Long", true)),
+                endpoint("create", "POST", "", "OrderDto", new ParamMeta("order", ParamMeta.BODY, "OrderDto", true)),
+                endpoint("search", "GET", "", "List<OrderDto>", new ParamMeta("status", ParamMeta.QUERY, "String", false)),
+                endpoint("notes", null, "/{id}/notes", "String"));
+        // a second controller on the same path must add a verb, not replace the path
+        ClassMetadata admin = controller("OrderAdminController", "api/orders",
+                endpoint("purge", "DELETE", "/{id}", "void"));
+        ClassMetadata dto = new ClassMetadata();
+        dto.setClassName("OrderDto");
+        dto.setPackageName("shop.dto");
+        dto.setFieldTypes(new LinkedHashMap<>(Map.of("id", "Long")));
+        dto.getFieldTypes().put("lines", "List<OrderDto>");
+        dto.getFieldTypes().put("MAX_LINES", "int");
+
+        ProjectMetadata pm = new ProjectMetadata();
+        pm.setProjectName("shop");
+        pm.setClasses(List.of(orders, admin, dto));
+        OpenAPI api = new OpenApiGenerator().buildOpenApi(pm);
+        JsonNode json = JsonUtil.readTree(Json.pretty(api));
+
+        assertEquals(Set.of("/api/orders", "/api/orders/{id}", "/api/orders/{id}/notes"), fieldNames(json.path("paths")));
+        // @RequestMapping without a method answers to every verb
+        assertEquals(Set.of("get", "post", "put", "delete", "patch"), fieldNames(json.path("paths").path("/api/orders/{id}/notes")));
+        JsonNode byId = json.path("paths").path("/api/orders/{id}");
+        assertEquals(Set.of("get", "delete"), fieldNames(byId));
+        assertEquals("int64", byId.path("get").path("parameters").get(0).path("schema").path("format").asText());
+        assertEquals("#/components/schemas/OrderDto",
+                byId.path("get").path("responses").path("200").path("content").path("application/json").path("schema").path("$ref").asText());
+        assertTrue(byId.path("delete").path("responses").path("200").path("content").isMissingNode());
+
+        JsonNode root = json.path("paths").path("/api/orders");
+        assertEquals(Set.of("get", "post"), fieldNames(root));
+        assertEquals("status", root.path("get").path("parameters").get(0).path("name").asText());
+        assertEquals("array", root.path("get").path("responses").path("200").path("content").path("application/json").path("schema").path("type").asText());
+        assertTrue(root.path("post").path("requestBody").path("required").asBoolean());
+
+        JsonNode schemas = json.path("components").path("schemas");
+        assertEquals(Set.of("OrderDto"), fieldNames(schemas));
+        assertEquals(Set.of("id", "lines"), fieldNames(schemas.path("OrderDto").path("properties")));
+        assertEquals("#/components/schemas/OrderDto", schemas.path("OrderDto").path("properties").path("lines").path("items").path("$ref").asText());
+    }
+
+    private static ClassMetadata controller(String name, String basePath, MethodMeta... methods) {
+        ClassMetadata c = new ClassMetadata();
+        c.setClassName(name);
+        c.setPackageName("shop.web");
+        c.setType("Controller");
+        c.setBasePath(basePath);
+        c.setImports(List.of("shop.dto.OrderDto"));
+        c.setMethods(List.of(methods));
+        return c;
+    }
+
+    private static MethodMeta endpoint(String name, String verb, String path, String returnType, ParamMeta... params) {
+        MethodMeta m = new MethodMeta();
+        m.setName(name);
+        m.setHttpMethod(verb);
+        m.setEndpoint(path);
+        m.setReturnType(returnType);
+        m.setHttpParams(List.of(params));
+        return m;
+    }
+
+    private static Set<String> fieldNames(JsonNode node) {
+        Set<String> names = new HashSet<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+}
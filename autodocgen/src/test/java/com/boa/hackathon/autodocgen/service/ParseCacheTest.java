@@ -0,0 +1,93 @@
+package com.boa.hackathon.autodocgen.service;
+
+import com.boa.hackathon.autodocgen.model.ClassMetadata;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParseCacheTest {
+
+    private static final String SOURCE = """
+            package shop;
+
+            import java.util.List;
+
+            /** Orders. */
+            @RestController
+            @RequestMapping("/api/orders")
+            public class OrderController {
+                private static final int LIMIT = 20;
+                private OrderRepository orderRepository;
+
+                @GetMapping("/{id}")
+                public Order get(@PathVariable Long id) {
+                    // straße
+                    return orderRepository.findById(id).orElseThrow();
+                }
+
+                public List<Order> recent(int n) {
+                    List<Order> all = orderRepository.findAll();
+                    return all.subList(0, Math.min(n, LIMIT));
+                }
+            }
+            """;
+
+    @TempDir
+    Path tmp;
+
+    @Test
+    void servesIdenticalBlobsFromCacheUnderTheirNewPath() throws Exception {
+        ParseCache cache = new ParseCache(true, tmp.resolve("cache").toString(), 16);
+        RepoParserService parser = parser(cache);
+        Path a = write("a/OrderController.java");
+        Path b = write("b/OrderController.java");
+        ObjectId blob = new ObjectInserter.Formatter().idFor(Constants.OBJ_BLOB, SOURCE.getBytes(StandardCharsets.UTF_8));
+
+        List<ClassMetadata> parsed = parser.parseFiles(Map.of(a, blob), PipelineProgress.NONE, c -> {
+        });
+        List<ClassMetadata> cached = parser.parseFiles(Map.of(b, blob), PipelineProgress.NONE, c -> {
+        });
+        assertEquals(1, cache.stats().get("hits"));
+        assertEquals(b.toString(), cached.get(0).getExtra().get("filePath"));
+        assertEquals(b.toString(), cached.get(0).getMethods().get(0).getBodyRef().getFile());
+
+        // apart from the location, the cached copy is exactly what parsing produced
+        List<ClassMetadata> fresh = parser.parseFiles(List.of(b));
+        assertEquals(fresh, cached);
+        assertNotEquals(parsed, cached);
+        assertNotNull(cached.get(0).getMethods().get(0).getFingerprint());
+        assertEquals("/{id}", cached.get(0).getMethods().get(0).getEndpoint());
+    }
+
+    @Test
+    void evictsBeyondTheSizeLimit() throws Exception {
+        ParseCache cache = new ParseCache(true, tmp.resolve("cache").toString(), 0);
+        Path a = write("a/OrderController.java");
+        ObjectId blob = ObjectId.fromString("0123456789abcdef0123456789abcdef01234567");
+        List<ClassMetadata> classes = parser(cache).parseFiles(List.of(a));
+
+        cache.put(blob, "test", classes);
+        assertNull(cache.get(blob, "test", a.toString()));
+        assertEquals(0, cache.stats().get("bytes"));
+    }
+
+    private RepoParserService parser(ParseCache cache) {
+        return new RepoParserService(1, new String[]{"order"}, new RepoMirrorCache(tmp.resolve("mirrors"), Long.MAX_VALUE), cache, 300);
+    }
+
+    private Path write(String name) throws Exception {
+        Path p = tmp.resolve(name);
+        Files.createDirectories(p.getParent());
+        return Files.writeString(p, SOURCE, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,91 @@
+package com.boa.hackathon.autodocgen.service;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RepoMirrorCacheTest {
+
+    @TempDir
+    Path tmp;
+
+    @Test
+    void clonesShallowAndChecksOutOnlyJavaFiles() throws Exception {
+        Path origin = tmp.resolve("origin");
+        RevCommit first;
+        RevCommit second;
+        try (Git git = Git.init().setDirectory(origin.toFile()).setInitialBranch("main").call()) {
+            first = commit(git, origin, "src/a/Foo.java", "package a; class Foo {}", "first");
+            commit(git, origin, "README.md", "# readme", "docs");
+            second = commit(git, origin, "src/a/Bar.java", "package a; class Bar {}", "second");
+        }
+
+        RepoMirrorCache cache = new RepoMirrorCache(tmp.resolve("mirrors"), Long.MAX_VALUE);
+        Path work = tmp.resolve("work");
+        try (RepoMirrorCache.Mirror mirror = cache.sync(origin.toUri().toString(), "origin")) {
+            assertEquals(second.getId(), mirror.getHead());
+            assertFalse(mirror.getRepository().getObjectDatabase().has(first.getId()), "history beyond depth 1 was fetched");
+
+            Map<Path, ObjectId> files = cache.checkout(mirror, mirror.getHead(), work);
+            assertEquals(List.of(work.resolve("src/a/Bar.java"), work.resolve("src/a/Foo.java")), List.copyOf(files.keySet()));
+            assertFalse(Files.exists(work.resolve("README.md")));
+        }
+    }
+
+    @Test
+    void repeatSyncFetchesNewCommitsIntoExistingMirror() throws Exception {
+        Path origin = tmp.resolve("origin");
+        RevCommit next;
+        try (Git git = Git.init().setDirectory(origin.toFile()).setInitialBranch("main").call()) {
+            commit(git, origin, "Foo.java", "class Foo {}", "first");
+            RepoMirrorCache cache = new RepoMirrorCache(tmp.resolve("mirrors"), Long.MAX_VALUE);
+            try (RepoMirrorCache.Mirror ignored = cache.sync(origin.toUri().toString(), "origin")) {
+                // first sync clones
+            }
+            next = commit(git, origin, "Foo.java", "class Foo { int x; }", "second");
+            try (RepoMirrorCache.Mirror mirror = cache.sync(origin.toUri().toString(), "origin")) {
+                assertEquals(next.getId(), mirror.getHead());
+                Path work = tmp.resolve("work");
+                cache.checkout(mirror, mirror.getHead(), work, List.of("Foo.java"));
+                assertEquals("class Foo { int x; }", Files.readString(work.resolve("Foo.java")));
+            }
+        }
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedMirrorOverBudget() throws Exception {
+        Path a = tmp.resolve("a");
+        Path b = tmp.resolve("b");
+        try (Git ga = Git.init().setDirectory(a.toFile()).setInitialBranch("main").call();
+             Git gb = Git.init().setDirectory(b.toFile()).setInitialBranch("main").call()) {
+            commit(ga, a, "A.java", "class A {}", "a");
+            commit(gb, b, "B.java", "class B {}", "b");
+        }
+
+        RepoMirrorCache cache = new RepoMirrorCache(tmp.resolve("mirrors"), 1);
+        try (RepoMirrorCache.Mirror ignored = cache.sync(a.toUri().toString(), "a")) {
+            assertTrue(Files.isDirectory(tmp.resolve("mirrors/a.git")));
+        }
+        try (RepoMirrorCache.Mirror ignored = cache.sync(b.toUri().toString(), "b")) {
+            assertFalse(Files.exists(tmp.resolve("mirrors/a.git")));
+            assertTrue(Files.isDirectory(tmp.resolve("mirrors/b.git")));
+        }
+    }
+
+    private static RevCommit commit(Git git, Path dir, String path, String content, String message) throws Exception {
+        Path file = dir.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+        git.add().addFilepattern(path).call();
+        return git.commit().setMessage(message).setAuthor("test", "test@example.com").setCommitter("test", "test@example.com").call();
+    }
+}
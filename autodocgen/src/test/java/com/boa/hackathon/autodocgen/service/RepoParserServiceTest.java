@@ -0,0 +1,198 @@
+package com.boa.hackathon.autodocgen.service;
+
+import com.boa.hackathon.autodocgen.model.BodyRef;
+import com.boa.hackathon.autodocgen.model.ClassMetadata;
+import com.boa.hackathon.autodocgen.util.BodyLoader;
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RepoParserServiceTest {
+
+    @TempDir
+    Path tmp;
+
+    @Test
+    void parallelParsingMatchesSequentialOrder() throws Exception {
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            String pkg = "p" + (i % 7);
+            Path p = tmp.resolve("src").resolve(pkg).resolve("C" + i + ".java");
+            Files.createDirectories(p.getParent());
+            StringBuilder src = new StringBuilder("package " + pkg + ";\n\npublic class C" + i + " {\n");
+            // uneven file sizes so workers finish out of order
+            for (int m = 0; m < 1 + (i * 13) % 40; m++) {
+                src.append("    public int order").append(m).append("(int x) { return x * ").append(m).append("; }\n");
+            }
+            src.append("}\nclass Helper").append(i).append(" {}\n");
+            files.add(Files.writeString(p, src));
+        }
+        List<Path> shuffled = new ArrayList<>(files);
+        Collections.shuffle(shuffled, new Random(7));
+
+        List<ClassMetadata> sequential = parser(1).parseFiles(files);
+        List<ClassMetadata> parallel = parser(8).parseFiles(shuffled);
+
+        assertEquals(120, sequential.size());
+        assertEquals(sequential, parallel);
+        List<String> paths = parallel.stream().map(c -> (String) c.getExtra().get("filePath")).toList();
+        assertEquals(paths.stream().sorted().toList(), paths);
+        // within a file, classes keep declaration order
+        for (int i = 0; i < parallel.size(); i += 2) {
+            assertEquals("Helper" + parallel.get(i).getClassName().substring(1), parallel.get(i + 1).getClassName());
+        }
+    }
+
+    @Test
+    void keysRepositoriesByFullUrl() {
+        String key = RepoParserService.repoKey("https://github.com/a/utils");
+        assertTrue(key.startsWith("utils-"));
+        assertNotEquals(key, RepoParserService.repoKey("https://github.com/b/utils"));
+        assertEquals(key, RepoParserService.repoKey("https://github.com/A/Utils.git/"));
+        assertEquals(key, RepoParserService.repoKey("git@github.com:a/utils.git"));
+    }
+
+    @Test
+    void incrementalRunReparsesOnlyChangedFiles() throws Exception {
+        Path origin = tmp.resolve("origin");
+        try (Git git = Git.init().setDirectory(origin.toFile()).setInitialBranch("main").call()) {
+            commit(git, origin, "src/A.java", "class A { int order() { return 1; } }\n");
+            commit(git, origin, "src/B.java", "class B {}\n");
+            commit(git, origin, "src/C.java", "class C {}\n");
+            String url = origin.toUri().toString();
+            RepoParserService parser = parser(2);
+
+            try (RepoParserService.Checkout full = parser.checkout(url, true, PipelineProgress.NONE, classes -> {
+            })) {
+                assertEquals(List.of("A", "B", "C"), names(full.getProject().getClasses()));
+                full.getProject().getClasses().forEach(c -> c.setAiDescription("described " + c.getClassName()));
+                parser.saveSnapshot(full.getProject());
+            }
+
+            commit(git, origin, "src/B.java", "class B { void stock() {} }\n");
+            commit(git, origin, "src/D.java", "class D {}\n");
+            git.rm().addFilepattern("src/C.java").call();
+            git.commit().setMessage("drop C").setAuthor("test", "test@example.com").setCommitter("test", "test@example.com").call();
+
+            List<String> reparsed = new ArrayList<>();
+            long parsedBefore = parser.getFilesParsed();
+            try (RepoParserService.Checkout update = parser.checkout(url, true, PipelineProgress.NONE,
+                    classes -> classes.forEach(c -> reparsed.add(c.getClassName())))) {
+                List<ClassMetadata> classes = update.getProject().getClasses();
+                assertEquals(List.of("B", "D"), reparsed.stream().sorted().toList());
+                assertEquals(2, parser.getFilesParsed() - parsedBefore);
+                // path order, as a full parse would give
+                assertEquals(List.of("A", "B", "D"), names(classes));
+                assertEquals("described A", classes.get(0).getAiDescription());
+                assertNull(classes.get(1).getAiDescription());
+                assertEquals(1, classes.get(1).getMethods().size());
+                assertFalse(Files.exists(Path.of((String) classes.get(0).getExtra().get("filePath")).resolveSibling("C.java")));
+                parser.saveSnapshot(update.getProject());
+            }
+
+            // nothing new upstream: the snapshot is reused as is
+            try (RepoParserService.Checkout same = parser.checkout(url, true, PipelineProgress.NONE, classes -> fail("nothing to parse"))) {
+                assertEquals(List.of("A", "B", "D"), names(same.getProject().getClasses()));
+                assertEquals("described A", same.getProject().getClasses().get(0).getAiDescription());
+                // a snapshot whose commit the mirror does not have cannot be diffed against
+                same.getProject().setHeadCommit("0123456789abcdef0123456789abcdef01234567");
+                parser.saveSnapshot(same.getProject());
+            }
+            commit(git, origin, "src/E.java", "class E {}\n");
+            parsedBefore = parser.getFilesParsed();
+            try (RepoParserService.Checkout fallback = parser.checkout(url, true, PipelineProgress.NONE, classes -> {
+            })) {
+                assertEquals(List.of("A", "B", "D", "E"), names(fallback.getProject().getClasses()));
+                assertEquals(4, parser.getFilesParsed() - parsedBefore);
+                assertNull(fallback.getProject().getClasses().get(0).getAiDescription());
+            }
+        }
+    }
+
+    @Test
+    void secondRunWaitsUntilFirstReleasesItsWorkingTree() throws Exception {
+        Path origin = tmp.resolve("origin");
+        try (Git git = Git.init().setDirectory(origin.toFile()).setInitialBranch("main").call()) {
+            commit(git, origin, "Foo.java", "class Foo {\n    int order(int x) {\n        return x * 2 + 1;\n    }\n}\n");
+            String url = origin.toUri().toString();
+            RepoParserService parser = parser(2);
+
+            RepoParserService.Checkout first = parser.checkout(url, false, PipelineProgress.NONE, classes -> {
+            });
+            BodyRef ref = first.getProject().getClasses().get(0).getMethods().get(0).getBodyRef();
+            String body = BodyLoader.load(ref);
+            assertNotNull(body);
+
+            // the next run would check out a shorter file over the one the first run's bodies point into
+            commit(git, origin, "Foo.java", "class Foo {}\n");
+            CompletableFuture<RepoParserService.Checkout> second = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return parser.checkout(url, false, PipelineProgress.NONE, classes -> {
+                    });
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            assertThrows(TimeoutException.class, () -> second.get(300, TimeUnit.MILLISECONDS));
+            assertEquals(body, BodyLoader.load(ref));
+
+            first.close();
+            try (RepoParserService.Checkout next = second.get(10, TimeUnit.SECONDS)) {
+                assertTrue(next.getProject().getClasses().get(0).getMethods().isEmpty());
+                assertNull(BodyLoader.load(ref));
+            }
+        }
+    }
+
+    @Test
+    void runGivesUpWhenWorkingTreeIsNotReleasedInTime() throws Exception {
+        Path origin = tmp.resolve("origin");
+        try (Git git = Git.init().setDirectory(origin.toFile()).setInitialBranch("main").call()) {
+            commit(git, origin, "Foo.java", "class Foo {}\n");
+        }
+        String url = origin.toUri().toString();
+        RepoParserService parser = parser(1, 200);
+
+        try (RepoParserService.Checkout ignored = parser.checkout(url, false, PipelineProgress.NONE, classes -> {
+        })) {
+            assertThrows(RejectedExecutionException.class, () -> parser.checkout(url, false, PipelineProgress.NONE, classes -> {
+            }));
+        }
+        parser.checkout(url, false, PipelineProgress.NONE, classes -> {
+        }).close();
+    }
+
+    private RepoParserService parser(int parallelism) {
+        return parser(parallelism, 10_000);
+    }
+
+    private RepoParserService parser(int parallelism, long leaseTimeoutMs) {
+        return new RepoParserService(parallelism, new String[]{"order"},
+                new RepoMirrorCache(tmp.resolve("mirrors"), Long.MAX_VALUE), new ParseCache(false, "", 0), tmp.resolve("work"),
+                leaseTimeoutMs);
+    }
+
+    private static List<String> names(List<ClassMetadata> classes) {
+        return classes.stream().map(ClassMetadata::getClassName).toList();
+    }
+
+    private static void commit(Git git, Path dir, String path, String content) throws Exception {
+        Files.createDirectories(dir.resolve(path).getParent());
+        Files.writeString(dir.resolve(path), content);
+        git.add().addFilepattern(path).call();
+        git.commit().setMessage("edit " + path).setAuthor("test", "test@example.com").setCommitter("test", "test@example.com").call();
+    }
+}
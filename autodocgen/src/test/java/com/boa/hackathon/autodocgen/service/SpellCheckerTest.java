@@ -0,0 +1,47 @@
+package com.boa.hackathon.autodocgen.service;
+
+import com.boa.hackathon.autodocgen.util.Dawg;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpellCheckerTest {
+
+    @Test
+    void dawgHoldsExactlyTheWordsItWasBuiltFrom() {
+        Random rnd = new Random(3);
+        Set<String> words = new HashSet<>();
+        Set<String> others = new HashSet<>();
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int k = 2 + rnd.nextInt(8); k > 0; k--) sb.append((char) ('a' + rnd.nextInt(6)));
+            (i % 2 == 0 ? words : others).add(sb.toString());
+        }
+        others.removeAll(words);
+
+        Dawg dawg = Dawg.of(words);
+        assertEquals(words.size(), dawg.size());
+        assertTrue(dawg.nodeCount() < words.size(), "suffixes should be shared: " + dawg);
+        words.forEach(w -> assertTrue(dawg.contains(w), w));
+        others.forEach(w -> assertFalse(dawg.contains(w), w));
+        assertFalse(dawg.contains(""));
+    }
+
+    @Test
+    void acceptsInflectionsAndCodeWordsAndSuggestsCorrections() {
+        Set<String> code = new HashSet<>();
+        SpellChecker.addIdentifiers("List<HTTPOrderItem> findByCustomerId", code);
+        assertTrue(code.containsAll(List.of("list", "httporderitem", "http", "order", "item", "findbycustomerid", "customer")));
+
+        SpellChecker.Vocabulary v = new SpellChecker("", true, 2, 3).vocabulary(code);
+        for (String w : List.of("configured", "configuring", "classes", "queries", "stopped", "quickly", "user's",
+                "reconfigure", "'quoted'", "findbycustomerids", "httporderitem")) {
+            assertTrue(v.isKnown(w), w);
+        }
+        for (String w : List.of("confgure", "reposiotry", "xqzt")) assertFalse(v.isKnown(w), w);
+        assertEquals("repository", v.suggest("reposiotry").get(0));
+        assertTrue(v.suggest("xqztvvw").isEmpty());
+    }
+}
@@ -0,0 +1,56 @@
+package com.boa.hackathon.autodocgen.util;
+
+import com.boa.hackathon.autodocgen.model.BodyRef;
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.stmt.BlockStmt;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BodyLoaderTest {
+
+    @Test
+    void loadsBodiesByByteRangeAndRejectsChangedFiles(@TempDir Path dir) throws Exception {
+        String src = """
+                class Greeter {
+                    // Grüße, naïve café 😀
+                    String hello() { return "héllo 😀"; }
+                \tint twice(int x) {
+                        return x * 2; // ×2
+                    }
+                }
+                """;
+        Path file = dir.resolve("Greeter.java");
+        Files.writeString(file, src, StandardCharsets.UTF_8);
+
+        SourceText source = SourceText.read(file);
+        List<BodyRef> refs = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        for (MethodDeclaration m : StaticJavaParser.parse(source.text()).findAll(MethodDeclaration.class)) {
+            BlockStmt b = m.getBody().orElseThrow();
+            int start = source.begin(b.getRange().orElseThrow()), end = source.end(b.getRange().orElseThrow());
+            refs.add(BodyLoader.refOf(file.toString(), source, start, end, 0, 0));
+            expected.add(source.text().substring(start, end));
+        }
+        assertEquals("{ return \"héllo 😀\"; }", expected.get(0));
+        for (int i = 0; i < refs.size(); i++) assertEquals(expected.get(i), BodyLoader.load(refs.get(i)));
+
+        // same size, different content: remapped, and the stale reference is refused
+        Files.writeString(file, src.replace("x * 2", "x + x"), StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 2000));
+        assertEquals(expected.get(0), BodyLoader.load(refs.get(0)));
+        assertNull(BodyLoader.load(refs.get(1)));
+
+        Files.delete(file);
+        assertNull(BodyLoader.load(refs.get(0)));
+    }
+}
@@ -0,0 +1,96 @@
+package com.boa.hackathon.autodocgen.util;
+
+import com.boa.hackathon.autodocgen.model.MethodMeta;
+import com.boa.hackathon.autodocgen.model.ParamMeta;
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EndpointExtractorTest {
+
+    @Test
+    void readsSpringMappingsAndParameters() {
+        ClassOrInterfaceDeclaration c = parse("""
+                @RestController
+                @RequestMapping(path = "/api" + "/orders")
+                class OrderController {
+                    @GetMapping("/{id}")
+                    OrderDto get(@PathVariable("id") Long orderId, @RequestHeader(name = "X-Tenant", required = false) String tenant) { return null; }
+                    @RequestMapping(value = {"/search", "/find"}, method = {RequestMethod.GET, RequestMethod.POST})
+                    List<OrderDto> search(@RequestParam String status, @RequestParam(defaultValue = "20") int size, Pageable page) { return null; }
+                    @org.springframework.web.bind.annotation.PostMapping
+                    OrderDto create(@Valid @RequestBody OrderDto order) { return null; }
+                    @RequestMapping("/{id}/notes")
+                    String notes(@PathVariable Long id, String author, java.time.LocalDate since, int[] pages, OrderFilter filter, HttpServletRequest request) { return null; }
+                    void helper() { }
+                }
+                """);
+        assertTrue(EndpointExtractor.isController(c));
+        assertEquals("/api/orders", EndpointExtractor.basePath(c));
+
+        MethodMeta get = extract(c, "get");
+        assertEquals("/{id}", get.getEndpoint());
+        assertEquals("GET", get.getHttpMethod());
+        assertEquals(List.of(new ParamMeta("id", ParamMeta.PATH, "Long", true), new ParamMeta("X-Tenant", ParamMeta.HEADER, "String", false)),
+                get.getHttpParams());
+
+        MethodMeta search = extract(c, "search");
+        assertEquals("/search", search.getEndpoint());
+        assertEquals("GET,POST", search.getHttpMethod());
+        assertEquals(List.of(new ParamMeta("status", ParamMeta.QUERY, "String", true), new ParamMeta("size", ParamMeta.QUERY, "int", false)),
+                search.getHttpParams());
+
+        MethodMeta create = extract(c, "create");
+        assertEquals("", create.getEndpoint());
+        assertEquals("POST", create.getHttpMethod());
+        assertEquals(List.of(new ParamMeta("order", ParamMeta.BODY, "OrderDto", true)), create.getHttpParams());
+
+        MethodMeta notes = extract(c, "notes");
+        assertNull(notes.getHttpMethod());
+        assertEquals(List.of(new ParamMeta("id", ParamMeta.PATH, "Long", true), new ParamMeta("author", ParamMeta.QUERY, "String", false),
+                new ParamMeta("since", ParamMeta.QUERY, "java.time.LocalDate", false), new ParamMeta("pages", ParamMeta.QUERY, "int[]", false)),
+                notes.getHttpParams());
+
+        MethodMeta helper = extract(c, "helper");
+        assertNull(helper.getEndpoint());
+        assertNull(helper.getHttpMethod());
+    }
+
+    @Test
+    void readsJaxRsResources() {
+        ClassOrInterfaceDeclaration c = parse("""
+                @Path("/items")
+                class ItemResource {
+                    @PUT @Path("{id}")
+                    Response update(@PathParam("id") String id, @QueryParam("force") boolean force, @Context UriInfo uri, Item item) { return null; }
+                    @Path("sub")
+                    SubResource locator() { return null; }
+                }
+                """);
+        assertTrue(EndpointExtractor.isController(c));
+        assertEquals("/items", EndpointExtractor.basePath(c));
+
+        MethodMeta update = extract(c, "update");
+        assertEquals("{id}", update.getEndpoint());
+        assertEquals("PUT", update.getHttpMethod());
+        assertEquals(List.of(new ParamMeta("id", ParamMeta.PATH, "String", true), new ParamMeta("force", ParamMeta.QUERY, "boolean", false),
+                new ParamMeta("item", ParamMeta.BODY, "Item", true)), update.getHttpParams());
+        assertNull(extract(c, "locator").getEndpoint());
+    }
+
+    private static ClassOrInterfaceDeclaration parse(String src) {
+        return StaticJavaParser.parse(src).findFirst(ClassOrInterfaceDeclaration.class).orElseThrow();
+    }
+
+    private static MethodMeta extract(ClassOrInterfaceDeclaration c, String method) {
+        MethodDeclaration m = c.getMethodsByName(method).get(0);
+        MethodMeta mm = new MethodMeta();
+        EndpointExtractor.extract(m, mm);
+        return mm;
+    }
+}
@@ -0,0 +1,37 @@
+package com.boa.hackathon.autodocgen.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeywordMatcherTest {
+
+    @Test
+    void matchesCaseInsensitivelyInDictionaryOrder() {
+        KeywordMatcher m = new KeywordMatcher(List.of(" Stock ", "order", "ORDER", ""));
+        assertEquals(2, m.size());
+        assertEquals(List.of("stock", "order"), m.find("placeOrder(); reserveSTOCK();"));
+        assertEquals(List.of(), m.find("ordre stck"));
+    }
+
+    @Test
+    void findsOverlappingAndNestedKeywords() {
+        KeywordMatcher m = new KeywordMatcher(List.of("token", "ken", "tokenizer", "enid"));
+        // "ken" ends inside "token", "enid" starts inside it: both only reachable through failure links
+        assertEquals(List.of("token", "ken", "enid"), m.find("tokenId"));
+        assertEquals(List.of("token", "ken", "tokenizer"), m.find("newTokenizer()"));
+    }
+
+    @Test
+    void restrictsToRangeAndSkipsNonAscii() {
+        KeywordMatcher m = new KeywordMatcher(List.of("order", "user"));
+        String text = "Straße ordér ǒrder order; Üser user";
+        assertEquals(List.of("order"), m.find(text, 0, text.indexOf(';')));
+        assertEquals(List.of("user"), m.find(text, text.indexOf(';'), text.length()));
+        // a non-ASCII character breaks a match rather than being folded
+        assertEquals(List.of(), m.find("ordér Üser"));
+        assertThrows(IllegalArgumentException.class, () -> new KeywordMatcher(List.of("straße")));
+    }
+}